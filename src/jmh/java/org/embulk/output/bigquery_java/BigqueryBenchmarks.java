@@ -0,0 +1,38 @@
+package org.embulk.output.bigquery_java;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.embulk.config.ConfigSource;
+import org.embulk.output.bigquery_java.config.PluginTask;
+import org.embulk.util.config.ConfigMapperFactory;
+import org.embulk.util.config.units.LocalFile;
+
+public class BigqueryBenchmarks {
+  static final ConfigMapperFactory CONFIG_MAPPER_FACTORY =
+      ConfigMapperFactory.builder().addDefaultModules().build();
+
+  // A config writing intermediate files into the directory, which needs no credentials
+  public static ConfigSource newConfig(Path directory, String sourceFormat, String compression) {
+    ConfigSource config = CONFIG_MAPPER_FACTORY.newConfigSource();
+    config.set("mode", "replace");
+    config.set("json_keyfile", LocalFile.ofContent(""));
+    config.set("dataset", "benchmark");
+    config.set("table", "benchmark");
+    config.set("source_format", sourceFormat);
+    config.set("compression", compression);
+    config.set("path_prefix", directory.resolve("bq_").toString());
+    config.set("file_ext", ".benchmark");
+    return config;
+  }
+
+  public static PluginTask newTask(ConfigSource config) {
+    return CONFIG_MAPPER_FACTORY.createConfigMapper().map(config, PluginTask.class);
+  }
+
+  public static void deleteFiles(PluginTask task) throws IOException {
+    for (Path path : BigqueryUtil.getIntermediateFiles(task)) {
+      Files.delete(path);
+    }
+  }
+}
@@ -0,0 +1,225 @@
+package org.embulk.output.bigquery_java;
+
+import java.math.BigDecimal;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.embulk.config.ConfigSource;
+import org.embulk.output.bigquery_java.config.BigqueryColumnOption;
+import org.embulk.output.bigquery_java.config.PluginTask;
+import org.embulk.output.bigquery_java.converter.BigqueryColumnConverter;
+import org.embulk.output.bigquery_java.converter.BigqueryFieldWriter;
+import org.embulk.spi.Column;
+import org.embulk.spi.Schema;
+import org.embulk.spi.type.Types;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+// Converts a page of values per converter and target type, so an operation is a value. Converted
+// values go to a Blackhole, so the cost of the writer is not measured.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@SuppressWarnings("deprecation") // The use of org.embulk.spi.time.Timestamp
+public class BigqueryColumnConverterBenchmark {
+  private static final int VALUES = 1000;
+  private static final DateTimeFormatter TEXT_FORMAT =
+      DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss").withZone(ZoneOffset.UTC);
+
+  private BigqueryColumnConverter booleanToBoolean;
+  private BigqueryColumnConverter longToInteger;
+  private BigqueryColumnConverter longToString;
+  private BigqueryColumnConverter doubleToFloat;
+  private BigqueryColumnConverter stringToString;
+  private BigqueryColumnConverter stringToTimestamp;
+  private BigqueryColumnConverter timestampToTimestamp;
+  private BigqueryColumnConverter timestampToDate;
+  private final boolean[] booleans = new boolean[VALUES];
+  private final long[] longs = new long[VALUES];
+  private final double[] doubles = new double[VALUES];
+  private final String[] strings = new String[VALUES];
+  private final String[] timestampStrings = new String[VALUES];
+  private final org.embulk.spi.time.Timestamp[] timestamps =
+      new org.embulk.spi.time.Timestamp[VALUES];
+  private BlackholeFieldWriter writer;
+
+  @Setup(Level.Trial)
+  public void setUp(Blackhole blackhole) {
+    PluginTask task =
+        BigqueryBenchmarks.newTask(
+            BigqueryBenchmarks.newConfig(
+                Paths.get(System.getProperty("java.io.tmpdir")), "NEWLINE_DELIMITED_JSON", "NONE"));
+    booleanToBoolean = converter(task, Types.BOOLEAN, null, null);
+    longToInteger = converter(task, Types.LONG, null, null);
+    longToString = converter(task, Types.LONG, "STRING", null);
+    doubleToFloat = converter(task, Types.DOUBLE, null, null);
+    stringToString = converter(task, Types.STRING, null, null);
+    stringToTimestamp = converter(task, Types.STRING, "TIMESTAMP", "%Y-%m-%d %H:%M:%S");
+    timestampToTimestamp = converter(task, Types.TIMESTAMP, null, null);
+    timestampToDate = converter(task, Types.TIMESTAMP, "DATE", null);
+
+    Random random = new Random(0);
+    for (int i = 0; i < VALUES; i++) {
+      booleans[i] = random.nextBoolean();
+      longs[i] = random.nextInt(1 << 24);
+      doubles[i] = random.nextDouble() * 1000;
+      strings[i] = Integer.toString(random.nextInt(1 << 30), 36);
+      Instant instant = Instant.ofEpochMilli(1700000000000L + random.nextInt(1 << 30) * 10L);
+      timestampStrings[i] = TEXT_FORMAT.format(instant);
+      timestamps[i] = org.embulk.spi.time.Timestamp.ofInstant(instant);
+    }
+    writer = new BlackholeFieldWriter(blackhole);
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(VALUES)
+  public void booleanToBoolean() {
+    for (boolean value : booleans) {
+      booleanToBoolean.convertAndSet(writer, value);
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(VALUES)
+  public void longToInteger() {
+    for (long value : longs) {
+      longToInteger.convertAndSet(writer, value);
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(VALUES)
+  public void longToString() {
+    for (long value : longs) {
+      longToString.convertAndSet(writer, value);
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(VALUES)
+  public void doubleToFloat() {
+    for (double value : doubles) {
+      doubleToFloat.convertAndSet(writer, value);
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(VALUES)
+  public void stringToString() {
+    for (String value : strings) {
+      stringToString.convertAndSet(writer, value);
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(VALUES)
+  public void stringToTimestamp() {
+    for (String value : timestampStrings) {
+      stringToTimestamp.convertAndSet(writer, value);
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(VALUES)
+  public void timestampToTimestamp() {
+    for (org.embulk.spi.time.Timestamp value : timestamps) {
+      timestampToTimestamp.convertAndSet(writer, value);
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(VALUES)
+  public void timestampToDate() {
+    for (org.embulk.spi.time.Timestamp value : timestamps) {
+      timestampToDate.convertAndSet(writer, value);
+    }
+  }
+
+  private static BigqueryColumnConverter converter(
+      PluginTask task, org.embulk.spi.type.Type type, String bigqueryType, String format) {
+    Column column = new Column(0, "c", type);
+    List<BigqueryColumnOption> columnOptions = new ArrayList<>();
+    if (bigqueryType != null) {
+      ConfigSource config = BigqueryBenchmarks.CONFIG_MAPPER_FACTORY.newConfigSource();
+      config.set("name", "c");
+      config.set("type", bigqueryType);
+      if (format != null) {
+        config.set("timestamp_format", format);
+      }
+      columnOptions.add(
+          BigqueryBenchmarks.CONFIG_MAPPER_FACTORY
+              .createConfigMapper()
+              .map(config, BigqueryColumnOption.class));
+    }
+    List<Column> columns = new ArrayList<>();
+    columns.add(column);
+    return BigqueryColumnConverter.of(task, new Schema(columns), columnOptions)[0];
+  }
+
+  private static class BlackholeFieldWriter implements BigqueryFieldWriter {
+    private final Blackhole blackhole;
+
+    BlackholeFieldWriter(Blackhole blackhole) {
+      this.blackhole = blackhole;
+    }
+
+    @Override
+    public void putNull(String name) {
+      blackhole.consume(name);
+    }
+
+    @Override
+    public void put(String name, boolean value) {
+      blackhole.consume(value);
+    }
+
+    @Override
+    public void put(String name, int value) {
+      blackhole.consume(value);
+    }
+
+    @Override
+    public void put(String name, long value) {
+      blackhole.consume(value);
+    }
+
+    @Override
+    public void put(String name, float value) {
+      blackhole.consume(value);
+    }
+
+    @Override
+    public void put(String name, double value) {
+      blackhole.consume(value);
+    }
+
+    @Override
+    public void put(String name, String value) {
+      blackhole.consume(value);
+    }
+
+    @Override
+    public void put(String name, BigDecimal value) {
+      blackhole.consume(value);
+    }
+  }
+}
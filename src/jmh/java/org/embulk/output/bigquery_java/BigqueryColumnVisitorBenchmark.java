@@ -0,0 +1,104 @@
+package org.embulk.output.bigquery_java;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import org.embulk.output.bigquery_java.config.PluginTask;
+import org.embulk.output.bigquery_java.converter.BigqueryColumnConverter;
+import org.embulk.output.bigquery_java.visitor.BigqueryBytesColumnVisitor;
+import org.embulk.output.bigquery_java.visitor.CsvColumnVisitor;
+import org.embulk.output.bigquery_java.visitor.JsonColumnVisitor;
+import org.embulk.output.bigquery_java.visitor.JsonGeneratorColumnVisitor;
+import org.embulk.spi.Schema;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+// Serializes a page of synthetic records as BigqueryPageOutput does, so an operation is a record.
+// typeMix is described in BigquerySyntheticPageReader.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class BigqueryColumnVisitorBenchmark {
+  static final int RECORDS = 1000;
+
+  @Param({"json", "json_generator", "csv"})
+  public String visitor;
+
+  @Param({"8", "64"})
+  public int width;
+
+  @Param({"bldst", "s", "ld", "tj"})
+  public String typeMix;
+
+  @Param({"0.1"})
+  public double nullRatio;
+
+  private BigquerySyntheticPageReader reader;
+  private Schema schema;
+  private BigqueryBytesColumnVisitor columnVisitor;
+  private final BigqueryRecordBuffer records = new BigqueryRecordBuffer();
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    // no file is written
+    Path directory = Paths.get(System.getProperty("java.io.tmpdir"));
+    String sourceFormat = visitor.equals("csv") ? "CSV" : "NEWLINE_DELIMITED_JSON";
+    PluginTask task =
+        BigqueryBenchmarks.newTask(BigqueryBenchmarks.newConfig(directory, sourceFormat, "NONE"));
+    reader = new BigquerySyntheticPageReader(width, typeMix, RECORDS, nullRatio);
+    schema = BigquerySyntheticPageReader.schema(width, typeMix);
+    BigqueryColumnConverter[] converters =
+        BigqueryColumnConverter.of(task, schema, Collections.emptyList());
+    switch (visitor) {
+      case "json":
+        columnVisitor = new JsonColumnVisitor(reader, converters);
+        break;
+      case "json_generator":
+        // the generator writes straight into the records like the page output
+        columnVisitor = new JsonGeneratorColumnVisitor(reader, converters, records);
+        break;
+      case "csv":
+        columnVisitor = new CsvColumnVisitor(reader, converters, ',');
+        break;
+      default:
+        throw new IllegalArgumentException("unknown visitor: " + visitor);
+    }
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    reader.close();
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(RECORDS)
+  public void visit(Blackhole blackhole) throws IOException {
+    reader.rewind();
+    while (reader.nextRecord()) {
+      columnVisitor.reset();
+      schema.visitColumns(columnVisitor);
+      columnVisitor.writeTo(records);
+      records.endRecord();
+    }
+    blackhole.consume(records.size());
+    records.clear();
+  }
+}
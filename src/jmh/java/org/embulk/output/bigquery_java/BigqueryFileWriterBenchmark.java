@@ -0,0 +1,89 @@
+package org.embulk.output.bigquery_java;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import org.embulk.output.bigquery_java.config.PluginTask;
+import org.embulk.output.bigquery_java.converter.BigqueryColumnConverter;
+import org.embulk.output.bigquery_java.visitor.BigqueryBytesColumnVisitor;
+import org.embulk.output.bigquery_java.visitor.JsonGeneratorColumnVisitor;
+import org.embulk.spi.Schema;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Writes a JSONL file of pages of serialized synthetic records, so an operation is a record. The
+// records are serialized once, so only BigqueryFileWriter and the compression are measured.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class BigqueryFileWriterBenchmark {
+  private static final int RECORDS = 1000;
+  private static final int PAGES = 100;
+
+  @Param({"NONE", "GZIP"})
+  public String compression;
+
+  @Param({"8", "64"})
+  public int width;
+
+  @Param({"bldst"})
+  public String typeMix;
+
+  private Path directory;
+  private PluginTask task;
+  private final BigqueryRecordBuffer records = new BigqueryRecordBuffer();
+
+  @Setup(Level.Trial)
+  public void setUp() throws IOException {
+    directory = Files.createTempDirectory("embulk-output-bigquery-benchmark");
+    task =
+        BigqueryBenchmarks.newTask(
+            BigqueryBenchmarks.newConfig(directory, "NEWLINE_DELIMITED_JSON", compression));
+    Schema schema = BigquerySyntheticPageReader.schema(width, typeMix);
+    try (BigquerySyntheticPageReader reader =
+        new BigquerySyntheticPageReader(width, typeMix, RECORDS, 0.1)) {
+      BigqueryBytesColumnVisitor visitor =
+          new JsonGeneratorColumnVisitor(
+              reader, BigqueryColumnConverter.of(task, schema, Collections.emptyList()), records);
+      while (reader.nextRecord()) {
+        visitor.reset();
+        schema.visitColumns(visitor);
+        visitor.writeTo(records);
+        records.endRecord();
+      }
+    }
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws IOException {
+    Files.delete(directory);
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(RECORDS * PAGES)
+  public void write() throws IOException {
+    BigqueryFileWriter writer = new BigqueryFileWriter(task);
+    for (int i = 0; i < PAGES; i++) {
+      writer.write(records);
+    }
+    writer.close();
+    BigqueryBenchmarks.deleteFiles(task);
+  }
+}
@@ -0,0 +1,115 @@
+package org.embulk.output.bigquery_java;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.embulk.config.ConfigSource;
+import org.embulk.output.bigquery_java.config.PluginTask;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Writes a gzipped JSONL file of synthetic records per operation. Operations per second against
+// outputBytes per operation is the tradeoff curve of the level, and the buffer sizes and the
+// parallel compressor move the curve.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class BigqueryGzipBenchmark {
+  private static final int RECORDS = 100000;
+
+  @Param({"1", "3", "6", "9"})
+  public int level;
+
+  @Param({"512", "65536"})
+  public int gzipBufferSize;
+
+  @Param({"8192", "32768"})
+  public int writeBufferSize;
+
+  @Param({"false", "true"})
+  public boolean parallelGzip;
+
+  private Path directory;
+  private PluginTask task;
+  private BigqueryRecordBuffer records;
+
+  @AuxCounters(AuxCounters.Type.EVENTS)
+  @State(Scope.Thread)
+  public static class Bytes {
+    public long inputBytes;
+    public long outputBytes;
+  }
+
+  @Setup(Level.Trial)
+  public void setUp() throws IOException {
+    directory = Files.createTempDirectory("embulk-output-bigquery-benchmark");
+    ConfigSource config = BigqueryBenchmarks.newConfig(directory, "NEWLINE_DELIMITED_JSON", "GZIP");
+    config.set("gzip_level", level);
+    config.set("gzip_buffer_size", gzipBufferSize);
+    config.set("write_buffer_size", writeBufferSize);
+    config.set("parallel_gzip", parallelGzip);
+    task = BigqueryBenchmarks.newTask(config);
+    records = records(new Random(0));
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws IOException {
+    BigqueryBenchmarks.deleteFiles(task);
+    Files.delete(directory);
+  }
+
+  @Benchmark
+  public void write(Bytes bytes) throws IOException {
+    BigqueryFileWriter writer = new BigqueryFileWriter(task);
+    writer.write(records);
+    bytes.inputBytes += records.size();
+    writer.close();
+    for (Path path : BigqueryUtil.getIntermediateFiles(task)) {
+      bytes.outputBytes += Files.size(path);
+    }
+  }
+
+  // Records like logs: ids, repeated names, timestamps and a free text
+  private static BigqueryRecordBuffer records(Random random) throws IOException {
+    String[] names = {"alpha", "bravo", "charlie", "delta", "echo", "foxtrot"};
+    BigqueryRecordBuffer records = new BigqueryRecordBuffer();
+    for (int i = 0; i < RECORDS; i++) {
+      StringBuilder text = new StringBuilder();
+      for (int j = random.nextInt(20); j >= 0; j--) {
+        text.append(Integer.toString(random.nextInt(1 << 20), 36)).append(' ');
+      }
+      String record =
+          String.format(
+              "{\"id\":%d,\"name\":\"%s\",\"score\":%f,\"created_at\":\"2024-01-%02d %02d:%02d:%02d UTC\",\"text\":\"%s\"}\n",
+              i,
+              names[random.nextInt(names.length)],
+              random.nextDouble() * 100,
+              random.nextInt(28) + 1,
+              random.nextInt(24),
+              random.nextInt(60),
+              random.nextInt(60),
+              text);
+      records.write(record.getBytes(StandardCharsets.UTF_8));
+      records.endRecord();
+    }
+    return records;
+  }
+}
@@ -0,0 +1,98 @@
+package org.embulk.output.bigquery_java;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import org.embulk.output.bigquery_java.config.PluginTask;
+import org.embulk.output.bigquery_java.converter.BigqueryColumnConverter;
+import org.embulk.output.bigquery_java.converter.ProtoRowEncoder;
+import org.embulk.output.bigquery_java.visitor.JsonGeneratorColumnVisitor;
+import org.embulk.spi.Schema;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+// Encodes a page of synthetic records into rows of the Storage Write API, against serializing them
+// into JSON lines to load, so an operation is a record. typeMix is described in
+// BigquerySyntheticPageReader.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class BigqueryProtoRowEncoderBenchmark {
+  static final int RECORDS = 1000;
+
+  @Param({"8", "64"})
+  public int width;
+
+  @Param({"bldst", "s", "ld", "tj"})
+  public String typeMix;
+
+  @Param({"0.1"})
+  public double nullRatio;
+
+  private BigquerySyntheticPageReader reader;
+  private Schema schema;
+  private ProtoRowEncoder encoder;
+  private JsonGeneratorColumnVisitor jsonVisitor;
+  private final BigqueryRecordBuffer records = new BigqueryRecordBuffer();
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    // no file is written
+    Path directory = Paths.get(System.getProperty("java.io.tmpdir"));
+    PluginTask task =
+        BigqueryBenchmarks.newTask(
+            BigqueryBenchmarks.newConfig(directory, "NEWLINE_DELIMITED_JSON", "NONE"));
+    reader = new BigquerySyntheticPageReader(width, typeMix, RECORDS, nullRatio);
+    schema = BigquerySyntheticPageReader.schema(width, typeMix);
+    BigqueryColumnConverter[] converters =
+        BigqueryColumnConverter.of(task, schema, Collections.emptyList());
+    encoder = new ProtoRowEncoder(schema, converters);
+    jsonVisitor = new JsonGeneratorColumnVisitor(reader, converters);
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    reader.close();
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(RECORDS)
+  public void proto(Blackhole blackhole) {
+    reader.rewind();
+    while (reader.nextRecord()) {
+      blackhole.consume(encoder.encode(reader));
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(RECORDS)
+  public void json(Blackhole blackhole) throws IOException {
+    reader.rewind();
+    while (reader.nextRecord()) {
+      jsonVisitor.reset();
+      schema.visitColumns(jsonVisitor);
+      jsonVisitor.writeTo(records);
+      records.endRecord();
+    }
+    blackhole.consume(records.size());
+    records.clear();
+  }
+}
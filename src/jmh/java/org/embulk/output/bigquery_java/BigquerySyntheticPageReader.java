@@ -0,0 +1,151 @@
+package org.embulk.output.bigquery_java;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.embulk.spi.Column;
+import org.embulk.spi.PageReader;
+import org.embulk.spi.Schema;
+import org.embulk.spi.type.Type;
+import org.embulk.spi.type.Types;
+import org.msgpack.value.Value;
+import org.msgpack.value.ValueFactory;
+
+// Serves a page of generated records, so that benchmarks measure the plugin without the page
+// builder of embulk. The schema is width columns, and the types of the columns cycle over typeMix,
+// which is a string of b (boolean), l (long), d (double), s (string), t (timestamp) and j (json).
+// Values are generated once, and rewind() reads the same page again.
+@SuppressWarnings("deprecation") // The use of PageReader(Schema) and org.embulk.spi.time.Timestamp
+public class BigquerySyntheticPageReader extends PageReader {
+  private final Object[][] records;
+  private int position = -1;
+
+  public BigquerySyntheticPageReader(int width, String typeMix, int records, double nullRatio) {
+    this(schema(width, typeMix), records, nullRatio);
+  }
+
+  private BigquerySyntheticPageReader(Schema schema, int records, double nullRatio) {
+    super(schema);
+    this.records = records(schema, records, nullRatio, new Random(0));
+  }
+
+  public static Schema schema(int width, String typeMix) {
+    List<Column> columns = new ArrayList<>();
+    for (int i = 0; i < width; i++) {
+      columns.add(new Column(i, "c" + i, type(typeMix.charAt(i % typeMix.length()))));
+    }
+    return new Schema(columns);
+  }
+
+  public int getRecordCount() {
+    return records.length;
+  }
+
+  public void rewind() {
+    position = -1;
+  }
+
+  @Override
+  public boolean nextRecord() {
+    return ++position < records.length;
+  }
+
+  @Override
+  public boolean isNull(Column column) {
+    return records[position][column.getIndex()] == null;
+  }
+
+  @Override
+  public boolean getBoolean(Column column) {
+    return (boolean) records[position][column.getIndex()];
+  }
+
+  @Override
+  public long getLong(Column column) {
+    return (long) records[position][column.getIndex()];
+  }
+
+  @Override
+  public double getDouble(Column column) {
+    return (double) records[position][column.getIndex()];
+  }
+
+  @Override
+  public String getString(Column column) {
+    return (String) records[position][column.getIndex()];
+  }
+
+  @Override
+  public org.embulk.spi.time.Timestamp getTimestamp(Column column) {
+    return (org.embulk.spi.time.Timestamp) records[position][column.getIndex()];
+  }
+
+  @Override
+  public Value getJson(Column column) {
+    return (Value) records[position][column.getIndex()];
+  }
+
+  private static Type type(char c) {
+    switch (c) {
+      case 'b':
+        return Types.BOOLEAN;
+      case 'l':
+        return Types.LONG;
+      case 'd':
+        return Types.DOUBLE;
+      case 's':
+        return Types.STRING;
+      case 't':
+        return Types.TIMESTAMP;
+      case 'j':
+        return Types.JSON;
+      default:
+        throw new IllegalArgumentException("unknown type in typeMix: " + c);
+    }
+  }
+
+  private static Object[][] records(Schema schema, int count, double nullRatio, Random random) {
+    Object[][] records = new Object[count][schema.getColumnCount()];
+    for (Object[] record : records) {
+      for (Column column : schema.getColumns()) {
+        if (random.nextDouble() >= nullRatio) {
+          record[column.getIndex()] = value(column.getType(), random);
+        }
+      }
+    }
+    return records;
+  }
+
+  // Values like logs: ids, scores, short texts and recent timestamps
+  private static Object value(Type type, Random random) {
+    if (type == Types.BOOLEAN) {
+      return random.nextBoolean();
+    } else if (type == Types.LONG) {
+      return (long) random.nextInt(1 << 24);
+    } else if (type == Types.DOUBLE) {
+      return random.nextDouble() * 1000;
+    } else if (type == Types.STRING) {
+      return text(random);
+    } else if (type == Types.TIMESTAMP) {
+      return org.embulk.spi.time.Timestamp.ofEpochMilli(
+          1700000000000L + random.nextInt(1 << 30) * 10L);
+    } else {
+      return ValueFactory.newMap(
+          ValueFactory.newString("id"),
+          ValueFactory.newInteger(random.nextInt(1 << 24)),
+          ValueFactory.newString("text"),
+          ValueFactory.newString(text(random)));
+    }
+  }
+
+  private static String text(Random random) {
+    StringBuilder text = new StringBuilder();
+    for (int i = random.nextInt(5); i >= 0; i--) {
+      if (text.length() > 0) {
+        text.append(' ');
+      }
+      text.append(Integer.toString(random.nextInt(1 << 20), 36));
+    }
+    return text.toString();
+  }
+}
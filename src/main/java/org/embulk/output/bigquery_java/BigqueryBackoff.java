@@ -0,0 +1,68 @@
+package org.embulk.output.bigquery_java;
+
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+import org.embulk.output.bigquery_java.config.BigqueryRetryPolicies;
+import org.embulk.output.bigquery_java.config.BigqueryRetryPolicy;
+import org.embulk.output.bigquery_java.config.PluginTask;
+import org.embulk.output.bigquery_java.exception.BigqueryBackendException;
+import org.embulk.output.bigquery_java.exception.BigqueryInternalException;
+import org.embulk.output.bigquery_java.exception.BigqueryRateLimitExceededException;
+import org.embulk.output.bigquery_java.exception.BigqueryUploadException;
+
+// Exponential backoff with full jitter, so that runners failed at the same time do not retry at the
+// same time. Each retryable error has its own waits, and rate limits wait longer by default.
+public class BigqueryBackoff {
+  private final long initialRetryWaitMillis;
+  private final long maxRetryWaitMillis;
+
+  public BigqueryBackoff(long initialRetryWaitMillis, long maxRetryWaitMillis) {
+    this.initialRetryWaitMillis = initialRetryWaitMillis;
+    this.maxRetryWaitMillis = maxRetryWaitMillis;
+  }
+
+  // Returns null when the error is not retryable
+  public static BigqueryBackoff of(PluginTask task, Throwable exception) {
+    Optional<BigqueryRetryPolicies> policies = task.getRetryPolicies();
+    if (exception instanceof BigqueryRateLimitExceededException) {
+      return of(policies, BigqueryRetryPolicies::getRateLimitExceeded, 5 * 1000, 60 * 1000);
+    } else if (exception instanceof BigqueryBackendException) {
+      return of(policies, BigqueryRetryPolicies::getBackendError, 2 * 1000, 10 * 1000);
+    } else if (exception instanceof BigqueryInternalException) {
+      return of(policies, BigqueryRetryPolicies::getInternalError, 2 * 1000, 10 * 1000);
+    } else if (exception instanceof BigqueryUploadException) {
+      return forUploadError(task);
+    }
+    return null;
+  }
+
+  public static BigqueryBackoff forUploadError(PluginTask task) {
+    return of(task.getRetryPolicies(), BigqueryRetryPolicies::getUploadError, 1000, 10 * 1000);
+  }
+
+  private static BigqueryBackoff of(
+      Optional<BigqueryRetryPolicies> policies,
+      Function<BigqueryRetryPolicies, Optional<BigqueryRetryPolicy>> getPolicy,
+      long initialRetryWaitMillis,
+      long maxRetryWaitMillis) {
+    Optional<BigqueryRetryPolicy> policy = policies.flatMap(getPolicy);
+    return new BigqueryBackoff(
+        policy
+            .flatMap(BigqueryRetryPolicy::getInitialRetryWaitMillis)
+            .orElse(initialRetryWaitMillis),
+        policy.flatMap(BigqueryRetryPolicy::getMaxRetryWaitMillis).orElse(maxRetryWaitMillis));
+  }
+
+  // A random wait up to the exponential wait of the retry, which starts with 0
+  public long getRetryWaitMillis(int retryCount) {
+    return ThreadLocalRandom.current().nextLong(getMaxRetryWaitMillis(retryCount) + 1);
+  }
+
+  long getMaxRetryWaitMillis(int retryCount) {
+    if (retryCount >= 62 || initialRetryWaitMillis > maxRetryWaitMillis >> retryCount) {
+      return maxRetryWaitMillis;
+    }
+    return initialRetryWaitMillis << retryCount;
+  }
+}
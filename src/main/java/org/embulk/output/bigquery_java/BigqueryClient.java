@@ -1,11 +1,18 @@
 package org.embulk.output.bigquery_java;
 
+import com.google.api.client.http.HttpTransport;
+import com.google.api.client.http.apache.v2.ApacheHttpTransport;
+import com.google.api.gax.core.FixedCredentialsProvider;
+import com.google.api.gax.core.NoCredentialsProvider;
 import com.google.api.services.bigquery.BigqueryScopes;
+import com.google.cloud.RestorableState;
+import com.google.cloud.WriteChannel;
 import com.google.cloud.bigquery.BigQuery;
 import com.google.cloud.bigquery.BigQueryException;
 import com.google.cloud.bigquery.BigQueryOptions;
 import com.google.cloud.bigquery.Clustering;
 import com.google.cloud.bigquery.CopyJobConfiguration;
+import com.google.cloud.bigquery.CsvOptions;
 import com.google.cloud.bigquery.Dataset;
 import com.google.cloud.bigquery.DatasetId;
 import com.google.cloud.bigquery.DatasetInfo;
@@ -17,7 +24,10 @@ import com.google.cloud.bigquery.Job;
 import com.google.cloud.bigquery.JobId;
 import com.google.cloud.bigquery.JobInfo;
 import com.google.cloud.bigquery.JobStatistics;
+import com.google.cloud.bigquery.JobStatus;
 import com.google.cloud.bigquery.LegacySQLTypeName;
+import com.google.cloud.bigquery.LoadConfiguration;
+import com.google.cloud.bigquery.LoadJobConfiguration;
 import com.google.cloud.bigquery.QueryJobConfiguration;
 import com.google.cloud.bigquery.StandardSQLTypeName;
 import com.google.cloud.bigquery.StandardTableDefinition;
@@ -29,22 +39,47 @@ import com.google.cloud.bigquery.TableInfo;
 import com.google.cloud.bigquery.TableResult;
 import com.google.cloud.bigquery.TimePartitioning;
 import com.google.cloud.bigquery.WriteChannelConfiguration;
+import com.google.cloud.bigquery.storage.v1.BatchCommitWriteStreamsRequest;
+import com.google.cloud.bigquery.storage.v1.BatchCommitWriteStreamsResponse;
+import com.google.cloud.bigquery.storage.v1.BigQueryWriteClient;
+import com.google.cloud.bigquery.storage.v1.BigQueryWriteSettings;
+import com.google.cloud.bigquery.storage.v1.ProtoSchema;
+import com.google.cloud.bigquery.storage.v1.StorageError;
+import com.google.cloud.bigquery.storage.v1.StreamWriter;
+import com.google.cloud.bigquery.storage.v1.TableName;
+import com.google.cloud.bigquery.storage.v1.WriteStream;
+import com.google.cloud.http.HttpTransportOptions;
+import com.google.protobuf.DescriptorProtos.DescriptorProto;
+import io.grpc.ManagedChannelBuilder;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
-import java.io.OutputStream;
-import java.nio.channels.Channels;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.Spliterator;
 import java.util.Spliterators;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
+import org.apache.http.HttpHost;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.impl.client.HttpClientBuilder;
 import org.embulk.config.ConfigException;
 import org.embulk.output.bigquery_java.config.BigqueryColumnOption;
 import org.embulk.output.bigquery_java.config.BigqueryTimePartitioning;
@@ -53,6 +88,7 @@ import org.embulk.output.bigquery_java.exception.BigqueryBackendException;
 import org.embulk.output.bigquery_java.exception.BigqueryException;
 import org.embulk.output.bigquery_java.exception.BigqueryInternalException;
 import org.embulk.output.bigquery_java.exception.BigqueryRateLimitExceededException;
+import org.embulk.output.bigquery_java.exception.BigqueryUploadException;
 import org.embulk.spi.Column;
 import org.embulk.spi.Schema;
 import org.embulk.spi.type.BooleanType;
@@ -62,9 +98,6 @@ import org.embulk.spi.type.LongType;
 import org.embulk.spi.type.StringType;
 import org.embulk.spi.type.TimestampType;
 import org.embulk.spi.type.Type;
-import org.embulk.util.retryhelper.RetryExecutor;
-import org.embulk.util.retryhelper.RetryGiveupException;
-import org.embulk.util.retryhelper.Retryable;
 import org.json.JSONObject;
 import org.json.JSONTokener;
 import org.slf4j.Logger;
@@ -72,6 +105,8 @@ import org.slf4j.LoggerFactory;
 
 public class BigqueryClient {
   private final Logger logger = LoggerFactory.getLogger(BigqueryClient.class);
+  private static final int MAX_CONNECTIONS = 200;
+  private final HttpTransport transport;
   private final BigQuery bigquery;
   private final String project;
   public final String destinationProject; // FIXME: should be private
@@ -82,10 +117,15 @@ public class BigqueryClient {
   private final Schema schema;
   private final List<BigqueryColumnOption> columnOptions;
   private FieldList cachedSrcFields = null;
+  private BigqueryJobPoller jobPoller;
+  private BigQueryWriteClient writeClient;
+  private ExecutorService requestExecutor;
+  private final BigqueryRetryTokenBucket retryTokenBucket;
 
   public BigqueryClient(PluginTask task, Schema schema) {
     this.task = task;
     this.schema = schema;
+    transport = createHttpTransport(task);
     project = task.getProject().orElseGet(this::getProjectIdFromJsonKeyfile);
     destinationProject = task.getDestinationProject().orElse(project);
     destinationDataset = task.getDataset();
@@ -97,6 +137,9 @@ public class BigqueryClient {
       locationForLog = "us/eu";
     }
     columnOptions = task.getColumnOptions().orElse(Collections.emptyList());
+    retryTokenBucket =
+        new BigqueryRetryTokenBucket(
+            task.getRetryTokensPerSecond(), task.getRetryTokenBucketSize());
     try {
       bigquery = getBigQueryService();
     } catch (IOException e) {
@@ -140,11 +183,47 @@ public class BigqueryClient {
   }
 
   private BigQuery getBigQueryService() throws IOException {
-    return BigQueryOptions.newBuilder()
-        .setCredentials(new Auth(task).getCredentials(BigqueryScopes.BIGQUERY))
-        .setProjectId(project)
-        .build()
-        .getService();
+    BigQueryOptions.Builder builder =
+        BigQueryOptions.newBuilder()
+            .setCredentials(new Auth(task).getCredentials(BigqueryScopes.BIGQUERY))
+            .setProjectId(project)
+            .setTransportOptions(
+                HttpTransportOptions.newBuilder().setHttpTransportFactory(() -> transport).build());
+    task.getEndpoint().ifPresent(builder::setHost);
+    return builder.build().getService();
+  }
+
+  // Every request goes to the same host, so the pool keeps a connection for each concurrent
+  // request alive instead of the default of 20 per route
+  private static HttpTransport createHttpTransport(PluginTask task) {
+    HttpClientBuilder builder =
+        ApacheHttpTransport.newDefaultHttpClientBuilder()
+            .setMaxConnTotal(MAX_CONNECTIONS)
+            .setMaxConnPerRoute(MAX_CONNECTIONS);
+    if (task.getEndpoint().isPresent()) {
+      // the client starts uploads at www.googleapis.com whatever the host is, so every request
+      // is routed to the endpoint instead
+      HttpHost endpoint = HttpHost.create(task.getEndpoint().get());
+      builder.setRoutePlanner((target, request, context) -> new HttpRoute(endpoint));
+    }
+    return new ApacheHttpTransport(builder.build());
+  }
+
+  public void close() {
+    if (jobPoller != null) {
+      jobPoller.shutdown();
+    }
+    if (requestExecutor != null) {
+      requestExecutor.shutdownNow();
+    }
+    if (writeClient != null) {
+      writeClient.close();
+    }
+    try {
+      transport.shutdown();
+    } catch (IOException e) {
+      logger.info(e.getMessage());
+    }
   }
 
   public Dataset createDataset() {
@@ -179,6 +258,10 @@ public class BigqueryClient {
     return bigquery.getJob(jobId);
   }
 
+  public boolean cancelJob(JobId jobId) {
+    return bigquery.cancel(jobId);
+  }
+
   public Table getTable(String table) {
     return getTable(table, destinationDataset);
   }
@@ -199,6 +282,15 @@ public class BigqueryClient {
     createTableIfNotExist(table, dataset, destinationProject);
   }
 
+  public CompletableFuture<Void> createTableIfNotExistAsync(String table) {
+    return createTableIfNotExistAsync(table, destinationDataset);
+  }
+
+  public CompletableFuture<Void> createTableIfNotExistAsync(String table, String dataset) {
+    return CompletableFuture.runAsync(
+        () -> createTableIfNotExist(table, dataset), getRequestExecutor());
+  }
+
   private void createTableIfNotExist(String table, String dataset, String project) {
     StandardTableDefinition.Builder tableDefinitionBuilder = StandardTableDefinition.newBuilder();
     tableDefinitionBuilder.setSchema(buildSchema(schema, columnOptions));
@@ -256,6 +348,118 @@ public class BigqueryClient {
     }
   }
 
+  public CompletableFuture<Void> updateTableIfNeedAsync() {
+    return CompletableFuture.runAsync(this::updateTableIfNeed, getRequestExecutor());
+  }
+
+  // The client of the Storage Write API, which is created on the first call and shares its
+  // channel between the streams of the tasks
+  private synchronized BigQueryWriteClient getWriteClient() {
+    if (writeClient == null) {
+      try {
+        writeClient = BigQueryWriteClient.create(getWriteSettings());
+      } catch (IOException e) {
+        throw new RuntimeException(e);
+      }
+    }
+    return writeClient;
+  }
+
+  // The endpoint takes the gRPC requests of the Storage Write API as well. An http endpoint, such
+  // as an emulator, is called without TLS, and so without credentials, which gRPC sends only over
+  // TLS
+  private BigQueryWriteSettings getWriteSettings() throws IOException {
+    BigQueryWriteSettings.Builder builder = BigQueryWriteSettings.newBuilder();
+    boolean plaintext = false;
+    if (task.getEndpoint().isPresent()) {
+      HttpHost endpoint = HttpHost.create(task.getEndpoint().get());
+      plaintext = endpoint.getSchemeName().equals("http");
+      int port = endpoint.getPort() >= 0 ? endpoint.getPort() : plaintext ? 80 : 443;
+      builder.setEndpoint(endpoint.getHostName() + ":" + port);
+    }
+    if (plaintext) {
+      builder
+          .setTransportChannelProvider(
+              BigQueryWriteSettings.defaultGrpcTransportProviderBuilder()
+                  .setChannelConfigurator(ManagedChannelBuilder::usePlaintext)
+                  .build())
+          .setCredentialsProvider(NoCredentialsProvider.create());
+    } else {
+      builder.setCredentialsProvider(
+          FixedCredentialsProvider.create(new Auth(task).getCredentials(BigqueryScopes.BIGQUERY)));
+    }
+    return builder.build();
+  }
+
+  // Rows of a PENDING stream are not visible until the stream is committed
+  public WriteStream createPendingWriteStream(String table) {
+    logger.info(
+        "embulk-output-bigquery: Create write stream... {}:{}.{}",
+        destinationProject,
+        destinationDataset,
+        table);
+    return getWriteClient()
+        .createWriteStream(
+            TableName.of(
+                destinationProject,
+                destinationDataset,
+                BigqueryUtil.chompPartitionDecorator(table)),
+            WriteStream.newBuilder().setType(WriteStream.Type.PENDING).build());
+  }
+
+  public StreamWriter newStreamWriter(WriteStream stream, DescriptorProto descriptor)
+      throws IOException {
+    return StreamWriter.newBuilder(stream.getName(), getWriteClient())
+        .setWriterSchema(ProtoSchema.newBuilder().setProtoDescriptor(descriptor).build())
+        .build();
+  }
+
+  // Returns the number of rows of the stream, which takes no more appends
+  public long finalizeWriteStream(String streamName) {
+    return getWriteClient().finalizeWriteStream(streamName).getRowCount();
+  }
+
+  // Makes rows of every stream visible at once, or none of them
+  public void batchCommitWriteStreams(String table, List<String> streamNames) {
+    String parent =
+        TableName.of(
+                destinationProject, destinationDataset, BigqueryUtil.chompPartitionDecorator(table))
+            .toString();
+    logger.info(
+        "embulk-output-bigquery: Commit {} write streams... {}", streamNames.size(), parent);
+    BatchCommitWriteStreamsResponse response =
+        getWriteClient()
+            .batchCommitWriteStreams(
+                BatchCommitWriteStreamsRequest.newBuilder()
+                    .setParent(parent)
+                    .addAllWriteStreams(streamNames)
+                    .build());
+    if (!response.hasCommitTime()) {
+      throw new BigqueryException(
+          String.format(
+              "failed to commit write streams of %s, errors: %s",
+              parent,
+              response.getStreamErrorsList().stream()
+                  .map(StorageError::getErrorMessage)
+                  .collect(Collectors.joining(", "))));
+    }
+  }
+
+  public static FormatOptions buildFormatOptions(PluginTask task) {
+    if (task.getSourceFormat().equals("CSV")) {
+      return CsvOptions.newBuilder()
+          .setFieldDelimiter(task.getFieldDelimiter())
+          .setQuote("\"")
+          .setAllowQuotedNewLines(task.getAllowQuotedNewlines())
+          .build();
+    } else if (task.getSourceFormat().equals("AVRO")) {
+      return FormatOptions.avro();
+    } else if (task.getSourceFormat().equals("PARQUET")) {
+      return FormatOptions.parquet();
+    }
+    return FormatOptions.json();
+  }
+
   public static com.google.cloud.bigquery.Schema buildPatchSchema(
       PluginTask task, FieldList currentFields, FieldList dstFields) {
     if (!isNeedUpdateTable(task) || dstFields == null) {
@@ -316,109 +520,291 @@ public class BigqueryClient {
     return timePartitioningBuilder.build();
   }
 
-  public JobStatistics.LoadStatistics load(
-      Path loadFile, String table, JobInfo.WriteDisposition writeDisposition)
-      throws BigqueryException {
+  // Uploads the file on the executor and waits for the load job on the poller, so that no thread
+  // waits for the job. The upload is retried with the file when the job fails with a retryable
+  // error.
+  public CompletableFuture<JobStatistics.LoadStatistics> loadAsync(
+      Path loadFile, String table, JobInfo.WriteDisposition writeDisposition, Executor executor) {
+    return retryAsync(
+            "Load",
+            () ->
+                CompletableFuture.supplyAsync(
+                        () -> startLoad(loadFile, table, writeDisposition), executor)
+                    .thenCompose(
+                        job ->
+                            job == null
+                                ? CompletableFuture.completedFuture(null)
+                                : getJobPoller().watch(job, "Load")))
+        .thenApply(JobStatistics.LoadStatistics.class::cast);
+  }
+
+  // Runs the attempt again while it fails with a retryable error. The retries are scheduled on the
+  // poller instead of sleeping in a thread, and wait for the backoff of the error and a token of
+  // the bucket shared by the runners.
+  private <T> CompletableFuture<T> retryAsync(String kind, Supplier<CompletableFuture<T>> attempt) {
+    CompletableFuture<T> result = new CompletableFuture<>();
+    retryAsync(kind, attempt, 0, result);
+    return result;
+  }
+
+  private <T> void retryAsync(
+      String kind,
+      Supplier<CompletableFuture<T>> attempt,
+      int retryCount,
+      CompletableFuture<T> result) {
     int retries = task.getRetries();
+    CompletableFuture<T> future;
+    try {
+      future = attempt.get();
+    } catch (RuntimeException e) {
+      future = new CompletableFuture<>();
+      future.completeExceptionally(e);
+    }
+    future.whenComplete(
+        (value, throwable) -> {
+          if (throwable == null) {
+            result.complete(value);
+            return;
+          }
+          Throwable cause =
+              throwable instanceof CompletionException ? throwable.getCause() : throwable;
+          BigqueryBackoff backoff = BigqueryBackoff.of(task, cause);
+          if (backoff == null || retryCount >= retries) {
+            if (backoff != null) {
+              logger.error("embulk-output-bigquery: Give up retrying for {} job", kind);
+            }
+            result.completeExceptionally(cause);
+            return;
+          }
+          // https://cloud.google.com/bigquery/quotas#standard_tables
+          // Maximum rate of table metadata update operations — 5 operations every 10 seconds
+          // per table
+          long retryWait = backoff.getRetryWaitMillis(retryCount) + retryTokenBucket.take();
+          String message =
+              String.format(
+                  "embulk-output-bigquery: %s job failed. Retrying %d/%d after %.1f seconds. Message: %s",
+                  kind, retryCount + 1, retries, retryWait / 1000.0, cause.getMessage());
+          if ((retryCount + 1) % retries == 0) {
+            logger.warn(message, cause);
+          } else {
+            logger.warn(message);
+          }
+          getJobPoller()
+              .getScheduler()
+              .schedule(
+                  () -> retryAsync(kind, attempt, retryCount + 1, result),
+                  retryWait,
+                  TimeUnit.MILLISECONDS);
+        });
+  }
+
+  // Uploads the file and returns the load job without waiting for it
+  public Job startLoad(Path loadFile, String table, JobInfo.WriteDisposition writeDisposition) {
+    UUID uuid = UUID.randomUUID();
+    String jobId = String.format("embulk_load_job_%s", uuid);
+
+    if (Files.exists(loadFile)) {
+      logger.info(
+          "embulk-output-bigquery: Load job starting... job_id:[{}] {} => {}:{}.{} in {}",
+          jobId,
+          loadFile,
+          destinationProject,
+          destinationDataset,
+          table,
+          locationForLog);
+    } else {
+      logger.info(
+          "embulk-output-bigquery: Load job starting... {} does not exist, skipped", loadFile);
+      // TODO: should throw error?
+      return null;
+    }
+
+    TableDataWriteChannel writer = openLoadChannel(jobId, table, writeDisposition);
 
     try {
-      // https://cloud.google.com/bigquery/quotas#standard_tables
-      // Maximum rate of table metadata update operations — 5 operations every 10 seconds per table
-      return RetryExecutor.builder()
-          .withRetryLimit(retries)
-          .withInitialRetryWaitMillis(2 * 1000)
-          .withMaxRetryWaitMillis(10 * 1000)
-          .build()
-          .runInterruptible(
-              new Retryable<JobStatistics.LoadStatistics>() {
-                @Override
-                public JobStatistics.LoadStatistics call() {
-                  UUID uuid = UUID.randomUUID();
-                  String jobId = String.format("embulk_load_job_%s", uuid);
-
-                  if (Files.exists(loadFile)) {
-                    logger.info(
-                        "embulk-output-bigquery: Load job starting... job_id:[{}] {} => {}:{}.{} in {}",
-                        jobId,
-                        loadFile,
-                        destinationProject,
-                        destinationDataset,
-                        table,
-                        locationForLog);
-                  } else {
-                    logger.info(
-                        "embulk-output-bigquery: Load job starting... {} does not exist, skipped",
-                        loadFile);
-                    // TODO: should throw error?
-                    return null;
-                  }
+      writer = upload(writer, loadFile);
+    } catch (IOException e) {
+      throw new BigqueryUploadException(
+          String.format("failed to upload %s, job_id:[%s] %s", loadFile, jobId, e));
+    } catch (BigQueryException e) {
+      if (isTransientUploadError(e)) {
+        throw new BigqueryUploadException(
+            String.format("failed to upload %s, job_id:[%s] %s", loadFile, jobId, e));
+      }
+      throw e;
+    }
 
-                  TableId tableId = TableId.of(destinationProject, destinationDataset, table);
-                  WriteChannelConfiguration writeChannelConfiguration =
-                      WriteChannelConfiguration.newBuilder(tableId)
-                          .setFormatOptions(FormatOptions.json())
-                          .setWriteDisposition(writeDisposition)
-                          .setMaxBadRecords(task.getMaxBadRecords())
-                          .setIgnoreUnknownValues(task.getIgnoreUnknownValues())
-                          .setSchema(buildSchema(schema, columnOptions))
-                          .build();
-                  TableDataWriteChannel writer =
-                      bigquery.writer(JobId.of(jobId), writeChannelConfiguration);
-
-                  try (OutputStream stream = Channels.newOutputStream(writer)) {
-                    Files.copy(loadFile, stream);
-                  } catch (IOException e) {
-                    logger.info(e.getMessage());
-                  }
+    return writer.getJob();
+  }
 
-                  Job job = writer.getJob();
-                  return (JobStatistics.LoadStatistics) waitForLoad(job);
-                }
+  // Writes the file into the channel by chunks. The state of the channel is captured after each
+  // chunk, and a transient failure resumes the upload session from the last captured chunk instead
+  // of uploading the whole file again. Returns the channel that is closed at last.
+  private TableDataWriteChannel upload(TableDataWriteChannel writer, Path loadFile)
+      throws IOException {
+    // the channel sends a request whenever its buffer has a chunk, so the reads are of the chunk
+    // size and the captured state has no buffered bytes to copy. This is not zero-copy: the file is
+    // read into the chunk, and the channel copies the chunk into its request
+    ByteBuffer chunk = ByteBuffer.allocate(task.getUploadChunkSize());
+    RestorableState<WriteChannel> state = writer.capture();
+    long offset = 0;
+    int resumeCount = 0;
+    try (FileChannel file = FileChannel.open(loadFile, StandardOpenOption.READ)) {
+      while (true) {
+        try {
+          chunk.clear();
+          if (file.read(chunk) < 0) {
+            writer.close();
+            return writer;
+          }
+          chunk.flip();
+          while (chunk.hasRemaining()) {
+            writer.write(chunk);
+          }
+          state = writer.capture();
+          offset = file.position();
+        } catch (BigQueryException e) {
+          if (!isTransientUploadError(e) || resumeCount >= task.getRetries()) {
+            throw e;
+          }
+          long wait = BigqueryBackoff.forUploadError(task).getRetryWaitMillis(resumeCount);
+          resumeCount++;
+          logger.warn(
+              String.format(
+                  "embulk-output-bigquery: Upload of %s failed. Resuming %d/%d from %d bytes after %.1f seconds. Message: %s",
+                  loadFile, resumeCount, task.getRetries(), offset, wait / 1000.0, e.getMessage()));
+          try {
+            Thread.sleep(wait);
+          } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("interrupted");
+          }
+          writer = (TableDataWriteChannel) state.restore();
+          file.position(offset);
+        }
+      }
+    }
+  }
 
-                @Override
-                public boolean isRetryableException(Exception exception) {
-                  return exception instanceof BigqueryBackendException
-                      || exception instanceof BigqueryRateLimitExceededException
-                      || exception instanceof BigqueryInternalException;
-                }
+  // 5xx responses and connection resets, after which the upload session can go on
+  private static boolean isTransientUploadError(BigQueryException e) {
+    return e.getCode() >= 500 || e.getCause() instanceof IOException;
+  }
 
-                @Override
-                public void onRetry(
-                    Exception exception, int retryCount, int retryLimit, int retryWait)
-                    throws RetryGiveupException {
-                  String message =
-                      String.format(
-                          "embulk-output-bigquery: Load job failed. Retrying %d/%d after %d seconds. Message: %s",
-                          retryCount, retryLimit, retryWait / 1000, exception.getMessage());
-                  if (retryCount % retries == 0) {
-                    logger.warn(message, exception);
-                  } else {
-                    logger.warn(message);
-                  }
-                }
+  // Opens the upload of a load job. The job is created when the channel is closed
+  public TableDataWriteChannel openLoadChannel(
+      String jobId, String table, JobInfo.WriteDisposition writeDisposition) {
+    TableId tableId = TableId.of(destinationProject, destinationDataset, table);
+    WriteChannelConfiguration.Builder writeChannelConfigurationBuilder =
+        WriteChannelConfiguration.newBuilder(tableId);
+    configureLoad(writeChannelConfigurationBuilder, writeDisposition);
+    TableDataWriteChannel writer =
+        bigquery.writer(JobId.of(jobId), writeChannelConfigurationBuilder.build());
+    writer.setChunkSize(task.getUploadChunkSize());
+    return writer;
+  }
 
-                @Override
-                public void onGiveup(Exception firstException, Exception lastException)
-                    throws RetryGiveupException {
-                  logger.error("embulk-output-bigquery: Give up retrying for Load job");
-                }
+  // Loads the objects of the URIs by one job, and waits for the job on the poller. The job is
+  // created again when it fails with a retryable error
+  public CompletableFuture<JobStatistics.LoadStatistics> loadUrisAsync(
+      List<String> sourceUris, String table, JobInfo.WriteDisposition writeDisposition) {
+    return retryAsync(
+            "Load",
+            () ->
+                CompletableFuture.supplyAsync(
+                        () -> {
+                          String jobId = String.format("embulk_load_job_%s", UUID.randomUUID());
+                          logger.info(
+                              "embulk-output-bigquery: Load job starting... job_id:[{}] {} objects"
+                                  + " => {}:{}.{} in {}",
+                              jobId,
+                              sourceUris.size(),
+                              destinationProject,
+                              destinationDataset,
+                              table,
+                              locationForLog);
+                          LoadJobConfiguration.Builder builder =
+                              LoadJobConfiguration.newBuilder(
+                                  TableId.of(destinationProject, destinationDataset, table),
+                                  sourceUris);
+                          configureLoad(builder, writeDisposition);
+                          return bigquery.create(
+                              JobInfo.newBuilder(builder.build())
+                                  .setJobId(JobId.of(jobId))
+                                  .build());
+                        },
+                        getRequestExecutor())
+                    .thenCompose(job -> getJobPoller().watch(job, "Load")))
+        .thenApply(JobStatistics.LoadStatistics.class::cast);
+  }
+
+  private void configureLoad(
+      LoadConfiguration.Builder builder, JobInfo.WriteDisposition writeDisposition) {
+    builder
+        .setFormatOptions(buildFormatOptions(task))
+        .setWriteDisposition(writeDisposition)
+        .setMaxBadRecords(task.getMaxBadRecords())
+        .setIgnoreUnknownValues(task.getIgnoreUnknownValues());
+    if (task.getSourceFormat().equals("AVRO")) {
+      builder.setUseAvroLogicalTypes(true);
+    }
+    // Avro and Parquet files have their own schema
+    if (!task.getSourceFormat().equals("AVRO") && !task.getSourceFormat().equals("PARQUET")) {
+      builder.setSchema(buildSchema(schema, columnOptions));
+    }
+  }
+
+  // The transport of the client, which object stores share
+  HttpTransport getHttpTransport() {
+    return transport;
+  }
+
+  // Runs the requests of the async methods, which are blocking calls of the library
+  private synchronized Executor getRequestExecutor() {
+    if (requestExecutor == null) {
+      requestExecutor =
+          Executors.newCachedThreadPool(
+              r -> {
+                Thread thread = new Thread(r, "embulk-output-bigquery-request");
+                thread.setDaemon(true);
+                return thread;
               });
+    }
+    return requestExecutor;
+  }
 
-    } catch (RetryGiveupException ex) {
-      if (ex.getCause() instanceof BigqueryException) {
-        throw (BigqueryException) ex.getCause();
-      }
-      // TODO:
-      throw new RuntimeException(ex);
-    } catch (InterruptedException ex) {
-      throw new BigqueryException("interrupted");
+  // The poller of the jobs of this client, which is started on the first call
+  public synchronized BigqueryJobPoller getJobPoller() {
+    if (jobPoller == null) {
+      jobPoller = new BigqueryJobPoller(task, this);
     }
+    return jobPoller;
+  }
+
+  public Set<String> listRunningJobIds(long minCreationTime) {
+    return stream(
+            bigquery
+                .listJobs(
+                    BigQuery.JobListOption.stateFilter(
+                        JobStatus.State.PENDING, JobStatus.State.RUNNING),
+                    BigQuery.JobListOption.minCreationTime(minCreationTime),
+                    BigQuery.JobListOption.fields(BigQuery.JobField.ID))
+                .iterateAll())
+        .map(job -> job.getJobId().getJob())
+        .collect(Collectors.toSet());
+  }
+
+  public static boolean isRetryableJobException(Throwable exception) {
+    return exception instanceof BigqueryBackendException
+        || exception instanceof BigqueryRateLimitExceededException
+        || exception instanceof BigqueryInternalException
+        || exception instanceof BigqueryUploadException;
   }
 
   public JobStatistics.CopyStatistics copy(
       String sourceTable, String destinationTable, JobInfo.WriteDisposition writeDisposition)
       throws BigqueryException {
-    return copy(sourceTable, destinationTable, destinationDataset, writeDisposition);
+    return BigqueryUtil.join(copyAsync(sourceTable, destinationTable, writeDisposition));
   }
 
   public JobStatistics.CopyStatistics copy(
@@ -427,84 +813,65 @@ public class BigqueryClient {
       String destinationDataset,
       JobInfo.WriteDisposition writeDisposition)
       throws BigqueryException {
-    return copy(
+    return BigqueryUtil.join(
+        copyAsync(sourceTable, destinationTable, destinationDataset, writeDisposition));
+  }
+
+  public CompletableFuture<JobStatistics.CopyStatistics> copyAsync(
+      String sourceTable, String destinationTable, JobInfo.WriteDisposition writeDisposition) {
+    return copyAsync(sourceTable, destinationTable, destinationDataset, writeDisposition);
+  }
+
+  public CompletableFuture<JobStatistics.CopyStatistics> copyAsync(
+      String sourceTable,
+      String destinationTable,
+      String destinationDataset,
+      JobInfo.WriteDisposition writeDisposition) {
+    return copyAsync(
         TableId.of(destinationProject, this.destinationDataset, sourceTable),
         TableId.of(destinationProject, destinationDataset, destinationTable),
         writeDisposition);
   }
 
-  private JobStatistics.CopyStatistics copy(
-      TableId sourceTable, TableId destinationTable, JobInfo.WriteDisposition writeDisposition)
-      throws BigqueryException {
-    int retries = task.getRetries();
-
-    try {
-      return RetryExecutor.builder()
-          .withRetryLimit(retries)
-          .withInitialRetryWaitMillis(2 * 1000)
-          .withMaxRetryWaitMillis(10 * 1000)
-          .build()
-          .runInterruptible(
-              new Retryable<JobStatistics.CopyStatistics>() {
-                @Override
-                public JobStatistics.CopyStatistics call() {
-                  UUID uuid = UUID.randomUUID();
-                  String jobId = String.format("embulk_load_job_%s", uuid);
-
-                  CopyJobConfiguration copyJobConfiguration =
-                      CopyJobConfiguration.newBuilder(destinationTable, sourceTable)
-                          .setWriteDisposition(writeDisposition)
-                          .build();
-
-                  Job job =
-                      bigquery.create(
-                          JobInfo.newBuilder(copyJobConfiguration)
-                              .setJobId(JobId.of(jobId))
-                              .build());
-                  return (JobStatistics.CopyStatistics) waitForCopy(job);
-                }
-
-                @Override
-                public boolean isRetryableException(Exception exception) {
-                  return exception instanceof BigqueryBackendException
-                      || exception instanceof BigqueryRateLimitExceededException
-                      || exception instanceof BigqueryInternalException;
-                }
-
-                @Override
-                public void onRetry(
-                    Exception exception, int retryCount, int retryLimit, int retryWait)
-                    throws RetryGiveupException {
-                  String message =
-                      String.format(
-                          "embulk-output-bigquery: Copy job failed. Retrying %d/%d after %d seconds. Message: %s",
-                          retryCount, retryLimit, retryWait / 1000, exception.getMessage());
-                  if (retryCount % retries == 0) {
-                    logger.warn(message, exception);
-                  } else {
-                    logger.warn(message);
-                  }
-                }
+  private CompletableFuture<JobStatistics.CopyStatistics> copyAsync(
+      TableId sourceTable, TableId destinationTable, JobInfo.WriteDisposition writeDisposition) {
+    return retryAsync(
+            "Copy",
+            () ->
+                CompletableFuture.supplyAsync(
+                        () -> {
+                          UUID uuid = UUID.randomUUID();
+                          String jobId = String.format("embulk_load_job_%s", uuid);
+
+                          CopyJobConfiguration copyJobConfiguration =
+                              CopyJobConfiguration.newBuilder(destinationTable, sourceTable)
+                                  .setWriteDisposition(writeDisposition)
+                                  .build();
+
+                          return bigquery.create(
+                              JobInfo.newBuilder(copyJobConfiguration)
+                                  .setJobId(JobId.of(jobId))
+                                  .build());
+                        },
+                        getRequestExecutor())
+                    .thenCompose(job -> getJobPoller().watch(job, "Copy")))
+        .thenApply(JobStatistics.CopyStatistics.class::cast);
+  }
 
-                @Override
-                public void onGiveup(Exception firstException, Exception lastException)
-                    throws RetryGiveupException {
-                  logger.error("embulk-output-bigquery: Give up retrying for Copy job");
-                }
-              });
+  public JobStatistics.QueryStatistics merge(
+      String sourceTable, String targetTable, List<String> mergeKeys, List<String> mergeRule) {
+    return BigqueryUtil.join(mergeAsync(sourceTable, targetTable, mergeKeys, mergeRule));
+  }
 
-    } catch (RetryGiveupException ex) {
-      if (ex.getCause() instanceof BigqueryException) {
-        throw (BigqueryException) ex.getCause();
-      }
-      // TODO:
-      throw new RuntimeException(ex);
-    } catch (InterruptedException ex) {
-      throw new BigqueryException("interrupted");
-    }
+  public CompletableFuture<JobStatistics.QueryStatistics> mergeAsync(
+      String sourceTable, String targetTable, List<String> mergeKeys, List<String> mergeRule) {
+    return CompletableFuture.supplyAsync(
+            () -> buildMergeQuery(sourceTable, targetTable, mergeKeys, mergeRule),
+            getRequestExecutor())
+        .thenCompose(this::executeQueryAsync);
   }
 
-  public JobStatistics.QueryStatistics merge(
+  private String buildMergeQuery(
       String sourceTable, String targetTable, List<String> mergeKeys, List<String> mergeRule) {
     StringBuilder sb = new StringBuilder();
     sb.append("MERGE ");
@@ -534,7 +901,7 @@ public class BigqueryClient {
     sb.append(")");
     String query = sb.toString();
     logger.info(String.format("embulk-output-bigquery: Execute query... %s", query));
-    return executeQuery(query);
+    return query;
   }
 
   private List<String> getMergeKeys(String table) {
@@ -572,17 +939,15 @@ public class BigqueryClient {
   }
 
   public TableResult runQuery(String query) {
-    int retries = task.getRetries();
-    try {
-      return RetryExecutor.builder()
-          .withRetryLimit(retries)
-          .withInitialRetryWaitMillis(2 * 1000)
-          .withMaxRetryWaitMillis(10 * 1000)
-          .build()
-          .runInterruptible(
-              new Retryable<TableResult>() {
-                @Override
-                public TableResult call() throws Exception {
+    return BigqueryUtil.join(runQueryAsync(query));
+  }
+
+  public CompletableFuture<TableResult> runQueryAsync(String query) {
+    return retryAsync(
+        "Query",
+        () ->
+            CompletableFuture.supplyAsync(
+                () -> {
                   QueryJobConfiguration configuration =
                       QueryJobConfiguration.newBuilder(query).setUseLegacySql(false).build();
                   String job = String.format("embulk_query_job_%s", UUID.randomUUID());
@@ -590,43 +955,14 @@ public class BigqueryClient {
                   if (location != null) {
                     builder.setLocation(location);
                   }
-                  return bigquery.query(configuration, builder.build());
-                }
-
-                @Override
-                public boolean isRetryableException(Exception exception) {
-                  return exception instanceof BigqueryBackendException
-                      || exception instanceof BigqueryRateLimitExceededException
-                      || exception instanceof BigqueryInternalException;
-                }
-
-                @Override
-                public void onRetry(
-                    Exception exception, int retryCount, int retryLimit, int retryWait) {
-                  String message =
-                      String.format(
-                          "embulk-output-bigquery: Query job failed. Retrying %d/%d after %d seconds. Message: %s",
-                          retryCount, retryLimit, retryWait / 1000, exception.getMessage());
-                  if (retryCount % retries == 0) {
-                    logger.warn(message, exception);
-                  } else {
-                    logger.warn(message);
+                  try {
+                    return bigquery.query(configuration, builder.build());
+                  } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new BigqueryException("interrupted");
                   }
-                }
-
-                @Override
-                public void onGiveup(Exception firstException, Exception lastException) {
-                  logger.error("embulk-output-bigquery: Give up retrying for Query job");
-                }
-              });
-    } catch (RetryGiveupException e) {
-      if (e.getCause() instanceof BigqueryException) {
-        throw (BigqueryException) e.getCause();
-      }
-      throw new RuntimeException(e);
-    } catch (InterruptedException e) {
-      throw new BigqueryException("interrupted");
-    }
+                },
+                getRequestExecutor()));
   }
 
   private static <T> Stream<T> stream(Iterable<T> iterable) {
@@ -695,72 +1031,41 @@ public class BigqueryClient {
   }
 
   public JobStatistics.QueryStatistics executeQuery(String query) {
-    int retries = task.getRetries();
-
-    try {
-      return RetryExecutor.builder()
-          .withRetryLimit(retries)
-          .withInitialRetryWaitMillis(2 * 1000)
-          .withMaxRetryWaitMillis(10 * 1000)
-          .build()
-          .runInterruptible(
-              new Retryable<JobStatistics.QueryStatistics>() {
-                @Override
-                public JobStatistics.QueryStatistics call() {
-                  UUID uuid = UUID.randomUUID();
-                  String jobId = String.format("embulk_query_job_%s", uuid);
-
-                  QueryJobConfiguration queryConfig =
-                      QueryJobConfiguration.newBuilder(query).setUseLegacySql(false).build();
-                  JobId.Builder jobIdBuilder = JobId.newBuilder().setJob(jobId);
-                  if (location != null) {
-                    jobIdBuilder.setLocation(location);
-                  }
-
-                  Job job =
-                      bigquery.create(
-                          JobInfo.newBuilder(queryConfig).setJobId(jobIdBuilder.build()).build());
-                  return (JobStatistics.QueryStatistics) waitForQuery(job);
-                }
-
-                @Override
-                public boolean isRetryableException(Exception exception) {
-                  return exception instanceof BigqueryBackendException
-                      || exception instanceof BigqueryRateLimitExceededException
-                      || exception instanceof BigqueryInternalException;
-                }
-
-                @Override
-                public void onRetry(
-                    Exception exception, int retryCount, int retryLimit, int retryWait)
-                    throws RetryGiveupException {
-                  String message =
-                      String.format(
-                          "embulk-output-bigquery: Query job failed. Retrying %d/%d after %d seconds. Message: %s",
-                          retryCount, retryLimit, retryWait / 1000, exception.getMessage());
-                  if (retryCount % retries == 0) {
-                    logger.warn(message, exception);
-                  } else {
-                    logger.warn(message);
-                  }
-                }
+    return BigqueryUtil.join(executeQueryAsync(query));
+  }
 
-                @Override
-                public void onGiveup(Exception firstException, Exception lastException)
-                    throws RetryGiveupException {
-                  logger.error("embulk-output-bigquery: Give up retrying for Query job");
-                }
-              });
+  public CompletableFuture<JobStatistics.QueryStatistics> executeQueryAsync(String query) {
+    return retryAsync(
+            "Query",
+            () ->
+                CompletableFuture.supplyAsync(
+                        () -> {
+                          UUID uuid = UUID.randomUUID();
+                          String jobId = String.format("embulk_query_job_%s", uuid);
+
+                          QueryJobConfiguration queryConfig =
+                              QueryJobConfiguration.newBuilder(query)
+                                  .setUseLegacySql(false)
+                                  .build();
+                          JobId.Builder jobIdBuilder = JobId.newBuilder().setJob(jobId);
+                          if (location != null) {
+                            jobIdBuilder.setLocation(location);
+                          }
+
+                          // the poller completes the query like load and copy jobs, without
+                          // holding a request thread until it is done
+                          return bigquery.create(
+                              JobInfo.newBuilder(queryConfig)
+                                  .setJobId(jobIdBuilder.build())
+                                  .build());
+                        },
+                        getRequestExecutor())
+                    .thenCompose(job -> getJobPoller().watch(job, "Query")))
+        .thenApply(JobStatistics.QueryStatistics.class::cast);
+  }
 
-    } catch (RetryGiveupException ex) {
-      if (ex.getCause() instanceof BigqueryException) {
-        throw (BigqueryException) ex.getCause();
-      }
-      // TODO:
-      throw new RuntimeException(ex);
-    } catch (InterruptedException ex) {
-      throw new BigqueryException("interrupted");
-    }
+  public CompletableFuture<Boolean> deleteTableAsync(String table) {
+    return CompletableFuture.supplyAsync(() -> deleteTable(table), getRequestExecutor());
   }
 
   public boolean deleteTable(String table) {
@@ -780,6 +1085,10 @@ public class BigqueryClient {
     return deleteTableOrPartition(table, destinationDataset);
   }
 
+  public CompletableFuture<Boolean> deleteTableOrPartitionAsync(String table) {
+    return CompletableFuture.supplyAsync(() -> deleteTableOrPartition(table), getRequestExecutor());
+  }
+
   private boolean deleteTableOrPartition(String table, String dataset) {
     return deleteTableOrPartition(table, dataset, destinationProject);
   }
@@ -791,18 +1100,6 @@ public class BigqueryClient {
     return bigquery.delete(TableId.of(project, dataset, table));
   }
 
-  private JobStatistics waitForLoad(Job job) throws BigqueryException {
-    return new BigqueryJobWaiter(task, this, job).waitFor("Load");
-  }
-
-  private JobStatistics waitForCopy(Job job) throws BigqueryException {
-    return new BigqueryJobWaiter(task, this, job).waitFor("Copy");
-  }
-
-  private JobStatistics waitForQuery(Job job) throws BigqueryException {
-    return new BigqueryJobWaiter(task, this, job).waitFor("Query");
-  }
-
   private com.google.cloud.bigquery.Schema buildSchema(
       Schema schema, List<BigqueryColumnOption> columnOptions) {
     // TODO: support schema file
@@ -1,20 +1,46 @@
 package org.embulk.output.bigquery_java;
 
+import com.google.cloud.bigquery.JobStatistics;
 import java.io.BufferedOutputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.zip.GZIPOutputStream;
+import org.apache.avro.file.CodecFactory;
+import org.apache.avro.file.DataFileWriter;
+import org.apache.avro.generic.GenericDatumWriter;
+import org.apache.parquet.hadoop.ParquetWriter;
+import org.apache.parquet.schema.MessageType;
 import org.embulk.output.bigquery_java.config.PluginTask;
+import org.embulk.output.bigquery_java.visitor.BigqueryColumnVisitor;
+import org.embulk.spi.Schema;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 public class BigqueryFileWriter {
   private final Logger logger = LoggerFactory.getLogger(BigqueryFileWriter.class);
   private PluginTask task;
+  private Schema schema;
   private String compression;
+  private FileOutputStream fileStream;
   private OutputStream os;
+  private Path path;
+  // bytes of max_local_disk_bytes reserved for the open file
+  private long reservedBytes = 0;
+  private final Map<Path, BigqueryPipelinedUpload> uploads = new LinkedHashMap<>();
+  private final Map<Path, CompletableFuture<JobStatistics.LoadStatistics>> loads =
+      new LinkedHashMap<>();
+  private DataFileWriter<Object> avroWriter;
+  private ParquetWriter<Object[]> parquetWriter;
   private long count = 0;
+  private long countInFile = 0;
+  private int sequence = 0;
 
   public BigqueryFileWriter(PluginTask task) {
     this.task = task;
@@ -27,43 +53,152 @@ public class BigqueryFileWriter {
     this.task = task;
   }
 
+  public void setSchema(Schema schema) {
+    this.schema = schema;
+  }
+
   public void setCompression(String compression) {
     this.compression = compression;
   }
 
   public OutputStream open(String path) throws IOException {
+    BigqueryLocalDiskBudget budget = BigqueryUtil.getLocalDiskBudget(this.task);
+    if (budget != null) {
+      // waits until loaded files are deleted
+      budget.reserve(this.task.getMaxFileSize().get());
+      this.reservedBytes = this.task.getMaxFileSize().get();
+    }
     logger.info("embulk-output-bigquery: create {}", path);
 
-    this.os = new FileOutputStream(path);
-    if (this.compression.equals("GZIP")) {
-      this.os = new GZIPOutputStream(this.os);
+    this.path = Paths.get(path);
+    try {
+      this.fileStream = new FileOutputStream(path);
+    } catch (IOException e) {
+      if (budget != null) {
+        budget.release(this.reservedBytes);
+        this.reservedBytes = 0;
+      }
+      throw e;
+    }
+    this.os = this.fileStream;
+    if (this.task.getPipelinedUpload()) {
+      BigqueryPipelinedUpload upload =
+          new BigqueryPipelinedUpload(this.task, getBigqueryClient(), Paths.get(path));
+      this.uploads.put(Paths.get(path), upload);
+      this.os = upload.outputStream(this.os);
+    }
+    // Parquet files are compressed by pages
+    if (this.compression.equals("GZIP") && !this.task.getSourceFormat().equals("PARQUET")) {
+      this.os = gzipOutputStream(this.os);
     }
-    // embulk default page size
-    this.os = new BufferedOutputStream(this.os, 1024 * 32);
+    // buffers records for the compressor or the file, embulk default page size by default
+    this.os = new BufferedOutputStream(this.os, this.task.getWriteBufferSize());
 
     return this.os;
   }
 
+  // The serial compressor writes deflated bytes to the file by gzip_buffer_size instead of 512
+  // bytes
+  private OutputStream gzipOutputStream(OutputStream os) throws IOException {
+    int level = this.task.getGzipLevel();
+    if (this.task.getParallelGzip()) {
+      return new BigqueryParallelGzipOutputStream(os, level, this.task.getGzipBlockSize());
+    }
+    return new GZIPOutputStream(os, this.task.getGzipBufferSize(), this.task.getGzipSyncFlush()) {
+      {
+        def.setLevel(level);
+      }
+    };
+  }
+
   public OutputStream outputStream() throws IOException {
     if (this.os != null) {
       return this.os;
     }
     // TODO: pid, thread id format config
-    String path =
-        String.format(
-            "%s.%d.%d%s",
-            this.task.getPathPrefix().get(),
-            BigqueryUtil.getPID(),
-            Thread.currentThread().getId(),
-            this.task.getFileExt().get());
+    String path;
+    if (isRolling()) {
+      path =
+          String.format(
+              "%s.%d.%d.%d%s",
+              this.task.getPathPrefix().get(),
+              BigqueryUtil.getPID(),
+              Thread.currentThread().getId(),
+              this.sequence,
+              this.task.getFileExt().get());
+    } else {
+      path =
+          String.format(
+              "%s.%d.%d%s",
+              this.task.getPathPrefix().get(),
+              BigqueryUtil.getPID(),
+              Thread.currentThread().getId(),
+              this.task.getFileExt().get());
+    }
     return open(path);
   }
 
-  public void write(byte[] bytes) {
+  // Opens the file as an Avro container file of the schema on the first call
+  public DataFileWriter<Object> avroWriter(org.apache.avro.Schema schema) throws IOException {
+    if (this.avroWriter == null) {
+      this.avroWriter =
+          new DataFileWriter<>(new GenericDatumWriter<>(schema))
+              .setCodec(avroCodec())
+              .create(schema, outputStream());
+    }
+    return this.avroWriter;
+  }
+
+  private CodecFactory avroCodec() {
+    switch (this.compression.toUpperCase()) {
+      case "DEFLATE":
+        return CodecFactory.deflateCodec(CodecFactory.DEFAULT_DEFLATE_LEVEL);
+      case "SNAPPY":
+        return CodecFactory.snappyCodec();
+      default:
+        return CodecFactory.nullCodec();
+    }
+  }
+
+  // Opens the file as a Parquet file of the schema on the first call
+  public ParquetWriter<Object[]> parquetWriter(MessageType schema) throws IOException {
+    if (this.parquetWriter == null) {
+      this.parquetWriter =
+          BigqueryParquetWriter.open(
+              outputStream(), schema, this.compression, this.task.getParquetRowGroupSize());
+    }
+    return this.parquetWriter;
+  }
+
+  public void write(BigqueryColumnVisitor visitor) {
     try {
-      outputStream().write(bytes);
+      visitor.writeTo(this);
       this.count++;
-    } catch (Exception e) {
+      rollIfNeed(1);
+    } catch (IOException e) {
+      logger.info(e.getMessage());
+    }
+  }
+
+  // Writes the records of a page with one write, or by records up to the end of each file when
+  // files are rolled
+  public void write(BigqueryRecordBuffer records) {
+    try {
+      int from = 0;
+      while (from < records.getRecordCount()) {
+        int to = records.getRecordCount();
+        if (this.task.getMaxFileSize().isPresent()) {
+          // the size is checked after each record
+          to = from + 1;
+        } else if (this.task.getMaxRecordsPerFile().isPresent()) {
+          to = (int) Math.min(to, from + this.task.getMaxRecordsPerFile().get() - this.countInFile);
+        }
+        records.writeTo(outputStream(), from, to);
+        this.count += to - from;
+        rollIfNeed(to - from);
+        from = to;
+      }
+    } catch (IOException e) {
       logger.info(e.getMessage());
     }
   }
@@ -72,12 +207,113 @@ public class BigqueryFileWriter {
     return this.count;
   }
 
+  // uploads of pipelined_upload by the path of files
+  public Map<Path, BigqueryPipelinedUpload> getUploads() {
+    return this.uploads;
+  }
+
+  // loads of files closed under max_local_disk_bytes by the path of files
+  public Map<Path, CompletableFuture<JobStatistics.LoadStatistics>> getLoads() {
+    return this.loads;
+  }
+
+  private BigqueryClient getBigqueryClient() {
+    BigqueryClient client = BigqueryUtil.getBigqueryClient();
+    if (client == null) {
+      // the transaction runs in another process
+      client = new BigqueryClient(this.task, this.schema);
+      BigqueryUtil.setBigqueryClient(client);
+    }
+    return client;
+  }
+
+  private boolean isRolling() {
+    return this.task.getMaxFileSize().isPresent() || this.task.getMaxRecordsPerFile().isPresent();
+  }
+
+  // Closes the file when it reaches max_file_size or max_records_per_file, and the next record
+  // opens the next file of the sequence
+  private void rollIfNeed(long records) throws IOException {
+    this.countInFile += records;
+    if (this.task.getMaxRecordsPerFile().isPresent()
+        && this.countInFile >= this.task.getMaxRecordsPerFile().get()) {
+      close();
+    } else if (this.task.getMaxFileSize().isPresent()
+        && getFileSize() >= this.task.getMaxFileSize().get()) {
+      close();
+    }
+  }
+
+  // Bytes still buffered by streams are not counted, except the row group of Parquet files
+  private long getFileSize() throws IOException {
+    if (this.parquetWriter != null) {
+      return this.parquetWriter.getDataSize();
+    }
+    return this.fileStream.getChannel().position();
+  }
+
   public void close() {
+    if (this.os == null) {
+      return;
+    }
     try {
-      this.outputStream().flush();
-      this.outputStream().close();
+      if (this.avroWriter != null) {
+        // flushes the last block and closes the file
+        this.avroWriter.close();
+      } else if (this.parquetWriter != null) {
+        // flushes the last row group, writes the footer and closes the file
+        this.parquetWriter.close();
+      } else {
+        this.os.flush();
+        this.os.close();
+      }
+      if (this.reservedBytes > 0) {
+        startLoad();
+      }
     } catch (Exception e) {
       logger.info(e.getMessage());
+      if (this.reservedBytes > 0) {
+        // the file is not loaded and deleted by itself, so writers waiting for its bytes fail
+        BigqueryUtil.getLocalDiskBudget(this.task).fail(e);
+      }
+    } finally {
+      this.os = null;
+      this.path = null;
+      this.reservedBytes = 0;
+      this.fileStream = null;
+      this.avroWriter = null;
+      this.parquetWriter = null;
+      this.countInFile = 0;
+      this.sequence++;
     }
   }
+
+  // Loads the closed file while the next files are written, and deletes it as soon as the job
+  // succeeds, so that its bytes are released for the next files
+  private void startLoad() throws IOException {
+    BigqueryLocalDiskBudget budget = BigqueryUtil.getLocalDiskBudget(this.task);
+    Path path = this.path;
+    long size = Files.size(path);
+    budget.resize(this.reservedBytes, size);
+    this.reservedBytes = size;
+    CompletableFuture<JobStatistics.LoadStatistics> load =
+        new BigqueryJobRunner(this.task, getBigqueryClient(), path, this.uploads.get(path))
+            .run(BigqueryUtil.getLoadExecutor(this.task))
+            .whenComplete(
+                (statistics, throwable) -> {
+                  if (throwable != null) {
+                    budget.fail(throwable);
+                    return;
+                  }
+                  try {
+                    Files.deleteIfExists(path);
+                    budget.release(size);
+                  } catch (IOException e) {
+                    budget.fail(e);
+                  }
+                });
+    this.loads.put(path, load);
+    // the load releases the bytes from now on
+    this.reservedBytes = 0;
+  }
 }
@@ -0,0 +1,84 @@
+package org.embulk.output.bigquery_java;
+
+import com.google.api.client.googleapis.media.MediaHttpUploader;
+import com.google.api.client.http.FileContent;
+import com.google.api.client.http.GenericUrl;
+import com.google.api.client.http.HttpBackOffIOExceptionHandler;
+import com.google.api.client.http.HttpBackOffUnsuccessfulResponseHandler;
+import com.google.api.client.http.HttpRequest;
+import com.google.api.client.http.HttpResponse;
+import com.google.api.client.http.HttpTransport;
+import com.google.api.client.util.ExponentialBackOff;
+import com.google.api.client.util.escape.CharEscapers;
+import com.google.auth.http.HttpCredentialsAdapter;
+import java.io.IOException;
+import java.nio.file.Path;
+import org.embulk.output.bigquery_java.config.PluginTask;
+
+// Uploads objects to a bucket of Google Cloud Storage by the JSON API, on the transport and to the
+// endpoint of the BigQuery client. An upload is resumable by chunks of upload_chunk_size, and
+// requests are retried on 5xx responses and IO errors.
+public class BigqueryGcsObjectStore implements BigqueryObjectStore {
+  private static final String DEVSTORAGE_READ_WRITE =
+      "https://www.googleapis.com/auth/devstorage.read_write";
+  private static final String ROOT_URL = "https://storage.googleapis.com";
+  private final HttpTransport transport;
+  private final HttpCredentialsAdapter credentials;
+  private final String rootUrl;
+  private final String bucket;
+  private final int chunkSize;
+
+  public BigqueryGcsObjectStore(PluginTask task, HttpTransport transport) throws IOException {
+    this.transport = transport;
+    this.credentials =
+        new HttpCredentialsAdapter(new Auth(task).getCredentials(DEVSTORAGE_READ_WRITE));
+    this.rootUrl = task.getEndpoint().orElse(ROOT_URL);
+    this.bucket = task.getGcsBucket().get();
+    // chunks of resumable uploads are multiples of 256KB
+    this.chunkSize =
+        task.getUploadChunkSize()
+            / MediaHttpUploader.MINIMUM_CHUNK_SIZE
+            * MediaHttpUploader.MINIMUM_CHUNK_SIZE;
+  }
+
+  @Override
+  public String upload(Path path, String objectName) throws IOException {
+    GenericUrl url = new GenericUrl(String.format("%s/upload/storage/v1/b/%s/o", rootUrl, bucket));
+    url.put("name", objectName);
+    MediaHttpUploader uploader =
+        new MediaHttpUploader(
+                new FileContent("application/octet-stream", path.toFile()),
+                transport,
+                this::initialize)
+            .setChunkSize(chunkSize)
+            // files are gzipped by compression if at all
+            .setDisableGZipContent(true);
+    HttpResponse response = uploader.upload(url);
+    response.disconnect();
+    return String.format("gs://%s/%s", bucket, objectName);
+  }
+
+  @Override
+  public void delete(String objectName) throws IOException {
+    GenericUrl url = new GenericUrl(String.format("%s/storage/v1/b/%s/o", rootUrl, bucket));
+    url.appendRawPath("/" + escape(objectName));
+    transport.createRequestFactory(this::initialize).buildDeleteRequest(url).execute().disconnect();
+  }
+
+  private void initialize(HttpRequest request) throws IOException {
+    credentials.initialize(request);
+    HttpBackOffUnsuccessfulResponseHandler backOff =
+        new HttpBackOffUnsuccessfulResponseHandler(new ExponentialBackOff());
+    // the credentials refresh the token on 401, and the other errors are retried
+    request.setUnsuccessfulResponseHandler(
+        (retried, response, supportsRetry) ->
+            credentials.handleResponse(retried, response, supportsRetry)
+                || backOff.handleResponse(retried, response, supportsRetry));
+    request.setIOExceptionHandler(new HttpBackOffIOExceptionHandler(new ExponentialBackOff()));
+  }
+
+  // Object names are a single segment of the path, slashes included
+  private static String escape(String objectName) {
+    return CharEscapers.escapeUriPath(objectName).replace("/", "%2F");
+  }
+}
@@ -4,16 +4,24 @@ import com.google.cloud.bigquery.JobInfo;
 import com.google.cloud.bigquery.JobStatistics;
 import com.google.cloud.bigquery.Table;
 import java.io.File;
+import java.io.IOException;
 import java.math.BigInteger;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import org.embulk.config.ConfigDiff;
 import org.embulk.config.ConfigSource;
@@ -23,6 +31,7 @@ import org.embulk.output.bigquery_java.config.BigqueryConfigValidator;
 import org.embulk.output.bigquery_java.config.BigqueryTaskBuilder;
 import org.embulk.output.bigquery_java.config.PluginTask;
 import org.embulk.output.bigquery_java.exception.BigqueryException;
+import org.embulk.output.bigquery_java.exception.BigqueryUploadException;
 import org.embulk.spi.OutputPlugin;
 import org.embulk.spi.Schema;
 import org.embulk.spi.TransactionalPageOutput;
@@ -34,13 +43,13 @@ import org.slf4j.LoggerFactory;
 
 public class BigqueryJavaOutputPlugin implements OutputPlugin {
   private final Logger logger = LoggerFactory.getLogger(BigqueryJavaOutputPlugin.class);
+  private static final int MAX_SOURCE_URIS = 10000;
   private List<Path> paths;
   private final ConcurrentHashMap<Long, BigqueryFileWriter> writers = BigqueryUtil.getFileWriters();
 
   private static final ConfigMapperFactory CONFIG_MAPPER_FACTORY =
       ConfigMapperFactory.builder().addDefaultModules().build();
 
-  @SuppressWarnings("deprecation") // The use of PluginTask.dump
   @Override
   public ConfigDiff transaction(
       ConfigSource config, Schema schema, int taskCount, OutputPlugin.Control control) {
@@ -48,62 +57,50 @@ public class BigqueryJavaOutputPlugin implements OutputPlugin {
     final PluginTask task = configMapper.map(config, PluginTask.class);
     BigqueryConfigValidator.validate(task);
     BigqueryTaskBuilder.build(task);
+    // load jobs and pipelined uploads share the client, and its connections, of the transaction
     BigqueryClient client = new BigqueryClient(task, schema);
+    BigqueryUtil.setBigqueryClient(client);
+    // writers of the tasks share the budget of local files
+    BigqueryUtil.setLocalDiskBudget(
+        task.getMaxLocalDiskBytes().map(BigqueryLocalDiskBudget::new).orElse(null));
+    try {
+      return transaction(task, schema, control, client);
+    } finally {
+      BigqueryUtil.setBigqueryClient(null);
+      BigqueryUtil.setLocalDiskBudget(null);
+      BigqueryUtil.shutdownLoadExecutor();
+      client.close();
+    }
+  }
+
+  @SuppressWarnings("deprecation") // The use of PluginTask.dump
+  private ConfigDiff transaction(
+      PluginTask task, Schema schema, OutputPlugin.Control control, BigqueryClient client) {
     autoCreate(task, client);
     client.storeCachedSrcFieldsIfNeed();
 
-    control.run(task.dump());
-    this.writers.values().forEach(BigqueryFileWriter::close);
-    logger.info("embulk-output-bigquery: finish to create intermediate files");
-
+    List<TaskReport> taskReports;
     try {
-      paths = BigqueryUtil.getIntermediateFiles(task);
-    } catch (Exception e) {
-      logger.info(e.getMessage());
-      throw new RuntimeException(e);
-    }
-    if (paths.isEmpty()) {
-      logger.info("embulk-output-bigquery: Nothing for transfer");
-      client.createTableIfNotExist(task.getTable());
-
-      switch (task.getMode()) {
-        case "merge":
-        case "append":
-        case "replace":
-        case "delete_in_advance":
-          if (task.getTempTable().isPresent()) {
-            client.deleteTable(task.getTempTable().get());
-          }
-          break;
-      }
-
-      return CONFIG_MAPPER_FACTORY.newConfigDiff();
+      taskReports = control.run(task.dump());
+    } catch (RuntimeException e) {
+      this.writers.values().stream()
+          .flatMap(writer -> writer.getUploads().values().stream())
+          .forEach(BigqueryPipelinedUpload::abort);
+      // loads started under max_local_disk_bytes are cancelled, but files already loaded stay
+      client.getJobPoller().cancelAll();
+      throw e;
     }
-
-    logger.debug(
-        "embulk-output-bigquery: LOAD IN PARALLEL {}",
-        paths.stream().map(Path::toString).collect(Collectors.joining("\n")));
-
-    // transfer data to BQ from files
-    ExecutorService executor = Executors.newFixedThreadPool(paths.size());
-    List<Future<JobStatistics>> jobStatisticFutures = new ArrayList<>();
-    List<JobStatistics.LoadStatistics> statistics = new ArrayList<>();
-
-    for (Path path : paths) {
-      Future<JobStatistics> jobStatisticsFuture =
-          executor.submit(new BigqueryJobRunner(task, schema, path));
-      jobStatisticFutures.add(jobStatisticsFuture);
+    BigqueryTransactionReport report;
+    if (task.getMethod().equals("storage_write_api")) {
+      // rows have been appended to write streams instead of files
+      paths = Collections.emptyList();
+      report = commitWriteStreams(task, client, taskReports);
+    } else {
+      report = load(task, client);
     }
-
-    for (Future<JobStatistics> jobStatisticFuture : jobStatisticFutures) {
-      try {
-        statistics.add((JobStatistics.LoadStatistics) jobStatisticFuture.get());
-      } catch (Exception e) {
-        throw new RuntimeException(e);
-      }
+    if (report == null) {
+      return nothingForTransfer(task, client);
     }
-    BigqueryTransactionReport report =
-        getTransactionReport(task, client, statistics, this.writers.values());
     if (task.getAbortOnError().get() && !task.getIsSkipJobResultCheck()) {
       if (report.getNumInputRows().compareTo(report.getNumOutputRows()) != 0) {
         String msg =
@@ -129,24 +126,36 @@ public class BigqueryJavaOutputPlugin implements OutputPlugin {
             JobInfo.WriteDisposition.WRITE_TRUNCATE);
       }
     }
+    // after the copy, the temp table is deleted while the schema of the table is updated
+    CompletableFuture<?> loaded = CompletableFuture.completedFuture(null);
     if (task.getTempTable().isPresent()) {
       if (task.getMode().equals("merge")) {
-        client.merge(
-            task.getTempTable().get(),
-            task.getTable(),
-            task.getMergeKeys().orElse(Collections.emptyList()),
-            task.getMergeRule().orElse(Collections.emptyList()));
+        loaded =
+            client.mergeAsync(
+                task.getTempTable().get(),
+                task.getTable(),
+                task.getMergeKeys().orElse(Collections.emptyList()),
+                task.getMergeRule().orElse(Collections.emptyList()));
       } else if (task.getMode().equals("append")) {
-        client.copy(
-            task.getTempTable().get(), task.getTable(), JobInfo.WriteDisposition.WRITE_APPEND);
+        loaded =
+            client.copyAsync(
+                task.getTempTable().get(), task.getTable(), JobInfo.WriteDisposition.WRITE_APPEND);
       } else {
-        client.copy(
-            task.getTempTable().get(), task.getTable(), JobInfo.WriteDisposition.WRITE_TRUNCATE);
+        loaded =
+            client.copyAsync(
+                task.getTempTable().get(),
+                task.getTable(),
+                JobInfo.WriteDisposition.WRITE_TRUNCATE);
       }
-      client.deleteTable(task.getTempTable().get());
     }
-
-    client.updateTableIfNeed();
+    BigqueryUtil.join(
+        loaded.thenCompose(
+            ignored ->
+                CompletableFuture.allOf(
+                    task.getTempTable().isPresent()
+                        ? client.deleteTableAsync(task.getTempTable().get())
+                        : CompletableFuture.completedFuture(null),
+                    client.updateTableIfNeedAsync())));
 
     if (task.getDeleteFromLocalWhenJobEnd()) {
       paths.forEach(p -> p.toFile().delete());
@@ -163,6 +172,210 @@ public class BigqueryJavaOutputPlugin implements OutputPlugin {
     return CONFIG_MAPPER_FACTORY.newConfigDiff();
   }
 
+  // Loads the intermediate files, and returns null when there is no file
+  private BigqueryTransactionReport load(PluginTask task, BigqueryClient client) {
+    this.writers.values().forEach(BigqueryFileWriter::close);
+    logger.info("embulk-output-bigquery: finish to create intermediate files");
+
+    // loads of max_local_disk_bytes, which have been started when files were closed. They are
+    // collected before listing files, since their files are deleted when loaded
+    Map<Path, CompletableFuture<JobStatistics.LoadStatistics>> started = new HashMap<>();
+    for (BigqueryFileWriter writer : this.writers.values()) {
+      writer
+          .getLoads()
+          .forEach((path, load) -> started.put(path.toAbsolutePath().normalize(), load));
+    }
+
+    try {
+      paths = BigqueryUtil.getIntermediateFiles(task);
+    } catch (Exception e) {
+      logger.info(e.getMessage());
+      throw new RuntimeException(e);
+    }
+    if (paths.isEmpty() && started.isEmpty()) {
+      return null;
+    }
+    if (task.getGcsBucket().isPresent()) {
+      return loadFromObjectStore(task, client);
+    }
+
+    logger.debug(
+        "embulk-output-bigquery: LOAD IN PARALLEL {}",
+        paths.stream().map(Path::toString).collect(Collectors.joining("\n")));
+
+    // uploads of pipelined_upload, which have been started while writing files
+    Map<Path, BigqueryPipelinedUpload> uploads = new HashMap<>();
+    for (BigqueryFileWriter writer : this.writers.values()) {
+      writer
+          .getUploads()
+          .forEach((path, upload) -> uploads.put(path.toAbsolutePath().normalize(), upload));
+    }
+
+    // transfer data to BQ from files
+    int concurrency =
+        Math.max(1, Math.min(task.getMaxUploadConcurrency().orElse(paths.size()), paths.size()));
+    ExecutorService executor = Executors.newFixedThreadPool(concurrency);
+    List<CompletableFuture<JobStatistics.LoadStatistics>> jobStatisticFutures = new ArrayList<>();
+    List<JobStatistics.LoadStatistics> statistics = new ArrayList<>();
+
+    try {
+      // the pool takes files in the order of submission, and the poller of the client waits for
+      // the jobs, so that the pool only uploads
+      jobStatisticFutures.addAll(started.values());
+      for (Path path : orderForLoad(paths, uploads.keySet())) {
+        if (started.containsKey(path.toAbsolutePath().normalize())) {
+          continue;
+        }
+        jobStatisticFutures.add(
+            new BigqueryJobRunner(
+                    task, client, path, uploads.get(path.toAbsolutePath().normalize()))
+                .run(executor));
+      }
+
+      for (CompletableFuture<JobStatistics.LoadStatistics> jobStatisticFuture :
+          jobStatisticFutures) {
+        try {
+          statistics.add(jobStatisticFuture.get());
+        } catch (Exception e) {
+          throw new RuntimeException(e);
+        }
+      }
+    } finally {
+      // interrupts the remaining uploads when a load failed
+      executor.shutdownNow();
+    }
+    return getTransactionReport(task, client, statistics, this.writers.values());
+  }
+
+  // Uploads the files to the object store in parallel, and loads them by one job. The objects are
+  // deleted after the job whether it succeeded or not
+  private BigqueryTransactionReport loadFromObjectStore(PluginTask task, BigqueryClient client) {
+    BigqueryObjectStore store = newObjectStore(task, client);
+    String prefix = String.format("embulk_output_bigquery_java/%s/", UUID.randomUUID());
+    int concurrency =
+        Math.max(1, Math.min(task.getMaxUploadConcurrency().orElse(paths.size()), paths.size()));
+    ExecutorService executor = Executors.newFixedThreadPool(concurrency);
+    List<String> objectNames = Collections.synchronizedList(new ArrayList<>());
+    try {
+      List<CompletableFuture<String>> uploads = new ArrayList<>();
+      for (Path path : orderForLoad(paths, Collections.emptySet())) {
+        String objectName = prefix + path.getFileName();
+        uploads.add(
+            CompletableFuture.supplyAsync(
+                () -> {
+                  String sourceUri = uploadObject(store, path, objectName);
+                  objectNames.add(objectName);
+                  return sourceUri;
+                },
+                executor));
+      }
+      List<String> sourceUris = new ArrayList<>();
+      for (CompletableFuture<String> upload : uploads) {
+        sourceUris.add(BigqueryUtil.join(upload));
+      }
+      logger.info(
+          "embulk-output-bigquery: uploaded {} files to gs://{}/{}",
+          sourceUris.size(),
+          task.getGcsBucket().get(),
+          prefix);
+      List<JobStatistics.LoadStatistics> statistics = new ArrayList<>();
+      // a load job takes up to 10,000 URIs
+      for (int i = 0; i < sourceUris.size(); i += MAX_SOURCE_URIS) {
+        statistics.add(
+            BigqueryUtil.join(
+                client.loadUrisAsync(
+                    sourceUris.subList(i, Math.min(i + MAX_SOURCE_URIS, sourceUris.size())),
+                    BigqueryJobRunner.getTableName(task),
+                    JobInfo.WriteDisposition.WRITE_APPEND)));
+      }
+      return getTransactionReport(task, client, statistics, this.writers.values());
+    } finally {
+      // uploads that have started still record their objects, so they end before the deletes
+      executor.shutdownNow();
+      try {
+        executor.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      deleteObjects(store, objectNames);
+    }
+  }
+
+  // The store of intermediate files of gcs_bucket
+  protected BigqueryObjectStore newObjectStore(PluginTask task, BigqueryClient client) {
+    try {
+      return new BigqueryGcsObjectStore(task, client.getHttpTransport());
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  private String uploadObject(BigqueryObjectStore store, Path path, String objectName) {
+    logger.info("embulk-output-bigquery: upload {} => {}", path, objectName);
+    try {
+      return store.upload(path, objectName);
+    } catch (IOException e) {
+      throw new BigqueryUploadException(
+          String.format("failed to upload %s to %s: %s", path, objectName, e));
+    }
+  }
+
+  private void deleteObjects(BigqueryObjectStore store, List<String> objectNames) {
+    for (String objectName : objectNames) {
+      try {
+        store.delete(objectName);
+      } catch (IOException e) {
+        logger.warn("embulk-output-bigquery: failed to delete {}: {}", objectName, e.getMessage());
+      }
+    }
+  }
+
+  // Commits the write streams of every task at once, and returns null when there is no row
+  protected BigqueryTransactionReport commitWriteStreams(
+      PluginTask task, BigqueryClient client, List<TaskReport> taskReports) {
+    List<String> streamNames = new ArrayList<>();
+    long inputRows = 0;
+    long outputRows = 0;
+    for (TaskReport taskReport : taskReports) {
+      if (taskReport.has("stream_name")) {
+        streamNames.add(taskReport.get(String.class, "stream_name"));
+        inputRows += taskReport.get(Long.class, "num_input_rows");
+        outputRows += taskReport.get(Long.class, "num_output_rows");
+      }
+    }
+    if (inputRows == 0) {
+      return null;
+    }
+    client.batchCommitWriteStreams(BigqueryJobRunner.getTableName(task), streamNames);
+    logger.info(
+        "embulk-output-bigquery: committed {} rows of {} write streams",
+        outputRows,
+        streamNames.size());
+    return new BigqueryTransactionReport(
+        BigInteger.valueOf(inputRows),
+        BigInteger.valueOf(outputRows),
+        BigInteger.valueOf(outputRows),
+        BigInteger.valueOf(inputRows - outputRows));
+  }
+
+  private ConfigDiff nothingForTransfer(PluginTask task, BigqueryClient client) {
+    logger.info("embulk-output-bigquery: Nothing for transfer");
+    client.createTableIfNotExist(task.getTable());
+
+    switch (task.getMode()) {
+      case "merge":
+      case "append":
+      case "replace":
+      case "delete_in_advance":
+        if (task.getTempTable().isPresent()) {
+          client.deleteTable(task.getTempTable().get());
+        }
+        break;
+    }
+
+    return CONFIG_MAPPER_FACTORY.newConfigDiff();
+  }
+
   @Override
   public ConfigDiff resume(
       TaskSource taskSource, Schema schema, int taskCount, OutputPlugin.Control control) {
@@ -207,8 +420,10 @@ public class BigqueryJavaOutputPlugin implements OutputPlugin {
 
     switch (task.getMode()) {
       case "delete_in_advance":
-        client.deleteTableOrPartition(task.getTable());
-        client.createTableIfNotExist(task.getTempTable().get());
+        BigqueryUtil.join(
+            CompletableFuture.allOf(
+                client.deleteTableOrPartitionAsync(task.getTable()),
+                client.createTableIfNotExistAsync(task.getTempTable().get())));
         break;
       case "replace":
         client.createTableIfNotExist(task.getTempTable().get());
@@ -219,9 +434,11 @@ public class BigqueryJavaOutputPlugin implements OutputPlugin {
         // TODO: create table to support partition
         break;
       case "merge":
-        client.createTableIfNotExist(task.getTempTable().get());
         // needs for when task['table'] is a partition
-        client.createTableIfNotExist(task.getTable());
+        BigqueryUtil.join(
+            CompletableFuture.allOf(
+                client.createTableIfNotExistAsync(task.getTempTable().get()),
+                client.createTableIfNotExistAsync(task.getTable())));
         break;
       case "replace_backup":
         client.createTableIfNotExist(task.getTemplateTable().get());
@@ -248,6 +465,25 @@ public class BigqueryJavaOutputPlugin implements OutputPlugin {
     }
   }
 
+  // Pipelined uploads come first since they are running already, then the largest files first so
+  // that the last loads to finish are short ones
+  protected static List<Path> orderForLoad(List<Path> paths, Set<Path> pipelined) {
+    Map<Path, Long> sizes = new HashMap<>();
+    for (Path path : paths) {
+      try {
+        sizes.put(path, Files.size(path));
+      } catch (IOException e) {
+        sizes.put(path, 0L);
+      }
+    }
+    return paths.stream()
+        .sorted(
+            Comparator.comparing(
+                    (Path path) -> !pipelined.contains(path.toAbsolutePath().normalize()))
+                .thenComparing(sizes::get, Comparator.reverseOrder()))
+        .collect(Collectors.toList());
+  }
+
   protected BigqueryTransactionReport getTransactionReport(
       PluginTask task,
       BigqueryClient client,
@@ -0,0 +1,237 @@
+package org.embulk.output.bigquery_java;
+
+import static com.google.cloud.bigquery.JobStatus.State.DONE;
+
+import com.google.cloud.bigquery.BigQueryException;
+import com.google.cloud.bigquery.Job;
+import com.google.cloud.bigquery.JobId;
+import com.google.cloud.bigquery.JobStatistics;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import org.embulk.output.bigquery_java.config.PluginTask;
+import org.embulk.output.bigquery_java.exception.BigqueryJobTimeoutException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+// Polls the status of every job of a transaction from one thread, so that threads do not wait for
+// their own jobs. Each round lists the running jobs by one request, and gets only the jobs that
+// are no longer running. Each job is polled with the backoff of BigqueryJobWaiter.
+public class BigqueryJobPoller {
+  private final Logger logger = LoggerFactory.getLogger(BigqueryJobPoller.class);
+  // jobs created before a round may not be listed yet
+  private static final long CREATION_TIME_MARGIN_MILLIS = 60 * 1000;
+  private final PluginTask task;
+  private final BigqueryClient client;
+  private final ScheduledExecutorService scheduler =
+      Executors.newSingleThreadScheduledExecutor(
+          r -> {
+            Thread thread = new Thread(r, "embulk-output-bigquery-job-poller");
+            thread.setDaemon(true);
+            return thread;
+          });
+  // accessed only by the thread of the scheduler
+  private final List<PolledJob> jobs = new ArrayList<>();
+  private ScheduledFuture<?> nextRound;
+  private boolean canListJobs = true;
+  private boolean cancelled = false;
+
+  public BigqueryJobPoller(PluginTask task, BigqueryClient client) {
+    this.task = task;
+    this.client = client;
+  }
+
+  public CompletableFuture<JobStatistics> watch(Job job, String kind) {
+    PolledJob polledJob = new PolledJob(job.getJobId(), kind);
+    scheduler.execute(
+        () -> {
+          if (cancelled) {
+            cancel(polledJob);
+            return;
+          }
+          jobs.add(polledJob);
+          scheduleRound();
+        });
+    return polledJob.future;
+  }
+
+  // Cancels the jobs being watched and the jobs watched from now on, when the transaction fails.
+  // A job that is already done is not rolled back.
+  public void cancelAll() {
+    try {
+      scheduler
+          .submit(
+              () -> {
+                cancelled = true;
+                jobs.forEach(this::cancel);
+                jobs.clear();
+              })
+          .get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } catch (ExecutionException | RejectedExecutionException e) {
+      logger.warn("embulk-output-bigquery: failed to cancel jobs: {}", e.getMessage());
+    }
+  }
+
+  private void cancel(PolledJob job) {
+    logger.info("embulk-output-bigquery: cancel {} job job_id[{}]", job.kind, job.jobId.getJob());
+    try {
+      client.cancelJob(job.jobId);
+    } catch (BigQueryException e) {
+      logger.warn(
+          "embulk-output-bigquery: failed to cancel job_id[{}]: {}",
+          job.jobId.getJob(),
+          e.getMessage());
+    }
+    job.future.completeExceptionally(
+        new CancellationException(String.format("job_id[%s] is cancelled", job.jobId.getJob())));
+  }
+
+  public ScheduledExecutorService getScheduler() {
+    return scheduler;
+  }
+
+  public void shutdown() {
+    scheduler.shutdownNow();
+  }
+
+  private void scheduleRound() {
+    if (jobs.isEmpty()) {
+      return;
+    }
+    long next = jobs.stream().mapToLong(job -> job.nextPollAt).min().getAsLong();
+    long delay = Math.max(0, next - System.currentTimeMillis());
+    if (nextRound != null && !nextRound.isDone()) {
+      if (nextRound.getDelay(TimeUnit.MILLISECONDS) <= delay) {
+        return;
+      }
+      nextRound.cancel(false);
+    }
+    nextRound = scheduler.schedule(this::round, delay, TimeUnit.MILLISECONDS);
+  }
+
+  private void round() {
+    nextRound = null;
+    try {
+      pollDueJobs();
+    } finally {
+      scheduleRound();
+    }
+  }
+
+  private void pollDueJobs() {
+    long now = System.currentTimeMillis();
+    List<PolledJob> due = new ArrayList<>();
+    for (PolledJob job : jobs) {
+      if (job.nextPollAt <= now) {
+        due.add(job);
+      }
+    }
+    // one request tells which jobs are still running, and a job is got only when it is not
+    Set<String> runningJobIds = due.size() > 1 ? listRunningJobIds() : null;
+    for (PolledJob job : due) {
+      try {
+        if (runningJobIds != null && runningJobIds.contains(job.jobId.getJob())) {
+          poll(job, null);
+        } else {
+          poll(job, client.getJob(job.jobId));
+        }
+      } catch (BigQueryException e) {
+        // the job is running or done whether or not a request for its status fails, so the job
+        // is polled again instead of being created again
+        if (!e.isRetryable() || job.errorCount++ >= task.getRetries()) {
+          job.future.completeExceptionally(e);
+        } else {
+          logger.warn(
+              "embulk-output-bigquery: Failed to get job_id[{}], poll again. Message: {}",
+              job.jobId.getJob(),
+              e.getMessage());
+          job.nextPollAt = System.currentTimeMillis() + BigqueryJobWaiter.withJitter(job.interval);
+        }
+      } catch (RuntimeException e) {
+        job.future.completeExceptionally(e);
+      }
+    }
+    Iterator<PolledJob> iterator = jobs.iterator();
+    while (iterator.hasNext()) {
+      if (iterator.next().future.isDone()) {
+        iterator.remove();
+      }
+    }
+  }
+
+  private Set<String> listRunningJobIds() {
+    if (!canListJobs) {
+      return null;
+    }
+    long minCreationTime =
+        jobs.stream().mapToLong(job -> job.started).min().getAsLong() - CREATION_TIME_MARGIN_MILLIS;
+    try {
+      return client.listRunningJobIds(minCreationTime);
+    } catch (BigQueryException e) {
+      // bigquery.jobs.list is not granted to every role that can create jobs
+      if (e.getCode() == 403) {
+        logger.info("embulk-output-bigquery: Get each job instead of listing jobs");
+        canListJobs = false;
+      }
+      logger.debug(e.getMessage());
+      return null;
+    }
+  }
+
+  // completedJob is null when the job is listed as running
+  private void poll(PolledJob job, Job completedJob) {
+    long elapsed = (System.currentTimeMillis() - job.started) / 1000;
+    if (completedJob != null && completedJob.getStatus().getState().equals(DONE)) {
+      logger.info("embulk-output-bigquery: {} job completed... ", job.kind);
+      logger.info("job_id:{} elapsed_time {} sec status[DONE]", job.jobId.getJob(), elapsed);
+      job.future.complete(BigqueryJobWaiter.getStatistics(completedJob, job.kind));
+    } else if (elapsed > task.getJobStatusMaxPollingTime()) {
+      logger.info("embulk-output-bigquery: {} job checking... ", job.kind);
+      logger.info("job_id[{}] elapsed_time {} sec status[TIMEOUT]", job.jobId.getJob(), elapsed);
+      throw new BigqueryJobTimeoutException(
+          String.format("Time out job_id[%s] elapsed_time %d", job.jobId.getJob(), elapsed));
+    } else {
+      logger.info("embulk-output-bigquery: {} job checking... ", job.kind);
+      logger.info(
+          "job_id[{}] elapsed_time {} sec status[{}]",
+          job.jobId.getJob(),
+          elapsed,
+          completedJob == null ? "RUNNING" : completedJob.getStatus().getState().toString());
+      job.nextPollAt = System.currentTimeMillis() + BigqueryJobWaiter.withJitter(job.interval);
+      job.interval =
+          BigqueryJobWaiter.nextPollingInterval(
+              job.interval, task.getJobStatusPollingInterval() * 1000);
+    }
+  }
+
+  private class PolledJob {
+    private final JobId jobId;
+    private final String kind;
+    private final long started = System.currentTimeMillis();
+    private final CompletableFuture<JobStatistics> future = new CompletableFuture<>();
+    private long interval;
+    private long nextPollAt;
+    private int errorCount = 0;
+
+    private PolledJob(JobId jobId, String kind) {
+      this.jobId = jobId;
+      this.kind = kind;
+      this.interval =
+          Math.min(
+              task.getJobStatusInitialPollingIntervalMillis(),
+              task.getJobStatusPollingInterval() * 1000);
+      this.nextPollAt = started + BigqueryJobWaiter.withJitter(interval);
+    }
+  }
+}
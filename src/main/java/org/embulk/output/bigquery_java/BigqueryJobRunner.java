@@ -1,35 +1,99 @@
 package org.embulk.output.bigquery_java;
 
+import com.google.cloud.bigquery.Job;
 import com.google.cloud.bigquery.JobInfo;
 import com.google.cloud.bigquery.JobStatistics;
 import java.nio.file.Path;
-import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
 import org.embulk.output.bigquery_java.config.PluginTask;
-import org.embulk.spi.Schema;
+import org.embulk.output.bigquery_java.exception.BigqueryException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
-public class BigqueryJobRunner implements Callable<JobStatistics> {
+// Loads a file into the table. Only the upload uses a thread of the executor, and the job is waited
+// for by the poller of the client.
+public class BigqueryJobRunner {
+  private final Logger logger = LoggerFactory.getLogger(BigqueryJobRunner.class);
   private BigqueryClient client;
   private Path path;
   private PluginTask task;
-  private Schema schema;
+  private BigqueryPipelinedUpload upload;
 
-  public BigqueryJobRunner(PluginTask task, Schema schema, Path path) {
+  public BigqueryJobRunner(PluginTask task, BigqueryClient client, Path path) {
+    this(task, client, path, null);
+  }
+
+  public BigqueryJobRunner(
+      PluginTask task, BigqueryClient client, Path path, BigqueryPipelinedUpload upload) {
     this.task = task;
+    this.client = client;
     this.path = path;
-    this.schema = schema;
+    this.upload = upload;
+  }
+
+  public CompletableFuture<JobStatistics.LoadStatistics> run(Executor executor) {
+    if (upload == null) {
+      return load(executor);
+    }
+    return upload
+        .getJob()
+        .handle(
+            (job, throwable) ->
+                throwable == null ? watch(job, executor) : fallBack(throwable, executor, false))
+        .thenCompose(Function.identity());
+  }
+
+  private CompletableFuture<JobStatistics.LoadStatistics> watch(Job job, Executor executor) {
+    return client
+        .getJobPoller()
+        .watch(job, "Load")
+        .thenApply(JobStatistics.LoadStatistics.class::cast)
+        .handle(
+            (statistics, throwable) ->
+                throwable == null
+                    ? CompletableFuture.completedFuture(statistics)
+                    : fallBack(throwable, executor, true))
+        .thenCompose(Function.identity());
   }
 
-  @Override
-  public JobStatistics call() throws Exception {
-    client = new BigqueryClient(this.task, this.schema);
-    String tableName;
+  private CompletableFuture<JobStatistics.LoadStatistics> fallBack(
+      Throwable throwable, Executor executor, boolean jobCreated) {
+    Throwable cause = throwable instanceof CompletionException ? throwable.getCause() : throwable;
+    // the file has the same bytes, so only failures that a retry could fix fall back to it. Once
+    // the job is created, only the job itself failing tells that none of its rows are loaded.
+    // an upload aborted or a job cancelled by a failed transaction is not loaded again
+    boolean retryable =
+        BigqueryClient.isRetryableJobException(cause)
+            || (!jobCreated
+                && !(cause instanceof BigqueryException)
+                && !(cause instanceof CancellationException));
+    if (!retryable) {
+      CompletableFuture<JobStatistics.LoadStatistics> failed = new CompletableFuture<>();
+      failed.completeExceptionally(cause);
+      return failed;
+    }
+    logger.warn(
+        "embulk-output-bigquery: Pipelined upload of {} failed, load the file instead. Message: {}",
+        path,
+        cause.getMessage());
+    return load(executor);
+  }
+
+  private CompletableFuture<JobStatistics.LoadStatistics> load(Executor executor) {
+    return client.loadAsync(
+        this.path, getTableName(task), JobInfo.WriteDisposition.WRITE_APPEND, executor);
+  }
+
+  static String getTableName(PluginTask task) {
     // append_direct use table name
     if (task.getMode().equals("append_direct")) {
-      tableName = task.getTable();
+      return task.getTable();
     } else {
-      tableName = task.getTempTable().get();
+      return task.getTempTable().get();
     }
-
-    return client.load(this.path, tableName, JobInfo.WriteDisposition.WRITE_APPEND);
   }
 }
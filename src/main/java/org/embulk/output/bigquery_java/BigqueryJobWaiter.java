@@ -1,80 +1,24 @@
 package org.embulk.output.bigquery_java;
 
-import static com.google.cloud.bigquery.JobStatus.State.DONE;
-
 import com.google.cloud.bigquery.BigQueryError;
 import com.google.cloud.bigquery.Job;
 import com.google.cloud.bigquery.JobStatistics;
-import com.google.cloud.bigquery.JobStatus;
-import java.util.Date;
 import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.stream.Collectors;
-import org.embulk.output.bigquery_java.config.PluginTask;
 import org.embulk.output.bigquery_java.exception.BigqueryBackendException;
 import org.embulk.output.bigquery_java.exception.BigqueryException;
 import org.embulk.output.bigquery_java.exception.BigqueryInternalException;
-import org.embulk.output.bigquery_java.exception.BigqueryJobTimeoutException;
 import org.embulk.output.bigquery_java.exception.BigqueryRateLimitExceededException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+// Tells the result of a job that BigqueryJobPoller saw DONE, and the intervals of its polls
 public class BigqueryJobWaiter {
-  private final Logger logger = LoggerFactory.getLogger(BigqueryJobWaiter.class);
-  private Job job;
-  private Job completedJob;
-  private Date now;
-  private Date started;
-  private long elapsed;
-  private JobStatus.State jobState;
-  private PluginTask task;
-  private BigqueryClient client;
-  private JobStatistics jobStatistics;
-
-  public BigqueryJobWaiter(PluginTask task, BigqueryClient client, Job job) {
-    this.task = task;
-    this.client = client;
-    this.job = job;
-  }
-
-  public JobStatistics waitFor(String kind) throws RuntimeException {
-    this.started = new Date();
-
-    while (true) {
-      completedJob = this.client.getJob(job.getJobId());
-      jobState = completedJob.getStatus().getState();
-      now = new Date();
-      elapsed = (now.getTime() - started.getTime()) / 1000;
-      if (jobState.equals(DONE)) {
-        logger.info("embulk-output-bigquery: {} job completed... ", kind);
-        logger.info(
-            "job_id:{} elapsed_time {} sec status[DONE]",
-            completedJob.getJobId().getJob(),
-            elapsed);
-        break;
-      } else if (elapsed > this.task.getJobStatusMaxPollingTime()) {
-        logger.info("embulk-output-bigquery: {} job checking... ", kind);
-        logger.info(
-            "job_id[{}] elapsed_time {} sec status[TIMEOUT]",
-            completedJob.getJobId().getJob(),
-            elapsed);
-        throw new BigqueryJobTimeoutException(
-            String.format(
-                "Time out job_id[%s] elapsed_time %d", completedJob.getJobId().getJob(), elapsed));
-      } else {
-        logger.info("embulk-output-bigquery: {} job checking... ", kind);
-        logger.info(
-            "job_id[{}] elapsed_time {} sec status[{}]",
-            completedJob.getJobId().getJob(),
-            elapsed,
-            jobState.toString());
-        try {
-          Thread.sleep(this.task.getJobStatusPollingInterval() * 1000);
-        } catch (InterruptedException e) {
-          logger.info(e.getMessage());
-        }
-      }
-    }
+  private static final Logger logger = LoggerFactory.getLogger(BigqueryJobWaiter.class);
 
+  // Returns the statistics of a job that is DONE, or throws its error
+  public static JobStatistics getStatistics(Job completedJob, String kind) throws RuntimeException {
     /*
      * JobStatus.getError()
      * Returns the final error result of the job. If present, indicates that the job has completed and
@@ -116,7 +60,7 @@ public class BigqueryJobWaiter {
           bigqueryErrorToString(completedJob));
     }
 
-    jobStatistics = completedJob.getStatistics();
+    JobStatistics jobStatistics = completedJob.getStatistics();
     logger.info(
         "embulk-output-bigquery: {} job response... job_id:[{}] response.statistics:{}",
         kind,
@@ -126,7 +70,17 @@ public class BigqueryJobWaiter {
     return jobStatistics;
   }
 
-  private String bigqueryErrorToString(Job job) {
+  // Short jobs are seen soon after they are done, and long jobs are polled less often
+  static long nextPollingInterval(long interval, long maxInterval) {
+    return Math.min(interval * 2, maxInterval);
+  }
+
+  // Spreads the polls of jobs started at the same time
+  static long withJitter(long interval) {
+    return interval / 2 + ThreadLocalRandom.current().nextLong(interval / 2 + 1);
+  }
+
+  private static String bigqueryErrorToString(Job job) {
     return job.getStatus().getExecutionErrors().stream()
         .map(BigQueryError::toString)
         .collect(Collectors.joining(", "));
@@ -0,0 +1,58 @@
+package org.embulk.output.bigquery_java;
+
+import org.embulk.output.bigquery_java.exception.BigqueryException;
+
+// Bounds the bytes of intermediate files of all writers of a process by max_local_disk_bytes. A
+// writer reserves max_file_size before opening a file and waits while the budget is used up, the
+// reservation becomes the size of the file when it is closed, and the bytes are released when the
+// file is deleted after its load. A reservation is always granted when nothing is reserved, so a
+// file larger than the budget does not wait forever.
+public class BigqueryLocalDiskBudget {
+  private final long maxBytes;
+  private long usedBytes = 0;
+  private Throwable failure;
+
+  public BigqueryLocalDiskBudget(long maxBytes) {
+    this.maxBytes = maxBytes;
+  }
+
+  public synchronized void reserve(long bytes) {
+    try {
+      while (failure == null && usedBytes > 0 && usedBytes + bytes > maxBytes) {
+        wait();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new BigqueryException("interrupted while waiting for local disk");
+    }
+    if (failure != null) {
+      // the bytes of a failed load are never released
+      throw new BigqueryException(
+          String.format("a load of local files failed: %s", failure.getMessage()));
+    }
+    usedBytes += bytes;
+  }
+
+  // Replaces a reservation with the bytes actually written, which can be more than reserved
+  public synchronized void resize(long reservedBytes, long bytes) {
+    usedBytes += bytes - reservedBytes;
+    notifyAll();
+  }
+
+  public synchronized void release(long bytes) {
+    usedBytes -= bytes;
+    notifyAll();
+  }
+
+  // Wakes writers waiting for bytes that a failed load, or a file failed to close, keeps
+  public synchronized void fail(Throwable throwable) {
+    if (failure == null) {
+      failure = throwable;
+    }
+    notifyAll();
+  }
+
+  public synchronized long getUsedBytes() {
+    return usedBytes;
+  }
+}
@@ -0,0 +1,13 @@
+package org.embulk.output.bigquery_java;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+// Stages intermediate files as objects, so that a load job takes all of them by their URIs
+// instead of a job for each file
+public interface BigqueryObjectStore {
+  // Uploads the file as the object, and returns the URI of the object for load jobs
+  String upload(Path path, String objectName) throws IOException;
+
+  void delete(String objectName) throws IOException;
+}
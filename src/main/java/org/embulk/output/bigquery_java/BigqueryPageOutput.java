@@ -3,8 +3,16 @@ package org.embulk.output.bigquery_java;
 import java.util.Collections;
 import org.embulk.config.TaskReport;
 import org.embulk.output.bigquery_java.config.PluginTask;
+import org.embulk.output.bigquery_java.converter.BigqueryColumnConverter;
+import org.embulk.output.bigquery_java.converter.ProtoRowEncoder;
+import org.embulk.output.bigquery_java.exception.BigqueryException;
+import org.embulk.output.bigquery_java.visitor.AvroColumnVisitor;
+import org.embulk.output.bigquery_java.visitor.BigqueryBytesColumnVisitor;
 import org.embulk.output.bigquery_java.visitor.BigqueryColumnVisitor;
+import org.embulk.output.bigquery_java.visitor.CsvColumnVisitor;
 import org.embulk.output.bigquery_java.visitor.JsonColumnVisitor;
+import org.embulk.output.bigquery_java.visitor.JsonGeneratorColumnVisitor;
+import org.embulk.output.bigquery_java.visitor.ParquetColumnVisitor;
 import org.embulk.spi.Page;
 import org.embulk.spi.PageReader;
 import org.embulk.spi.Schema;
@@ -20,35 +28,112 @@ public class BigqueryPageOutput implements TransactionalPageOutput {
   private PageReader pageReader;
   private final Schema schema;
   private PluginTask task;
+  private final BigqueryColumnVisitor visitor;
+  // the same visitor of CSV or JSON, which encodes a record into bytes
+  private final BigqueryBytesColumnVisitor bytesVisitor;
+  // records of a page in CSV or JSON, while Avro and Parquet writers take each record
+  private final BigqueryRecordBuffer records;
+  private BigqueryFileWriter writer;
+  private Thread writerThread;
+  // rows of method storage_write_api, and their stream, which is opened by the first page
+  private final ProtoRowEncoder encoder;
+  private BigqueryStorageWriter storageWriter;
+  private long storageRowCount = 0;
 
   @SuppressWarnings("deprecation") // The use of new PageReader(schema)
   public BigqueryPageOutput(PluginTask task, Schema schema) {
     this.task = task;
     this.schema = schema;
     this.pageReader = new PageReader(schema);
+    BigqueryColumnConverter[] converters =
+        BigqueryColumnConverter.of(
+            task, schema, task.getColumnOptions().orElse(Collections.emptyList()));
+    if (task.getMethod().equals("storage_write_api")) {
+      this.encoder = new ProtoRowEncoder(schema, converters);
+      this.visitor = null;
+      this.bytesVisitor = null;
+      this.records = null;
+      return;
+    }
+    this.encoder = null;
+    BigqueryRecordBuffer records = new BigqueryRecordBuffer();
+    if (task.getSourceFormat().equals("AVRO")) {
+      this.visitor = new AvroColumnVisitor(pageReader, converters);
+    } else if (task.getSourceFormat().equals("PARQUET")) {
+      this.visitor = new ParquetColumnVisitor(pageReader, converters);
+    } else if (task.getSourceFormat().equals("CSV")) {
+      this.visitor =
+          new CsvColumnVisitor(pageReader, converters, task.getFieldDelimiter().charAt(0));
+    } else if (task.getEnableStreamingJsonSerializer()) {
+      this.visitor = new JsonGeneratorColumnVisitor(pageReader, converters, records);
+    } else {
+      this.visitor = new JsonColumnVisitor(pageReader, converters);
+    }
+    if (visitor instanceof BigqueryBytesColumnVisitor) {
+      this.bytesVisitor = (BigqueryBytesColumnVisitor) visitor;
+      this.records = records;
+    } else {
+      this.bytesVisitor = null;
+      this.records = null;
+    }
   }
 
   @Override
   public void add(Page page) {
     pageReader.setPage(page);
-    BigqueryThreadLocalFileWriter.setFileWriter(this.task);
+    if (encoder != null) {
+      addToStream();
+      return;
+    }
+    if (writerThread != Thread.currentThread()) {
+      writer = BigqueryThreadLocalFileWriter.setFileWriter(this.task, this.schema);
+      writerThread = Thread.currentThread();
+    }
     try {
       while (pageReader.nextRecord()) {
-        BigqueryColumnVisitor visitor =
-            new JsonColumnVisitor(
-                this.task,
-                pageReader,
-                this.task.getColumnOptions().orElse(Collections.emptyList()));
-        pageReader.getSchema().getColumns().forEach(col -> col.visit(visitor));
-        BigqueryThreadLocalFileWriter.write(visitor.getByteArray());
+        visitor.reset();
+        schema.visitColumns(visitor);
+        if (records == null) {
+          writer.write(visitor);
+        } else {
+          bytesVisitor.writeTo(records);
+          records.endRecord();
+        }
       }
     } catch (Exception e) {
       logger.info(e.getMessage());
     }
+    if (records != null) {
+      // records before an error are written as well
+      writer.write(records);
+      records.clear();
+    }
+  }
+
+  private void addToStream() {
+    if (storageWriter == null) {
+      storageWriter =
+          new BigqueryStorageWriter(
+              getBigqueryClient(), BigqueryJobRunner.getTableName(task), encoder.getDescriptor());
+    }
+    try {
+      while (pageReader.nextRecord()) {
+        storageWriter.write(encoder.encode(pageReader));
+      }
+    } catch (BigqueryException e) {
+      throw e;
+    } catch (Exception e) {
+      logger.info(e.getMessage());
+    }
+    // records before an error are written as well
+    storageWriter.flush();
   }
 
   @Override
   public void finish() {
+    if (storageWriter != null) {
+      storageRowCount = storageWriter.finish();
+    }
     close();
   }
 
@@ -58,6 +143,9 @@ public class BigqueryPageOutput implements TransactionalPageOutput {
       pageReader.close();
       pageReader = null;
     }
+    if (storageWriter != null) {
+      storageWriter.close();
+    }
   }
 
   @Override
@@ -65,6 +153,23 @@ public class BigqueryPageOutput implements TransactionalPageOutput {
 
   @Override
   public TaskReport commit() {
-    return CONFIG_MAPPER_FACTORY.newTaskReport();
+    TaskReport report = CONFIG_MAPPER_FACTORY.newTaskReport();
+    if (storageWriter != null) {
+      // the transaction commits the stream with the streams of the other tasks
+      report.set("stream_name", storageWriter.getStreamName());
+      report.set("num_input_rows", storageWriter.getCount());
+      report.set("num_output_rows", storageRowCount);
+    }
+    return report;
+  }
+
+  private BigqueryClient getBigqueryClient() {
+    BigqueryClient client = BigqueryUtil.getBigqueryClient();
+    if (client == null) {
+      // the transaction runs in another process
+      client = new BigqueryClient(this.task, this.schema);
+      BigqueryUtil.setBigqueryClient(client);
+    }
+    return client;
   }
 }
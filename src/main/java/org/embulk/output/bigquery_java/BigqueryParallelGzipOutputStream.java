@@ -0,0 +1,148 @@
+package org.embulk.output.bigquery_java;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+// Compresses blocks of the stream on a worker pool like pigz. Each block is deflated independently
+// as a gzip member, and the members are written in order, which makes a valid multi-member gzip
+// file. Each stream has at most a block per core in flight, so a slow file blocks the writer.
+public class BigqueryParallelGzipOutputStream extends OutputStream {
+  private static final int THREADS = Runtime.getRuntime().availableProcessors();
+  private static final ExecutorService executor =
+      Executors.newFixedThreadPool(
+          THREADS,
+          r -> {
+            Thread thread = new Thread(r, "embulk-output-bigquery-gzip");
+            thread.setDaemon(true);
+            return thread;
+          });
+  private static final byte[] HEADER = {0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, -1};
+
+  private final OutputStream out;
+  private final int level;
+  private final int blockSize;
+  private final Deque<Future<byte[]>> members = new ArrayDeque<>();
+  private byte[] block;
+  private int position = 0;
+  private boolean written = false;
+  private boolean closed = false;
+
+  public BigqueryParallelGzipOutputStream(OutputStream out, int level, int blockSize) {
+    this.out = out;
+    this.level = level;
+    this.blockSize = blockSize;
+    this.block = new byte[blockSize];
+  }
+
+  @Override
+  public void write(int b) throws IOException {
+    if (position == blockSize) {
+      submit();
+    }
+    block[position++] = (byte) b;
+  }
+
+  @Override
+  public void write(byte[] b, int off, int len) throws IOException {
+    while (len > 0) {
+      if (position == blockSize) {
+        submit();
+      }
+      int n = Math.min(len, blockSize - position);
+      System.arraycopy(b, off, block, position, n);
+      position += n;
+      off += n;
+      len -= n;
+    }
+  }
+
+  // Ends the current block, since the bytes written so far have to reach the file
+  @Override
+  public void flush() throws IOException {
+    if (position > 0) {
+      submit();
+    }
+    while (!members.isEmpty()) {
+      writeMember();
+    }
+    out.flush();
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (closed) {
+      return;
+    }
+    closed = true;
+    try {
+      flush();
+      // an empty file is not a gzip file
+      if (!written) {
+        out.write(compress(new byte[0], 0, level));
+      }
+    } finally {
+      members.forEach(member -> member.cancel(false));
+      out.close();
+    }
+  }
+
+  private void submit() throws IOException {
+    if (members.size() >= THREADS) {
+      writeMember();
+    }
+    byte[] data = block;
+    int length = position;
+    members.add(executor.submit(() -> compress(data, length, level)));
+    block = new byte[blockSize];
+    position = 0;
+  }
+
+  private void writeMember() throws IOException {
+    try {
+      out.write(members.removeFirst().get());
+      written = true;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("interrupted");
+    } catch (ExecutionException e) {
+      throw new IOException(e.getCause());
+    }
+  }
+
+  static byte[] compress(byte[] data, int length, int level) {
+    ByteArrayOutputStream member = new ByteArrayOutputStream(length / 2 + HEADER.length + 8);
+    member.write(HEADER, 0, HEADER.length);
+    Deflater deflater = new Deflater(level, true);
+    try {
+      deflater.setInput(data, 0, length);
+      deflater.finish();
+      byte[] buffer = new byte[Math.max(512, Math.min(length, 64 * 1024))];
+      while (!deflater.finished()) {
+        int n = deflater.deflate(buffer);
+        member.write(buffer, 0, n);
+      }
+    } finally {
+      deflater.end();
+    }
+    CRC32 crc = new CRC32();
+    crc.update(data, 0, length);
+    writeInt(member, (int) crc.getValue());
+    writeInt(member, length);
+    return member.toByteArray();
+  }
+
+  private static void writeInt(ByteArrayOutputStream out, int value) {
+    byte[] bytes = {(byte) value, (byte) (value >> 8), (byte) (value >> 16), (byte) (value >> 24)};
+    out.write(bytes, 0, bytes.length);
+  }
+}
@@ -0,0 +1,168 @@
+package org.embulk.output.bigquery_java;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.HashMap;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.parquet.hadoop.ParquetWriter;
+import org.apache.parquet.hadoop.api.WriteSupport;
+import org.apache.parquet.hadoop.metadata.CompressionCodecName;
+import org.apache.parquet.io.OutputFile;
+import org.apache.parquet.io.PositionOutputStream;
+import org.apache.parquet.io.api.Binary;
+import org.apache.parquet.io.api.RecordConsumer;
+import org.apache.parquet.schema.MessageType;
+
+// Writes rows of ParquetFieldWriter into a local file through an OutputStream, without a Hadoop
+// file system.
+public class BigqueryParquetWriter {
+  public static ParquetWriter<Object[]> open(
+      OutputStream out, MessageType schema, String compression, long rowGroupSize)
+      throws IOException {
+    return new Builder(new StreamOutputFile(out), schema)
+        .withCompressionCodec(codec(compression))
+        .withRowGroupSize(rowGroupSize)
+        .build();
+  }
+
+  private static CompressionCodecName codec(String compression) {
+    switch (compression.toUpperCase()) {
+      case "SNAPPY":
+        return CompressionCodecName.SNAPPY;
+      case "GZIP":
+        return CompressionCodecName.GZIP;
+      case "ZSTD":
+        return CompressionCodecName.ZSTD;
+      default:
+        return CompressionCodecName.UNCOMPRESSED;
+    }
+  }
+
+  private static class Builder extends ParquetWriter.Builder<Object[], Builder> {
+    private final MessageType schema;
+
+    private Builder(OutputFile file, MessageType schema) {
+      super(file);
+      this.schema = schema;
+    }
+
+    @Override
+    protected Builder self() {
+      return this;
+    }
+
+    @Override
+    protected WriteSupport<Object[]> getWriteSupport(Configuration conf) {
+      return new RowWriteSupport(schema);
+    }
+  }
+
+  private static class RowWriteSupport extends WriteSupport<Object[]> {
+    private final MessageType schema;
+    private RecordConsumer consumer;
+
+    private RowWriteSupport(MessageType schema) {
+      this.schema = schema;
+    }
+
+    @Override
+    public WriteContext init(Configuration configuration) {
+      return new WriteContext(schema, new HashMap<>());
+    }
+
+    @Override
+    public void prepareForWrite(RecordConsumer recordConsumer) {
+      this.consumer = recordConsumer;
+    }
+
+    @Override
+    public void write(Object[] row) {
+      consumer.startMessage();
+      for (int i = 0; i < row.length; i++) {
+        Object value = row[i];
+        if (value == null) {
+          continue;
+        }
+        String name = schema.getFieldName(i);
+        consumer.startField(name, i);
+        if (value instanceof Long) {
+          consumer.addLong((Long) value);
+        } else if (value instanceof Integer) {
+          consumer.addInteger((Integer) value);
+        } else if (value instanceof Double) {
+          consumer.addDouble((Double) value);
+        } else if (value instanceof Boolean) {
+          consumer.addBoolean((Boolean) value);
+        } else {
+          consumer.addBinary((Binary) value);
+        }
+        consumer.endField(name, i);
+      }
+      consumer.endMessage();
+    }
+  }
+
+  private static class StreamOutputFile implements OutputFile {
+    private final OutputStream out;
+
+    private StreamOutputFile(OutputStream out) {
+      this.out = out;
+    }
+
+    @Override
+    public PositionOutputStream create(long blockSizeHint) {
+      return new CountingOutputStream(out);
+    }
+
+    @Override
+    public PositionOutputStream createOrOverwrite(long blockSizeHint) {
+      return new CountingOutputStream(out);
+    }
+
+    @Override
+    public boolean supportsBlockSize() {
+      return false;
+    }
+
+    @Override
+    public long defaultBlockSize() {
+      return 0;
+    }
+  }
+
+  private static class CountingOutputStream extends PositionOutputStream {
+    private final OutputStream out;
+    private long position = 0;
+
+    private CountingOutputStream(OutputStream out) {
+      this.out = out;
+    }
+
+    @Override
+    public long getPos() {
+      return position;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+      out.write(b);
+      position++;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+      out.write(b, off, len);
+      position += len;
+    }
+
+    @Override
+    public void flush() throws IOException {
+      out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+      out.close();
+    }
+  }
+}
@@ -0,0 +1,173 @@
+package org.embulk.output.bigquery_java;
+
+import com.google.cloud.bigquery.Job;
+import com.google.cloud.bigquery.JobInfo;
+import com.google.cloud.bigquery.TableDataWriteChannel;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import org.embulk.output.bigquery_java.config.PluginTask;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+// Uploads the bytes of an intermediate file to a load job while the file is still being written.
+// Bytes are handed over in chunks through a bounded queue, so a slow upload blocks the writer
+// instead of buffering the whole file in memory. The file is written as well, and it is loaded
+// again by BigqueryJobRunner when the upload fails.
+public class BigqueryPipelinedUpload {
+  private static final Logger logger = LoggerFactory.getLogger(BigqueryPipelinedUpload.class);
+  // the minimum chunk size of resumable uploads
+  static final int CHUNK_SIZE = 256 * 1024;
+  private static final ByteBuffer EOF = ByteBuffer.allocate(0);
+  private static final ByteBuffer ABORT = ByteBuffer.allocate(0);
+
+  private final BigqueryClient client;
+  private final String table;
+  private final Path path;
+  private final BlockingQueue<ByteBuffer> queue;
+  private final CompletableFuture<Job> future;
+
+  public BigqueryPipelinedUpload(PluginTask task, BigqueryClient client, Path path) {
+    this.client = client;
+    this.table = BigqueryJobRunner.getTableName(task);
+    this.path = path;
+    this.queue =
+        new ArrayBlockingQueue<>(Math.max(1, task.getPipelinedUploadBufferSize() / CHUNK_SIZE));
+    // an upload takes a thread until its file is closed, so files are written by as many threads
+    // as max_upload_concurrency at once
+    this.future = CompletableFuture.supplyAsync(this::upload, BigqueryUtil.getLoadExecutor(task));
+  }
+
+  // Writes into the file and the upload
+  public OutputStream outputStream(OutputStream file) {
+    return new PipeOutputStream(file);
+  }
+
+  // Completes with the load job when every byte is uploaded, and fails only when no job is created
+  public CompletableFuture<Job> getJob() {
+    return future;
+  }
+
+  // Stops the upload without closing the channel, so that no job is created
+  public void abort() {
+    while (!future.isDone() && !queue.offer(ABORT)) {
+      queue.clear();
+    }
+  }
+
+  private Job upload() {
+    try {
+      return uploadChunks();
+    } catch (IOException | InterruptedException e) {
+      throw new CompletionException(e);
+    }
+  }
+
+  private Job uploadChunks() throws IOException, InterruptedException {
+    String jobId = String.format("embulk_load_job_%s", UUID.randomUUID());
+    logger.info(
+        "embulk-output-bigquery: Load job starting... job_id:[{}] {} (pipelined) => {}:{}.{}",
+        jobId,
+        path,
+        client.destinationProject,
+        client.destinationDataset,
+        table);
+    TableDataWriteChannel writer =
+        client.openLoadChannel(jobId, table, JobInfo.WriteDisposition.WRITE_APPEND);
+    while (true) {
+      ByteBuffer chunk = queue.take();
+      if (chunk == EOF) {
+        break;
+      } else if (chunk == ABORT) {
+        throw new CancellationException("pipelined upload of " + path + " is aborted");
+      }
+      while (chunk.hasRemaining()) {
+        writer.write(chunk);
+      }
+    }
+    // the channel is closed only after every byte is written, since closing creates the job
+    writer.close();
+    return writer.getJob();
+  }
+
+  private class PipeOutputStream extends OutputStream {
+    private final OutputStream file;
+    private byte[] chunk = new byte[CHUNK_SIZE];
+    private int position = 0;
+    private boolean failed = false;
+
+    PipeOutputStream(OutputStream file) {
+      this.file = file;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+      file.write(b);
+      if (position == chunk.length) {
+        send();
+      }
+      chunk[position++] = (byte) b;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+      file.write(b, off, len);
+      while (len > 0) {
+        if (position == chunk.length) {
+          send();
+        }
+        int n = Math.min(len, chunk.length - position);
+        System.arraycopy(b, off, chunk, position, n);
+        position += n;
+        off += n;
+        len -= n;
+      }
+    }
+
+    @Override
+    public void flush() throws IOException {
+      file.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+      try {
+        if (position > 0) {
+          send();
+        }
+        put(EOF);
+      } finally {
+        file.close();
+      }
+    }
+
+    private void send() throws IOException {
+      put(ByteBuffer.wrap(chunk, 0, position));
+      chunk = new byte[CHUNK_SIZE];
+      position = 0;
+    }
+
+    private void put(ByteBuffer buffer) throws IOException {
+      try {
+        // the upload stops taking chunks when it fails, and the file is loaded instead
+        while (!failed && !queue.offer(buffer, 100, TimeUnit.MILLISECONDS)) {
+          failed = future.isDone();
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new IOException(e);
+      }
+      if (failed) {
+        queue.clear();
+      }
+    }
+  }
+}
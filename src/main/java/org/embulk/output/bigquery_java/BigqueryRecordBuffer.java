@@ -0,0 +1,55 @@
+package org.embulk.output.bigquery_java;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+// Serialized records of a page, which are written to the file at once. The end of each record is
+// kept, so that files can still be rolled between records. The buffer is reused for every page.
+public class BigqueryRecordBuffer extends ByteArrayOutputStream {
+  private int[] ends = new int[1024];
+  private int records = 0;
+
+  public BigqueryRecordBuffer() {
+    super(64 * 1024);
+  }
+
+  // Marks the bytes written since the previous record as a record
+  public void endRecord() {
+    if (records == ends.length) {
+      ends = Arrays.copyOf(ends, ends.length * 2);
+    }
+    ends[records++] = count;
+  }
+
+  public int getRecordCount() {
+    return records;
+  }
+
+  // Writes the records from "from" to "to", exclusive
+  public void writeTo(OutputStream out, int from, int to) throws IOException {
+    int start = from == 0 ? 0 : ends[from - 1];
+    out.write(buf, start, ends[to - 1] - start);
+  }
+
+  // Writes the bytes written since the end of the last record, which is not ended yet
+  public void writeOpenRecordTo(OutputStream out) throws IOException {
+    int start = openRecordStart();
+    out.write(buf, start, count - start);
+  }
+
+  // Drops the bytes of the record which is not ended, such as one that failed in the middle
+  public void truncate() {
+    count = openRecordStart();
+  }
+
+  private int openRecordStart() {
+    return records == 0 ? 0 : ends[records - 1];
+  }
+
+  public void clear() {
+    reset();
+    records = 0;
+  }
+}
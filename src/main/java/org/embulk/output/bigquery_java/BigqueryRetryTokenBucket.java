@@ -0,0 +1,38 @@
+package org.embulk.output.bigquery_java;
+
+// Limits the rate of the retries of all runners of a transaction. A retry takes a token, and waits
+// for the token when the bucket is empty, so that retries after a burst of errors are spread out
+// instead of hitting the quota together.
+public class BigqueryRetryTokenBucket {
+  private final double tokensPerMillis;
+  private final double size;
+  private double tokens;
+  private long refilledAt;
+
+  public BigqueryRetryTokenBucket(double tokensPerSecond, int size) {
+    this(tokensPerSecond, size, System.currentTimeMillis());
+  }
+
+  BigqueryRetryTokenBucket(double tokensPerSecond, int size, long now) {
+    this.tokensPerMillis = tokensPerSecond / 1000;
+    this.size = size;
+    this.tokens = size;
+    this.refilledAt = now;
+  }
+
+  // Takes a token, and returns how long to wait until it is available. Tokens are taken ahead
+  // without blocking, so that the retries wait in the order they took their tokens
+  public long take() {
+    return take(System.currentTimeMillis());
+  }
+
+  synchronized long take(long now) {
+    tokens = Math.min(size, tokens + (now - refilledAt) * tokensPerMillis);
+    refilledAt = now;
+    tokens -= 1;
+    if (tokens >= 0) {
+      return 0;
+    }
+    return (long) Math.ceil(-tokens / tokensPerMillis);
+  }
+}
@@ -0,0 +1,114 @@
+package org.embulk.output.bigquery_java;
+
+import com.google.api.core.ApiFuture;
+import com.google.cloud.bigquery.storage.v1.AppendRowsResponse;
+import com.google.cloud.bigquery.storage.v1.ProtoRows;
+import com.google.cloud.bigquery.storage.v1.StreamWriter;
+import com.google.cloud.bigquery.storage.v1.WriteStream;
+import com.google.protobuf.ByteString;
+import com.google.protobuf.DescriptorProtos.DescriptorProto;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ExecutionException;
+import org.embulk.output.bigquery_java.exception.BigqueryException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+// Appends rows of a task to a PENDING stream of the Storage Write API, instead of writing them
+// into files to load. Each append has the offset of its first row, so that a retried append is
+// not written twice, and the transaction commits the streams of every task at once.
+public class BigqueryStorageWriter {
+  private final Logger logger = LoggerFactory.getLogger(BigqueryStorageWriter.class);
+  // an append request must be smaller than 10MB
+  private static final int MAX_APPEND_BYTES = 8 * 1024 * 1024;
+  private final BigqueryClient client;
+  private final WriteStream stream;
+  private final StreamWriter streamWriter;
+  private final Deque<ApiFuture<AppendRowsResponse>> responses = new ArrayDeque<>();
+  private ProtoRows.Builder rows = ProtoRows.newBuilder();
+  private int rowsBytes = 0;
+  private long offset = 0;
+  private boolean closed = false;
+
+  public BigqueryStorageWriter(BigqueryClient client, String table, DescriptorProto descriptor) {
+    this.client = client;
+    this.stream = client.createPendingWriteStream(table);
+    try {
+      this.streamWriter = client.newStreamWriter(stream, descriptor);
+    } catch (IOException e) {
+      throw new BigqueryException(
+          String.format("failed to open write stream %s: %s", stream.getName(), e.getMessage()));
+    }
+  }
+
+  public String getStreamName() {
+    return stream.getName();
+  }
+
+  // The number of rows given to write
+  public long getCount() {
+    return offset + rows.getSerializedRowsCount();
+  }
+
+  public void write(ByteString row) {
+    if (rowsBytes + row.size() > MAX_APPEND_BYTES && rows.getSerializedRowsCount() > 0) {
+      flush();
+    }
+    rows.addSerializedRows(row);
+    rowsBytes += row.size();
+  }
+
+  // Sends the rows so far, and fails when an earlier append has failed
+  public void flush() {
+    if (rows.getSerializedRowsCount() > 0) {
+      ProtoRows appended = rows.build();
+      responses.add(streamWriter.append(appended, offset));
+      offset += appended.getSerializedRowsCount();
+      rows = ProtoRows.newBuilder();
+      rowsBytes = 0;
+    }
+    while (!responses.isEmpty() && responses.peekFirst().isDone()) {
+      checkResponse(responses.removeFirst());
+    }
+  }
+
+  // Waits for every append, and returns the number of rows of the stream
+  public long finish() {
+    flush();
+    while (!responses.isEmpty()) {
+      checkResponse(responses.removeFirst());
+    }
+    long rowCount = client.finalizeWriteStream(stream.getName());
+    logger.info(
+        "embulk-output-bigquery: Finalized write stream {} of {} rows", stream.getName(), rowCount);
+    return rowCount;
+  }
+
+  // Rows of the stream are discarded unless the stream is committed
+  public void close() {
+    if (!closed) {
+      closed = true;
+      streamWriter.close();
+    }
+  }
+
+  private void checkResponse(ApiFuture<AppendRowsResponse> response) {
+    try {
+      AppendRowsResponse appendRowsResponse = response.get();
+      if (appendRowsResponse.hasError()) {
+        throw new BigqueryException(
+            String.format(
+                "failed to append rows to %s: %s",
+                stream.getName(), appendRowsResponse.getError().getMessage()));
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new BigqueryException("interrupted");
+    } catch (ExecutionException e) {
+      throw new BigqueryException(
+          String.format(
+              "failed to append rows to %s: %s", stream.getName(), e.getCause().getMessage()));
+    }
+  }
+}
@@ -2,22 +2,22 @@ package org.embulk.output.bigquery_java;
 
 import java.util.concurrent.ConcurrentHashMap;
 import org.embulk.output.bigquery_java.config.PluginTask;
+import org.embulk.spi.Schema;
 
 public class BigqueryThreadLocalFileWriter {
   private static ThreadLocal<BigqueryFileWriter> tl =
       ThreadLocal.withInitial(BigqueryFileWriter::new);
   private static ConcurrentHashMap<Long, BigqueryFileWriter> writers;
 
-  public static void setFileWriter(PluginTask task) {
+  // Returns the writer of the current thread, which a page output keeps for its pages
+  public static BigqueryFileWriter setFileWriter(PluginTask task, Schema schema) {
     BigqueryFileWriter writer = tl.get();
     writer.setTask(task);
+    writer.setSchema(schema);
     writer.setCompression(task.getCompression());
     writers = BigqueryUtil.getFileWriters();
     writers.put(Thread.currentThread().getId(), writer);
     tl.set(writer);
-  }
-
-  public static void write(byte[] bytes) {
-    tl.get().write(bytes);
+    return writer;
   }
 }
@@ -6,7 +6,15 @@ import java.nio.file.*;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import org.embulk.output.bigquery_java.config.BigqueryColumnOption;
 import org.embulk.output.bigquery_java.config.PluginTask;
 
@@ -63,6 +71,81 @@ public class BigqueryUtil {
         new ConcurrentHashMap<>();
   }
 
+  // The client of the running transaction
+  public static BigqueryClient getBigqueryClient() {
+    return BigqueryClientHolder.instance;
+  }
+
+  public static void setBigqueryClient(BigqueryClient client) {
+    BigqueryClientHolder.instance = client;
+  }
+
+  public static class BigqueryClientHolder {
+    private static volatile BigqueryClient instance;
+  }
+
+  // The budget of local files of the process, or null without max_local_disk_bytes
+  public static synchronized BigqueryLocalDiskBudget getLocalDiskBudget(PluginTask task) {
+    if (!task.getMaxLocalDiskBytes().isPresent()) {
+      return null;
+    }
+    if (LocalDiskBudgetHolder.instance == null) {
+      LocalDiskBudgetHolder.instance =
+          new BigqueryLocalDiskBudget(task.getMaxLocalDiskBytes().get());
+    }
+    return LocalDiskBudgetHolder.instance;
+  }
+
+  public static synchronized void setLocalDiskBudget(BigqueryLocalDiskBudget budget) {
+    LocalDiskBudgetHolder.instance = budget;
+  }
+
+  public static class LocalDiskBudgetHolder {
+    private static BigqueryLocalDiskBudget instance;
+  }
+
+  // The threads of the process that upload files while they are written by pipelined_upload, or
+  // when they are closed under max_local_disk_bytes, as many as max_upload_concurrency like the
+  // loads of the transaction
+  public static synchronized ExecutorService getLoadExecutor(PluginTask task) {
+    if (LoadExecutorHolder.instance == null) {
+      ThreadFactory factory =
+          r -> {
+            Thread thread = new Thread(r, "embulk-output-bigquery-upload");
+            thread.setDaemon(true);
+            return thread;
+          };
+      if (task.getMaxUploadConcurrency().isPresent()) {
+        int concurrency = Math.max(1, task.getMaxUploadConcurrency().get());
+        ThreadPoolExecutor executor =
+            new ThreadPoolExecutor(
+                concurrency,
+                concurrency,
+                60,
+                TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(),
+                factory);
+        executor.allowCoreThreadTimeOut(true);
+        LoadExecutorHolder.instance = executor;
+      } else {
+        LoadExecutorHolder.instance = Executors.newCachedThreadPool(factory);
+      }
+    }
+    return LoadExecutorHolder.instance;
+  }
+
+  // Lets the threads end after the loads that have been started
+  public static synchronized void shutdownLoadExecutor() {
+    if (LoadExecutorHolder.instance != null) {
+      LoadExecutorHolder.instance.shutdown();
+      LoadExecutorHolder.instance = null;
+    }
+  }
+
+  public static class LoadExecutorHolder {
+    private static ExecutorService instance;
+  }
+
   public static Optional<BigqueryColumnOption> findColumnOption(
       String columnName, List<BigqueryColumnOption> columnOptions) {
     return columnOptions.stream().filter(colOpt -> colOpt.getName().equals(columnName)).findFirst();
@@ -71,4 +154,16 @@ public class BigqueryUtil {
   public static String chompPartitionDecorator(String table) {
     return table.replaceAll("\\$.+\\z", "");
   }
+
+  // Waits for the future, and throws the exception that failed it as it is
+  public static <T> T join(CompletableFuture<T> future) {
+    try {
+      return future.join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw e;
+    }
+  }
 }
@@ -1,13 +1,26 @@
 package org.embulk.output.bigquery_java.config;
 
 import java.util.Arrays;
+import java.util.Optional;
 import org.embulk.config.ConfigException;
 
 public class BigqueryConfigValidator {
   public static void validate(PluginTask task) {
     validateMode(task);
+    validateMethod(task);
     validateModeAndAutoCreteTable(task);
     validateClustering(task);
+    validateFieldDelimiter(task);
+    validateCompression(task);
+    validatePipelinedUploadBufferSize(task);
+    validateFileRolling(task);
+    validateMaxLocalDiskBytes(task);
+    validateGcsBucket(task);
+    validateMaxUploadConcurrency(task);
+    validateJobStatusPolling(task);
+    validateRetryPolicies(task);
+    validateUploadChunkSize(task);
+    validateGzip(task);
   }
 
   public static void validateMode(PluginTask task) throws ConfigException {
@@ -19,6 +32,26 @@ public class BigqueryConfigValidator {
     }
   }
 
+  public static void validateMethod(PluginTask task) throws ConfigException {
+    String[] methods = {"load", "storage_write_api"};
+    if (!Arrays.asList(methods).contains(task.getMethod())) {
+      throw new ConfigException("method: load and storage_write_api are supported");
+    }
+    if (!task.getMethod().equals("storage_write_api")) {
+      return;
+    }
+    // rows are encoded by the schema of embulk, which a template table may not match
+    if (task.getTemplateTable().isPresent()) {
+      throw new ConfigException("template_table cannot be used with method storage_write_api");
+    }
+    // streams are written into a table, not into a partition
+    if (task.getMode().equals("append_direct") && task.getTable().contains("$")) {
+      throw new ConfigException(
+          "a partition decorator cannot be used with method storage_write_api and mode"
+              + " append_direct");
+    }
+  }
+
   public static void validateModeAndAutoCreteTable(PluginTask task) throws ConfigException {
     // TODO: modes are append replace delete_in_advance replace_backup and
     // !task['auto_create_table']
@@ -47,4 +80,149 @@ public class BigqueryConfigValidator {
       }
     }
   }
+
+  public static void validateCompression(PluginTask task) throws ConfigException {
+    // Avro and Parquet files are compressed inside, BigQuery does not load gzipped ones
+    String[] compressions;
+    switch (task.getSourceFormat()) {
+      case "AVRO":
+        compressions = new String[] {"NONE", "DEFLATE", "SNAPPY"};
+        break;
+      case "PARQUET":
+        compressions = new String[] {"NONE", "SNAPPY", "GZIP", "ZSTD"};
+        break;
+      default:
+        compressions = new String[] {"NONE", "GZIP"};
+        break;
+    }
+    if (!Arrays.asList(compressions).contains(task.getCompression().toUpperCase())) {
+      throw new ConfigException(
+          String.format(
+              "compression: %s are supported with source_format %s",
+              String.join(", ", compressions), task.getSourceFormat()));
+    }
+  }
+
+  public static void validateFieldDelimiter(PluginTask task) throws ConfigException {
+    if (task.getFieldDelimiter().length() != 1) {
+      throw new ConfigException("field_delimiter must be a single character");
+    }
+  }
+
+  public static void validatePipelinedUploadBufferSize(PluginTask task) throws ConfigException {
+    if (task.getPipelinedUploadBufferSize() <= 0) {
+      throw new ConfigException("pipelined_upload_buffer_size must be positive");
+    }
+  }
+
+  public static void validateFileRolling(PluginTask task) throws ConfigException {
+    if (task.getMaxFileSize().isPresent() && task.getMaxFileSize().get() <= 0) {
+      throw new ConfigException("max_file_size must be positive");
+    }
+    if (task.getMaxRecordsPerFile().isPresent() && task.getMaxRecordsPerFile().get() <= 0) {
+      throw new ConfigException("max_records_per_file must be positive");
+    }
+  }
+
+  public static void validateMaxLocalDiskBytes(PluginTask task) throws ConfigException {
+    if (!task.getMaxLocalDiskBytes().isPresent()) {
+      return;
+    }
+    if (task.getMaxLocalDiskBytes().get() <= 0) {
+      throw new ConfigException("max_local_disk_bytes must be positive");
+    }
+    // files are loaded and deleted one by one while the next files are written
+    if (!task.getMaxFileSize().isPresent()) {
+      throw new ConfigException("max_local_disk_bytes needs max_file_size");
+    }
+    if (!task.getDeleteFromLocalWhenJobEnd()) {
+      throw new ConfigException(
+          "max_local_disk_bytes cannot be used with delete_from_local_when_job_end false");
+    }
+  }
+
+  public static void validateGcsBucket(PluginTask task) throws ConfigException {
+    if (!task.getGcsBucket().isPresent()) {
+      return;
+    }
+    if (task.getGcsBucket().get().isEmpty()) {
+      throw new ConfigException("gcs_bucket must not be empty");
+    }
+    // every file is loaded by one job after the files are uploaded
+    if (task.getMethod().equals("storage_write_api")) {
+      throw new ConfigException("gcs_bucket cannot be used with method storage_write_api");
+    }
+    if (task.getPipelinedUpload()) {
+      throw new ConfigException("gcs_bucket cannot be used with pipelined_upload");
+    }
+    if (task.getMaxLocalDiskBytes().isPresent()) {
+      throw new ConfigException("gcs_bucket cannot be used with max_local_disk_bytes");
+    }
+  }
+
+  public static void validateMaxUploadConcurrency(PluginTask task) throws ConfigException {
+    if (task.getMaxUploadConcurrency().isPresent() && task.getMaxUploadConcurrency().get() <= 0) {
+      throw new ConfigException("max_upload_concurrency must be positive");
+    }
+  }
+
+  public static void validateJobStatusPolling(PluginTask task) throws ConfigException {
+    if (task.getJobStatusInitialPollingIntervalMillis() <= 0) {
+      throw new ConfigException("job_status_initial_polling_interval_millis must be positive");
+    }
+  }
+
+  public static void validateRetryPolicies(PluginTask task) throws ConfigException {
+    if (task.getRetryTokensPerSecond() <= 0) {
+      throw new ConfigException("retry_tokens_per_second must be positive");
+    }
+    if (task.getRetryTokenBucketSize() <= 0) {
+      throw new ConfigException("retry_token_bucket_size must be positive");
+    }
+    if (!task.getRetryPolicies().isPresent()) {
+      return;
+    }
+    BigqueryRetryPolicies policies = task.getRetryPolicies().get();
+    validateRetryPolicy("rate_limit_exceeded", policies.getRateLimitExceeded());
+    validateRetryPolicy("backend_error", policies.getBackendError());
+    validateRetryPolicy("internal_error", policies.getInternalError());
+    validateRetryPolicy("upload_error", policies.getUploadError());
+  }
+
+  private static void validateRetryPolicy(String name, Optional<BigqueryRetryPolicy> policy)
+      throws ConfigException {
+    Optional<Long> initial = policy.flatMap(BigqueryRetryPolicy::getInitialRetryWaitMillis);
+    Optional<Long> max = policy.flatMap(BigqueryRetryPolicy::getMaxRetryWaitMillis);
+    if (initial.isPresent() && initial.get() <= 0) {
+      throw new ConfigException(
+          String.format("retry_policies.%s.initial_retry_wait_millis must be positive", name));
+    }
+    if (max.isPresent() && max.get() <= 0) {
+      throw new ConfigException(
+          String.format("retry_policies.%s.max_retry_wait_millis must be positive", name));
+    }
+  }
+
+  public static void validateUploadChunkSize(PluginTask task) throws ConfigException {
+    // chunks of resumable uploads are multiples of 256KiB, and the client rounds down the others,
+    // which would leave bytes buffered in the state of a chunk to resume from
+    if (task.getUploadChunkSize() < 256 * 1024 || task.getUploadChunkSize() % (256 * 1024) != 0) {
+      throw new ConfigException("upload_chunk_size must be a positive multiple of 262144");
+    }
+  }
+
+  public static void validateGzip(PluginTask task) throws ConfigException {
+    if (task.getGzipLevel() < 0 || task.getGzipLevel() > 9) {
+      throw new ConfigException("gzip_level must be between 0 and 9");
+    }
+    if (task.getGzipBlockSize() <= 0) {
+      throw new ConfigException("gzip_block_size must be positive");
+    }
+    if (task.getGzipBufferSize() <= 0) {
+      throw new ConfigException("gzip_buffer_size must be positive");
+    }
+    if (task.getWriteBufferSize() <= 0) {
+      throw new ConfigException("write_buffer_size must be positive");
+    }
+  }
 }
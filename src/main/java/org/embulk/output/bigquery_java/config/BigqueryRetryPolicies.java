@@ -0,0 +1,24 @@
+package org.embulk.output.bigquery_java.config;
+
+import java.util.Optional;
+import org.embulk.util.config.Config;
+import org.embulk.util.config.ConfigDefault;
+import org.embulk.util.config.Task;
+
+public interface BigqueryRetryPolicies extends Task {
+  @Config("rate_limit_exceeded")
+  @ConfigDefault("null")
+  public Optional<BigqueryRetryPolicy> getRateLimitExceeded();
+
+  @Config("backend_error")
+  @ConfigDefault("null")
+  public Optional<BigqueryRetryPolicy> getBackendError();
+
+  @Config("internal_error")
+  @ConfigDefault("null")
+  public Optional<BigqueryRetryPolicy> getInternalError();
+
+  @Config("upload_error")
+  @ConfigDefault("null")
+  public Optional<BigqueryRetryPolicy> getUploadError();
+}
@@ -0,0 +1,16 @@
+package org.embulk.output.bigquery_java.config;
+
+import java.util.Optional;
+import org.embulk.util.config.Config;
+import org.embulk.util.config.ConfigDefault;
+import org.embulk.util.config.Task;
+
+public interface BigqueryRetryPolicy extends Task {
+  @Config("initial_retry_wait_millis")
+  @ConfigDefault("null")
+  public Optional<Long> getInitialRetryWaitMillis();
+
+  @Config("max_retry_wait_millis")
+  @ConfigDefault("null")
+  public Optional<Long> getMaxRetryWaitMillis();
+}
@@ -11,6 +11,7 @@ public class BigqueryTaskBuilder {
 
   public static PluginTask build(PluginTask task) {
     setPathPrefix(task);
+    setCompression(task);
     setFileExt(task);
     setTempTable(task);
     setAbortOnError(task);
@@ -18,7 +19,8 @@ public class BigqueryTaskBuilder {
   }
 
   protected static void setPathPrefix(PluginTask task) {
-    if (!task.getPathPrefix().isPresent()) {
+    // method storage_write_api writes no files
+    if (!task.getPathPrefix().isPresent() && !task.getMethod().equals("storage_write_api")) {
       try {
         File tmpFile = File.createTempFile("embulk_output_bigquery_java", "");
         task.setPathPrefix(Optional.of(tmpFile.getPath()));
@@ -28,16 +30,26 @@ public class BigqueryTaskBuilder {
     }
   }
 
+  // compression is validated case insensitively, and compared in upper case elsewhere
+  protected static void setCompression(PluginTask task) {
+    task.setCompression(task.getCompression().toUpperCase());
+  }
+
   protected static void setFileExt(PluginTask task) {
     if (!task.getFileExt().isPresent()) {
       if (task.getSourceFormat().equals("CSV")) {
         task.setFileExt(Optional.of(".csv"));
+      } else if (task.getSourceFormat().equals("AVRO")) {
+        task.setFileExt(Optional.of(".avro"));
+      } else if (task.getSourceFormat().equals("PARQUET")) {
+        task.setFileExt(Optional.of(".parquet"));
       } else {
         task.setFileExt(Optional.of(".jsonl"));
       }
     }
 
-    if (task.getCompression().equals("GZIP")) {
+    // Parquet files are compressed by pages
+    if (task.getCompression().equals("GZIP") && !task.getSourceFormat().equals("PARQUET")) {
       String fileExt = task.getFileExt().get() + ".gz";
       task.setFileExt(Optional.of(fileExt));
     }
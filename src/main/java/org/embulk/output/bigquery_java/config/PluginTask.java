@@ -15,6 +15,10 @@ public interface PluginTask extends Task {
 
   void setMode(String mode);
 
+  @Config("method")
+  @ConfigDefault("\"load\"")
+  String getMethod();
+
   // TODO: default should be application default
   @Config("auth_method")
   @ConfigDefault("\"service_account\"")
@@ -62,9 +66,67 @@ public interface PluginTask extends Task {
   @ConfigDefault("\"NONE\"")
   String getCompression();
 
+  void setCompression(String compression);
+
+  @Config("parallel_gzip")
+  @ConfigDefault("false")
+  boolean getParallelGzip();
+
+  @Config("gzip_level")
+  @ConfigDefault("6")
+  int getGzipLevel();
+
+  @Config("gzip_block_size")
+  @ConfigDefault("131072")
+  int getGzipBlockSize();
+
+  @Config("gzip_buffer_size")
+  @ConfigDefault("65536")
+  int getGzipBufferSize();
+
+  @Config("gzip_sync_flush")
+  @ConfigDefault("false")
+  boolean getGzipSyncFlush();
+
+  @Config("write_buffer_size")
+  @ConfigDefault("32768")
+  int getWriteBufferSize();
+
   @Config("source_format")
   String getSourceFormat();
 
+  @Config("parquet_row_group_size")
+  @ConfigDefault("33554432")
+  long getParquetRowGroupSize();
+
+  @Config("enable_streaming_json_serializer")
+  @ConfigDefault("false")
+  boolean getEnableStreamingJsonSerializer();
+
+  @Config("max_file_size")
+  @ConfigDefault("null")
+  Optional<Long> getMaxFileSize();
+
+  @Config("max_records_per_file")
+  @ConfigDefault("null")
+  Optional<Long> getMaxRecordsPerFile();
+
+  @Config("gcs_bucket")
+  @ConfigDefault("null")
+  Optional<String> getGcsBucket();
+
+  @Config("max_local_disk_bytes")
+  @ConfigDefault("null")
+  Optional<Long> getMaxLocalDiskBytes();
+
+  @Config("pipelined_upload")
+  @ConfigDefault("false")
+  boolean getPipelinedUpload();
+
+  @Config("pipelined_upload_buffer_size")
+  @ConfigDefault("16777216")
+  int getPipelinedUploadBufferSize();
+
   @Config("path_prefix")
   @ConfigDefault("null")
   Optional<String> getPathPrefix();
@@ -112,6 +174,10 @@ public interface PluginTask extends Task {
   @ConfigDefault("false")
   boolean getAllowQuotedNewlines();
 
+  @Config("field_delimiter")
+  @ConfigDefault("\",\"")
+  String getFieldDelimiter();
+
   @Config("template_table")
   @ConfigDefault("null")
   Optional<String> getTemplateTable();
@@ -120,6 +186,10 @@ public interface PluginTask extends Task {
   @ConfigDefault("10")
   long getJobStatusPollingInterval();
 
+  @Config("job_status_initial_polling_interval_millis")
+  @ConfigDefault("500")
+  long getJobStatusInitialPollingIntervalMillis();
+
   @Config("job_status_max_polling_time")
   @ConfigDefault("3600")
   long getJobStatusMaxPollingTime();
@@ -153,6 +223,30 @@ public interface PluginTask extends Task {
   @ConfigDefault("5")
   int getRetries();
 
+  @Config("upload_chunk_size")
+  @ConfigDefault("8388608")
+  int getUploadChunkSize();
+
+  @Config("retry_policies")
+  @ConfigDefault("null")
+  Optional<BigqueryRetryPolicies> getRetryPolicies();
+
+  @Config("retry_tokens_per_second")
+  @ConfigDefault("1.0")
+  double getRetryTokensPerSecond();
+
+  @Config("retry_token_bucket_size")
+  @ConfigDefault("10")
+  int getRetryTokenBucketSize();
+
+  @Config("endpoint")
+  @ConfigDefault("null")
+  Optional<String> getEndpoint();
+
+  @Config("max_upload_concurrency")
+  @ConfigDefault("null")
+  Optional<Integer> getMaxUploadConcurrency();
+
   @Config("before_load")
   @ConfigDefault("null")
   Optional<String> getBeforeLoad();
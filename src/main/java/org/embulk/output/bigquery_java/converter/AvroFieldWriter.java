@@ -0,0 +1,103 @@
+package org.embulk.output.bigquery_java.converter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import org.apache.avro.io.Encoder;
+
+// Encodes converted values as an Avro binary datum of the schema given by AvroSchemaBuilder
+public class AvroFieldWriter extends TypedFieldWriter {
+  private final Encoder encoder;
+
+  public AvroFieldWriter(Encoder encoder, BigqueryColumnConverter[] converters) {
+    super(converters);
+    this.encoder = encoder;
+  }
+
+  @Override
+  protected void writeNull(int index) {
+    try {
+      encoder.writeIndex(0);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  @Override
+  protected void writeBoolean(int index, boolean value) {
+    try {
+      startValue(index);
+      encoder.writeBoolean(value);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  @Override
+  protected void writeLong(int index, long value) {
+    try {
+      startValue(index);
+      encoder.writeLong(value);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  @Override
+  protected void writeDouble(int index, double value) {
+    try {
+      startValue(index);
+      encoder.writeDouble(value);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  @Override
+  protected void writeString(int index, String value) {
+    try {
+      startValue(index);
+      encoder.writeString(value);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  @Override
+  protected void writeTimestamp(int index, long micros) {
+    writeLong(index, micros);
+  }
+
+  @Override
+  protected void writeDatetime(int index, String value) {
+    // string with the datetime logical type
+    writeString(index, value);
+  }
+
+  @Override
+  protected void writeDate(int index, int epochDay) {
+    try {
+      startValue(index);
+      encoder.writeInt(epochDay);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  @Override
+  protected void writeNumeric(int index, BigDecimal value) {
+    try {
+      startValue(index);
+      encoder.writeBytes(value.unscaledValue().toByteArray());
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  // Selects the non-null branch of the union of a nullable field
+  private void startValue(int index) throws IOException {
+    if (isNullable(index)) {
+      encoder.writeIndex(1);
+    }
+  }
+}
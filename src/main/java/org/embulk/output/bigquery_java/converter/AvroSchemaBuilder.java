@@ -0,0 +1,69 @@
+package org.embulk.output.bigquery_java.converter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.apache.avro.LogicalType;
+import org.apache.avro.LogicalTypes;
+import org.apache.avro.Schema;
+import org.apache.avro.SchemaParseException;
+import org.embulk.config.ConfigException;
+import org.embulk.output.bigquery_java.config.BigqueryColumnOption;
+
+// Builds the Avro schema of intermediate files from the same column types and modes as
+// BigqueryClient#buildSchema. Loaded with useAvroLogicalTypes, each field becomes the column type.
+public class AvroSchemaBuilder {
+  private static final String RECORD_NAME = "embulk_output_bigquery_java";
+  // BigQuery NUMERIC has 29 digits before the decimal point
+  private static final int NUMERIC_INTEGER_DIGITS = 29;
+
+  public static Schema build(BigqueryColumnConverter[] converters) {
+    List<Schema.Field> fields = new ArrayList<>();
+    for (BigqueryColumnConverter converter : converters) {
+      Schema type = fieldType(converter);
+      if (TypedFieldWriter.isNullable(converter)) {
+        type = Schema.createUnion(Arrays.asList(Schema.create(Schema.Type.NULL), type));
+      }
+      try {
+        fields.add(new Schema.Field(converter.getName(), type, null, (Object) null));
+      } catch (SchemaParseException e) {
+        throw new ConfigException(
+            String.format(
+                "column name %s cannot be used with source_format AVRO", converter.getName()));
+      }
+    }
+    return Schema.createRecord(RECORD_NAME, null, null, false, fields);
+  }
+
+  private static Schema fieldType(BigqueryColumnConverter converter) {
+    switch (converter.getType()) {
+      case BOOLEAN:
+        return Schema.create(Schema.Type.BOOLEAN);
+      case INTEGER:
+        return Schema.create(Schema.Type.LONG);
+      case FLOAT:
+        return Schema.create(Schema.Type.DOUBLE);
+      case STRING:
+        return Schema.create(Schema.Type.STRING);
+      case TIMESTAMP:
+        return LogicalTypes.timestampMicros().addToSchema(Schema.create(Schema.Type.LONG));
+      case DATETIME:
+        // Avro has no datetime logical type, BigQuery reads it from a string
+        Schema datetime = Schema.create(Schema.Type.STRING);
+        datetime.addProp(LogicalType.LOGICAL_TYPE_PROP, "datetime");
+        return datetime;
+      case DATE:
+        return LogicalTypes.date().addToSchema(Schema.create(Schema.Type.INT));
+      case NUMERIC:
+        BigqueryColumnOption columnOption = converter.getColumnOption();
+        int scale = columnOption.getScale();
+        return LogicalTypes.decimal(NUMERIC_INTEGER_DIGITS + scale, scale)
+            .addToSchema(Schema.create(Schema.Type.BYTES));
+      default:
+        throw new ConfigException(
+            String.format(
+                "column_options: type %s of %s is not supported with source_format AVRO",
+                converter.getType(), converter.getName()));
+    }
+  }
+}
@@ -10,12 +10,20 @@ public class BigqueryBooleanConverter {
       String name,
       boolean src,
       BigqueryColumnOptionType bigqueryColumnOptionType) {
+    convertAndSet(new ObjectNodeFieldWriter(node), name, src, bigqueryColumnOptionType);
+  }
+
+  public static void convertAndSet(
+      BigqueryFieldWriter writer,
+      String name,
+      boolean src,
+      BigqueryColumnOptionType bigqueryColumnOptionType) {
     switch (bigqueryColumnOptionType) {
       case BOOLEAN:
-        node.put(name, src);
+        writer.put(name, src);
         break;
       case STRING:
-        node.put(name, String.valueOf(src));
+        writer.put(name, String.valueOf(src));
         break;
       default:
         throw new BigqueryNotSupportedTypeException("Invalid data convert for Boolean");
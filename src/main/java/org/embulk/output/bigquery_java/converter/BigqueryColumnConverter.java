@@ -0,0 +1,145 @@
+package org.embulk.output.bigquery_java.converter;
+
+import java.util.List;
+import java.util.Optional;
+import org.embulk.config.ConfigException;
+import org.embulk.output.bigquery_java.BigqueryUtil;
+import org.embulk.output.bigquery_java.config.BigqueryColumnOption;
+import org.embulk.output.bigquery_java.config.BigqueryColumnOptionType;
+import org.embulk.output.bigquery_java.config.PluginTask;
+import org.embulk.spi.Column;
+import org.embulk.spi.Schema;
+import org.embulk.spi.type.BooleanType;
+import org.embulk.spi.type.DoubleType;
+import org.embulk.spi.type.JsonType;
+import org.embulk.spi.type.LongType;
+import org.embulk.spi.type.TimestampType;
+import org.embulk.spi.type.Type;
+import org.embulk.util.timestamp.TimestampFormatter;
+
+// Per-column conversion resolved once per task, so that a record does not look up
+// column_options nor parse BigqueryColumnOptionType for every cell. Timestamp parsers and
+// formatters are built here as well, so that one converter must not be shared between threads.
+public class BigqueryColumnConverter {
+  private final String name;
+  private final BigqueryColumnOptionType type;
+  private final BigqueryColumnOption columnOption;
+  private final BigqueryColumnOptionType defaultType;
+  private final String mode;
+  // for string columns
+  private final TimestampFormatter stringParser;
+  private final BigqueryInstantFormatter stringFormatter;
+  // for timestamp columns
+  private final BigqueryInstantFormatter timestampFormatter;
+
+  public BigqueryColumnConverter(
+      PluginTask task, Column column, Optional<BigqueryColumnOption> columnOption) {
+    this.name = column.getName();
+    this.defaultType = defaultType(column.getType());
+    this.mode = columnOption.map(BigqueryColumnOption::getMode).orElse("NULLABLE");
+    // json columns ignore column_options type, same as JsonColumnVisitor#jsonColumn
+    if (columnOption.isPresent()
+        && columnOption.get().getType().isPresent()
+        && !(column.getType() instanceof JsonType)) {
+      this.type = toColumnOptionType(column, columnOption.get().getType().get());
+      this.columnOption = columnOption.get();
+    } else {
+      this.type = null;
+      this.columnOption = null;
+    }
+    BigqueryColumnOptionType stringType = getType(BigqueryColumnOptionType.STRING);
+    this.stringParser = BigqueryStringConverter.createParser(stringType, this.columnOption);
+    this.stringFormatter = BigqueryStringConverter.createFormatter(stringType, this.columnOption);
+    BigqueryColumnOptionType timestampType = getType(BigqueryColumnOptionType.TIMESTAMP);
+    this.timestampFormatter =
+        BigqueryTimestampConverter.createFormatter(timestampType, this.columnOption, task);
+  }
+
+  // Returns converters indexed by Column#getIndex()
+  public static BigqueryColumnConverter[] of(
+      PluginTask task, Schema schema, List<BigqueryColumnOption> columnOptions) {
+    BigqueryColumnConverter[] converters = new BigqueryColumnConverter[schema.getColumnCount()];
+    for (Column column : schema.getColumns()) {
+      converters[column.getIndex()] =
+          new BigqueryColumnConverter(
+              task, column, BigqueryUtil.findColumnOption(column.getName(), columnOptions));
+    }
+    return converters;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public BigqueryColumnOptionType getType(BigqueryColumnOptionType defaultType) {
+    return type != null ? type : defaultType;
+  }
+
+  // The BigQuery type which values of the column are converted into
+  public BigqueryColumnOptionType getType() {
+    return getType(defaultType);
+  }
+
+  public String getMode() {
+    return mode;
+  }
+
+  public BigqueryColumnOption getColumnOption() {
+    return columnOption;
+  }
+
+  public void convertAndSet(BigqueryFieldWriter writer, boolean src) {
+    BigqueryBooleanConverter.convertAndSet(
+        writer, name, src, getType(BigqueryColumnOptionType.BOOLEAN));
+  }
+
+  public void convertAndSet(BigqueryFieldWriter writer, long src) {
+    BigqueryLongConverter.convertAndSet(
+        writer, name, src, getType(BigqueryColumnOptionType.INTEGER));
+  }
+
+  public void convertAndSet(BigqueryFieldWriter writer, double src) {
+    BigqueryDoubleConverter.convertAndSet(
+        writer, name, src, getType(BigqueryColumnOptionType.FLOAT));
+  }
+
+  public void convertAndSet(BigqueryFieldWriter writer, String src) {
+    BigqueryStringConverter.convertAndSet(
+        writer,
+        name,
+        src,
+        getType(BigqueryColumnOptionType.STRING),
+        columnOption,
+        stringParser,
+        stringFormatter);
+  }
+
+  @SuppressWarnings("deprecation") // The use of org.embulk.spi.time.Timestamp
+  public void convertAndSet(BigqueryFieldWriter writer, org.embulk.spi.time.Timestamp src) {
+    BigqueryTimestampConverter.convertAndSet(
+        writer, name, src, getType(BigqueryColumnOptionType.TIMESTAMP), timestampFormatter);
+  }
+
+  private static BigqueryColumnOptionType defaultType(Type type) {
+    if (type instanceof BooleanType) {
+      return BigqueryColumnOptionType.BOOLEAN;
+    } else if (type instanceof LongType) {
+      return BigqueryColumnOptionType.INTEGER;
+    } else if (type instanceof DoubleType) {
+      return BigqueryColumnOptionType.FLOAT;
+    } else if (type instanceof TimestampType) {
+      return BigqueryColumnOptionType.TIMESTAMP;
+    } else {
+      return BigqueryColumnOptionType.STRING;
+    }
+  }
+
+  private static BigqueryColumnOptionType toColumnOptionType(Column column, String type) {
+    try {
+      return BigqueryColumnOptionType.valueOf(type);
+    } catch (IllegalArgumentException e) {
+      throw new ConfigException(
+          String.format("column_options: type %s of %s is not supported", type, column.getName()));
+    }
+  }
+}
@@ -7,18 +7,26 @@ import org.embulk.output.bigquery_java.exception.BigqueryNotSupportedTypeExcepti
 public class BigqueryDoubleConverter {
   public static void convertAndSet(
       ObjectNode node, String name, double src, BigqueryColumnOptionType bigqueryColumnOptionType) {
+    convertAndSet(new ObjectNodeFieldWriter(node), name, src, bigqueryColumnOptionType);
+  }
+
+  public static void convertAndSet(
+      BigqueryFieldWriter writer,
+      String name,
+      double src,
+      BigqueryColumnOptionType bigqueryColumnOptionType) {
     switch (bigqueryColumnOptionType) {
       case INTEGER:
-        node.put(name, (int) src);
+        writer.put(name, (int) src);
         break;
       case FLOAT:
-        node.put(name, src);
+        writer.put(name, src);
         break;
       case TIMESTAMP:
-        node.put(name, src);
+        writer.put(name, src);
         break;
       case STRING:
-        node.put(name, String.valueOf(src));
+        writer.put(name, String.valueOf(src));
         break;
       default:
         throw new BigqueryNotSupportedTypeException("Invalid data convert for double");
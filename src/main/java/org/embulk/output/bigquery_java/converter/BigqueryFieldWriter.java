@@ -0,0 +1,30 @@
+package org.embulk.output.bigquery_java.converter;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+// Destination of converted values. Converters write through this interface so that the
+// ObjectNode serializer and the streaming JsonGenerator serializer share one conversion.
+public interface BigqueryFieldWriter {
+  void putNull(String name);
+
+  void put(String name, boolean value);
+
+  void put(String name, int value);
+
+  void put(String name, long value);
+
+  void put(String name, float value);
+
+  void put(String name, double value);
+
+  void put(String name, String value);
+
+  void put(String name, BigDecimal value);
+
+  // Writes a TIMESTAMP, DATETIME or DATE value. Text formats write it formatted, binary formats
+  // may write the instant itself.
+  default void putTimestamp(String name, Instant value, BigqueryInstantFormatter formatter) {
+    put(name, formatter.format(value));
+  }
+}
@@ -0,0 +1,24 @@
+package org.embulk.output.bigquery_java.converter;
+
+import java.time.Instant;
+import org.embulk.util.timestamp.TimestampFormatter;
+
+// Formats an Instant into a column value. Build one per (pattern, timezone) and reuse it, since
+// building a TimestampFormatter compiles the pattern.
+@FunctionalInterface
+public interface BigqueryInstantFormatter {
+  String TIMESTAMP_FORMAT = "%Y-%m-%d %H:%M:%S.%6N %:z";
+  String DATETIME_FORMAT = "%Y-%m-%d %H:%M:%S.%6N";
+  String DATE_FORMAT = "%Y-%m-%d";
+
+  String format(Instant instant);
+
+  static BigqueryInstantFormatter of(String pattern, String timezone) {
+    if (UtcInstantFormatter.supports(pattern, timezone)) {
+      return new UtcInstantFormatter(pattern);
+    }
+    TimestampFormatter formatter =
+        TimestampFormatter.builder(pattern, true).setDefaultZoneFromString(timezone).build();
+    return formatter::format;
+  }
+}
@@ -8,27 +8,35 @@ import org.embulk.output.bigquery_java.exception.BigqueryTypeCastException;
 public class BigqueryLongConverter {
   public static void convertAndSet(
       ObjectNode node, String name, long src, BigqueryColumnOptionType bigqueryColumnOptionType) {
+    convertAndSet(new ObjectNodeFieldWriter(node), name, src, bigqueryColumnOptionType);
+  }
+
+  public static void convertAndSet(
+      BigqueryFieldWriter writer,
+      String name,
+      long src,
+      BigqueryColumnOptionType bigqueryColumnOptionType) {
     switch (bigqueryColumnOptionType) {
       case BOOLEAN:
         if (src == 0) {
-          node.put(name, false);
+          writer.put(name, false);
         } else if (src == 1) {
-          node.put(name, true);
+          writer.put(name, true);
         } else {
           throw new BigqueryTypeCastException("cannot convert");
         }
         break;
       case INTEGER:
-        node.put(name, src);
+        writer.put(name, src);
         break;
       case FLOAT:
-        node.put(name, Double.valueOf(src));
+        writer.put(name, (double) src);
         break;
       case TIMESTAMP:
-        node.put(name, src);
+        writer.put(name, src);
         break;
       case STRING:
-        node.put(name, String.valueOf(src));
+        writer.put(name, String.valueOf(src));
         break;
       default:
         throw new BigqueryNotSupportedTypeException("Invalid data convert for double");
@@ -9,26 +9,52 @@ import org.embulk.output.bigquery_java.exception.BigqueryTypeCastException;
 import org.embulk.util.timestamp.TimestampFormatter;
 
 public class BigqueryStringConverter {
-  @SuppressWarnings("deprecation") // The use of org.embulk.spi.time.Timestamp
   public static void convertAndSet(
       ObjectNode node,
       String name,
       String src,
       BigqueryColumnOptionType bigqueryColumnOptionType,
       BigqueryColumnOption columnOption) {
-    TimestampFormatter timestampFormat;
-    String pattern;
-    String timezone;
-    TimestampFormatter parser;
+    convertAndSet(
+        new ObjectNodeFieldWriter(node), name, src, bigqueryColumnOptionType, columnOption);
+  }
+
+  public static void convertAndSet(
+      BigqueryFieldWriter writer,
+      String name,
+      String src,
+      BigqueryColumnOptionType bigqueryColumnOptionType,
+      BigqueryColumnOption columnOption) {
+    convertAndSet(
+        writer,
+        name,
+        src,
+        bigqueryColumnOptionType,
+        columnOption,
+        createParser(bigqueryColumnOptionType, columnOption),
+        createFormatter(bigqueryColumnOptionType, columnOption));
+  }
+
+  // parser and formatter must be created by createParser and createFormatter with the same
+  // bigqueryColumnOptionType and columnOption
+  @SuppressWarnings("deprecation") // The use of org.embulk.spi.time.Timestamp
+  public static void convertAndSet(
+      BigqueryFieldWriter writer,
+      String name,
+      String src,
+      BigqueryColumnOptionType bigqueryColumnOptionType,
+      BigqueryColumnOption columnOption,
+      TimestampFormatter parser,
+      BigqueryInstantFormatter formatter) {
     org.embulk.spi.time.Timestamp ts;
     switch (bigqueryColumnOptionType) {
       case BOOLEAN:
         if (src == null) {
-          node.putNull(name);
+          writer.putNull(name);
         } else if (src.toLowerCase().equals("true")) {
-          node.put(name, true);
+          writer.put(name, true);
         } else if (src.toLowerCase().equals("false")) {
-          node.put(name, false);
+          writer.put(name, false);
         } else {
           throw new BigqueryTypeCastException(
               String.format("%s cannot be converted to BOOLEAN", src));
@@ -42,7 +68,7 @@ public class BigqueryStringConverter {
           throw new BigqueryTypeCastException(
               String.format("%s cannot be converted to INTEGER", src));
         }
-        node.put(name, intVal);
+        writer.put(name, intVal);
         break;
       case FLOAT:
         float floatVal;
@@ -52,85 +78,105 @@ public class BigqueryStringConverter {
           throw new BigqueryTypeCastException(
               String.format("%s cannot be converted to FLOAT", src));
         }
-        node.put(name, floatVal);
+        writer.put(name, floatVal);
         break;
       case STRING:
-        node.put(name, src);
+        writer.put(name, src);
         break;
       case TIMESTAMP:
         if (columnOption.getTimestampFormat().isPresent()) {
-          pattern = columnOption.getTimestampFormat().get();
-          timezone = columnOption.getTimezone();
-          parser =
-              TimestampFormatter.builder(pattern, true).setDefaultZoneFromString(timezone).build();
           ts = org.embulk.spi.time.Timestamp.ofInstant(parser.parse(src));
-          timestampFormat =
-              TimestampFormatter.builder("%Y-%m-%d %H:%M:%S.%6N %:z", true)
-                  .setDefaultZoneFromString(timezone)
-                  .build();
-          node.put(name, timestampFormat.format(ts.getInstant()));
+          writer.putTimestamp(name, ts.getInstant(), formatter);
         } else {
           // Users must care of BQ timestamp format by themselves with no timestamp_format
           if (src == null) {
-            node.putNull(name);
+            writer.putNull(name);
           } else {
-            node.put(name, src);
+            writer.put(name, src);
           }
         }
         break;
       case DATETIME:
         if (columnOption.getTimestampFormat().isPresent()) {
-          pattern = columnOption.getTimestampFormat().get();
-          timezone = columnOption.getTimezone();
-          parser =
-              TimestampFormatter.builder(pattern, true).setDefaultZoneFromString(timezone).build();
           ts = org.embulk.spi.time.Timestamp.ofInstant(parser.parse(src));
-          timestampFormat =
-              TimestampFormatter.builder("%Y-%m-%d %H:%M:%S.%6N", true)
-                  .setDefaultZoneFromString(timezone)
-                  .build();
-          node.put(name, timestampFormat.format(ts.getInstant()));
+          writer.putTimestamp(name, ts.getInstant(), formatter);
         } else {
           // Users must care of BQ datetime format by themselves with no timestamp_format
           if (src == null) {
-            node.putNull(name);
+            writer.putNull(name);
           } else {
-            node.put(name, src);
+            writer.put(name, src);
           }
         }
         break;
       case DATE:
         if (columnOption.getTimestampFormat().isPresent()) {
-          pattern = columnOption.getTimestampFormat().get();
-          timezone = columnOption.getTimezone();
-          parser =
-              TimestampFormatter.builder(pattern, true).setDefaultZoneFromString(timezone).build();
           try {
             ts = org.embulk.spi.time.Timestamp.ofInstant(parser.parse(src));
           } catch (org.embulk.util.rubytime.RubyDateTimeParseException e) {
             throw new BigqueryTypeCastException(e.getMessage());
           }
-          timestampFormat =
-              TimestampFormatter.builder("%Y-%m-%d", true)
-                  .setDefaultZoneFromString(timezone)
-                  .build();
-          node.put(name, timestampFormat.format(ts.getInstant()));
+          writer.putTimestamp(name, ts.getInstant(), formatter);
         } else {
           // Users must care of BQ date format by themselves with no timestamp_format
           if (src == null) {
-            node.putNull(name);
+            writer.putNull(name);
           } else {
-            node.put(name, src);
+            writer.put(name, src);
           }
         }
         break;
       case NUMERIC:
         // Default value: 9, BigQuery NUMERIC type has a maximum scale of 9
         int scale = columnOption != null ? columnOption.getScale() : 9;
-        node.put(name, new BigDecimal(src).setScale(scale, BigDecimal.ROUND_CEILING));
+        writer.put(name, new BigDecimal(src).setScale(scale, BigDecimal.ROUND_CEILING));
         break;
       default:
         throw new BigqueryNotSupportedTypeException("Invalid data convert for String");
     }
   }
+
+  // Returns null unless src is parsed with timestamp_format
+  public static TimestampFormatter createParser(
+      BigqueryColumnOptionType bigqueryColumnOptionType, BigqueryColumnOption columnOption) {
+    if (!isTimestampFormatted(bigqueryColumnOptionType, columnOption)) {
+      return null;
+    }
+    return TimestampFormatter.builder(columnOption.getTimestampFormat().get(), true)
+        .setDefaultZoneFromString(columnOption.getTimezone())
+        .build();
+  }
+
+  // Returns null unless src is parsed with timestamp_format
+  public static BigqueryInstantFormatter createFormatter(
+      BigqueryColumnOptionType bigqueryColumnOptionType, BigqueryColumnOption columnOption) {
+    if (!isTimestampFormatted(bigqueryColumnOptionType, columnOption)) {
+      return null;
+    }
+    String pattern;
+    switch (bigqueryColumnOptionType) {
+      case TIMESTAMP:
+        pattern = BigqueryInstantFormatter.TIMESTAMP_FORMAT;
+        break;
+      case DATETIME:
+        pattern = BigqueryInstantFormatter.DATETIME_FORMAT;
+        break;
+      default:
+        pattern = BigqueryInstantFormatter.DATE_FORMAT;
+        break;
+    }
+    return BigqueryInstantFormatter.of(pattern, columnOption.getTimezone());
+  }
+
+  private static boolean isTimestampFormatted(
+      BigqueryColumnOptionType bigqueryColumnOptionType, BigqueryColumnOption columnOption) {
+    switch (bigqueryColumnOptionType) {
+      case TIMESTAMP:
+      case DATETIME:
+      case DATE:
+        return columnOption != null && columnOption.getTimestampFormat().isPresent();
+      default:
+        return false;
+    }
+  }
 }
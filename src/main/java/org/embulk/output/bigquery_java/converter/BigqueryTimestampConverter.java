@@ -5,7 +5,6 @@ import org.embulk.output.bigquery_java.config.BigqueryColumnOption;
 import org.embulk.output.bigquery_java.config.BigqueryColumnOptionType;
 import org.embulk.output.bigquery_java.config.PluginTask;
 import org.embulk.output.bigquery_java.exception.BigqueryNotSupportedTypeException;
-import org.embulk.util.timestamp.TimestampFormatter;
 
 public class BigqueryTimestampConverter {
   @SuppressWarnings("deprecation") // The use of org.embulk.spi.time.Timestamp
@@ -16,59 +15,78 @@ public class BigqueryTimestampConverter {
       BigqueryColumnOptionType bigqueryColumnOptionType,
       BigqueryColumnOption columnOption,
       PluginTask task) {
-    TimestampFormatter timestampFormat;
-    String timezone;
+    convertAndSet(
+        new ObjectNodeFieldWriter(node), name, src, bigqueryColumnOptionType, columnOption, task);
+  }
+
+  @SuppressWarnings("deprecation") // The use of org.embulk.spi.time.Timestamp
+  public static void convertAndSet(
+      BigqueryFieldWriter writer,
+      String name,
+      org.embulk.spi.time.Timestamp src,
+      BigqueryColumnOptionType bigqueryColumnOptionType,
+      BigqueryColumnOption columnOption,
+      PluginTask task) {
+    convertAndSet(
+        writer,
+        name,
+        src,
+        bigqueryColumnOptionType,
+        createFormatter(bigqueryColumnOptionType, columnOption, task));
+  }
+
+  // formatter must be created by createFormatter with the same bigqueryColumnOptionType
+  @SuppressWarnings("deprecation") // The use of org.embulk.spi.time.Timestamp
+  public static void convertAndSet(
+      BigqueryFieldWriter writer,
+      String name,
+      org.embulk.spi.time.Timestamp src,
+      BigqueryColumnOptionType bigqueryColumnOptionType,
+      BigqueryInstantFormatter formatter) {
     switch (bigqueryColumnOptionType) {
       case INTEGER:
-        node.put(name, src.toEpochMilli());
+        writer.put(name, src.toEpochMilli());
         break;
       case FLOAT:
-        node.put(name, Double.valueOf(src.toEpochMilli()));
+        writer.put(name, (double) src.toEpochMilli());
         break;
       case STRING:
-        String format = columnOption.getTimestampFormat().orElse(task.getDefaultTimestampFormat());
-        timezone = columnOption.getTimezone();
-        timestampFormat =
-            TimestampFormatter.builder(format, true).setDefaultZoneFromString(timezone).build();
-        node.put(name, timestampFormat.format(src.getInstant()));
+        writer.put(name, formatter.format(src.getInstant()));
         break;
       case TIMESTAMP:
-        if (src == null) {
-          node.putNull(name);
-        } else {
-          timestampFormat =
-              TimestampFormatter.builder("%Y-%m-%d %H:%M:%S.%6N %:z", true)
-                  .setDefaultZoneFromString("UTC")
-                  .build();
-          node.put(name, timestampFormat.format(src.getInstant()));
-        }
-        break;
       case DATETIME:
-        if (src == null) {
-          node.putNull(name);
-        } else {
-          timezone = columnOption.getTimezone();
-          timestampFormat =
-              TimestampFormatter.builder("%Y-%m-%d %H:%M:%S.%6N", true)
-                  .setDefaultZoneFromString(timezone)
-                  .build();
-          node.put(name, timestampFormat.format(src.getInstant()));
-        }
-        break;
       case DATE:
         if (src == null) {
-          node.putNull(name);
+          writer.putNull(name);
         } else {
-          timezone = columnOption.getTimezone();
-          timestampFormat =
-              TimestampFormatter.builder("%Y-%m-%d", true)
-                  .setDefaultZoneFromString(timezone)
-                  .build();
-          node.put(name, timestampFormat.format(src.getInstant()));
+          writer.putTimestamp(name, src.getInstant(), formatter);
         }
         break;
       default:
         throw new BigqueryNotSupportedTypeException("Invalid data convert for timestamp");
     }
   }
+
+  // Returns null for types which do not need a formatter
+  public static BigqueryInstantFormatter createFormatter(
+      BigqueryColumnOptionType bigqueryColumnOptionType,
+      BigqueryColumnOption columnOption,
+      PluginTask task) {
+    switch (bigqueryColumnOptionType) {
+      case STRING:
+        return BigqueryInstantFormatter.of(
+            columnOption.getTimestampFormat().orElse(task.getDefaultTimestampFormat()),
+            columnOption.getTimezone());
+      case TIMESTAMP:
+        return BigqueryInstantFormatter.of(BigqueryInstantFormatter.TIMESTAMP_FORMAT, "UTC");
+      case DATETIME:
+        return BigqueryInstantFormatter.of(
+            BigqueryInstantFormatter.DATETIME_FORMAT, columnOption.getTimezone());
+      case DATE:
+        return BigqueryInstantFormatter.of(
+            BigqueryInstantFormatter.DATE_FORMAT, columnOption.getTimezone());
+      default:
+        return null;
+    }
+  }
 }
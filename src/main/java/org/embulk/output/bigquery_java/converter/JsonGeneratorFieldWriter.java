@@ -0,0 +1,88 @@
+package org.embulk.output.bigquery_java.converter;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+
+public class JsonGeneratorFieldWriter implements BigqueryFieldWriter {
+  private final JsonGenerator generator;
+
+  public JsonGeneratorFieldWriter(JsonGenerator generator) {
+    this.generator = generator;
+  }
+
+  @Override
+  public void putNull(String name) {
+    try {
+      generator.writeNullField(name);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  @Override
+  public void put(String name, boolean value) {
+    try {
+      generator.writeBooleanField(name, value);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  @Override
+  public void put(String name, int value) {
+    try {
+      generator.writeNumberField(name, value);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  @Override
+  public void put(String name, long value) {
+    try {
+      generator.writeNumberField(name, value);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  @Override
+  public void put(String name, float value) {
+    try {
+      generator.writeNumberField(name, value);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  @Override
+  public void put(String name, double value) {
+    try {
+      generator.writeNumberField(name, value);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  @Override
+  public void put(String name, String value) {
+    try {
+      generator.writeStringField(name, value);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  @Override
+  public void put(String name, BigDecimal value) {
+    try {
+      // same as ObjectNode#put(String, BigDecimal), which strips trailing zeros
+      generator.writeNumberField(
+          name, value.signum() == 0 ? BigDecimal.ZERO : value.stripTrailingZeros());
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+}
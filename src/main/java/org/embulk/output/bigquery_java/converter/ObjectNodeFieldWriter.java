@@ -0,0 +1,52 @@
+package org.embulk.output.bigquery_java.converter;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.math.BigDecimal;
+
+public class ObjectNodeFieldWriter implements BigqueryFieldWriter {
+  private final ObjectNode node;
+
+  public ObjectNodeFieldWriter(ObjectNode node) {
+    this.node = node;
+  }
+
+  @Override
+  public void putNull(String name) {
+    node.putNull(name);
+  }
+
+  @Override
+  public void put(String name, boolean value) {
+    node.put(name, value);
+  }
+
+  @Override
+  public void put(String name, int value) {
+    node.put(name, value);
+  }
+
+  @Override
+  public void put(String name, long value) {
+    node.put(name, value);
+  }
+
+  @Override
+  public void put(String name, float value) {
+    node.put(name, value);
+  }
+
+  @Override
+  public void put(String name, double value) {
+    node.put(name, value);
+  }
+
+  @Override
+  public void put(String name, String value) {
+    node.put(name, value);
+  }
+
+  @Override
+  public void put(String name, BigDecimal value) {
+    node.put(name, value);
+  }
+}
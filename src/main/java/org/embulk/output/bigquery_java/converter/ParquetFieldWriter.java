@@ -0,0 +1,71 @@
+package org.embulk.output.bigquery_java.converter;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import org.apache.parquet.io.api.Binary;
+
+// Collects converted values of a record into a row of the schema given by ParquetSchemaBuilder.
+// Values are Boolean, Integer, Long, Double or Binary, and null for a null field.
+public class ParquetFieldWriter extends TypedFieldWriter {
+  private final Object[] row;
+
+  public ParquetFieldWriter(BigqueryColumnConverter[] converters) {
+    super(converters);
+    this.row = new Object[converters.length];
+  }
+
+  public Object[] getRow() {
+    return row;
+  }
+
+  @Override
+  public void reset() {
+    super.reset();
+    Arrays.fill(row, null);
+  }
+
+  @Override
+  protected void writeNull(int index) {
+    row[index] = null;
+  }
+
+  @Override
+  protected void writeBoolean(int index, boolean value) {
+    row[index] = value;
+  }
+
+  @Override
+  protected void writeLong(int index, long value) {
+    row[index] = value;
+  }
+
+  @Override
+  protected void writeDouble(int index, double value) {
+    row[index] = value;
+  }
+
+  @Override
+  protected void writeString(int index, String value) {
+    row[index] = Binary.fromString(value);
+  }
+
+  @Override
+  protected void writeTimestamp(int index, long micros) {
+    row[index] = micros;
+  }
+
+  @Override
+  protected void writeDatetime(int index, String value) {
+    row[index] = toLocalMicros(value);
+  }
+
+  @Override
+  protected void writeDate(int index, int epochDay) {
+    row[index] = epochDay;
+  }
+
+  @Override
+  protected void writeNumeric(int index, BigDecimal value) {
+    row[index] = Binary.fromConstantByteArray(value.unscaledValue().toByteArray());
+  }
+}
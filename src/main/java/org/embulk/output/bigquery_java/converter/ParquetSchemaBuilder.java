@@ -0,0 +1,66 @@
+package org.embulk.output.bigquery_java.converter;
+
+import org.apache.parquet.schema.LogicalTypeAnnotation;
+import org.apache.parquet.schema.MessageType;
+import org.apache.parquet.schema.PrimitiveType.PrimitiveTypeName;
+import org.apache.parquet.schema.Type;
+import org.apache.parquet.schema.Types;
+import org.embulk.config.ConfigException;
+
+// Builds the Parquet schema of intermediate files from the same column types and modes as
+// BigqueryClient#buildSchema. BigQuery reads each logical type as the column type.
+public class ParquetSchemaBuilder {
+  private static final String MESSAGE_NAME = "embulk_output_bigquery_java";
+  // BigQuery NUMERIC has 29 digits before the decimal point
+  private static final int NUMERIC_INTEGER_DIGITS = 29;
+
+  public static MessageType build(BigqueryColumnConverter[] converters) {
+    Types.MessageTypeBuilder builder = Types.buildMessage();
+    for (BigqueryColumnConverter converter : converters) {
+      Type.Repetition repetition =
+          TypedFieldWriter.isNullable(converter)
+              ? Type.Repetition.OPTIONAL
+              : Type.Repetition.REQUIRED;
+      builder.addField(fieldType(converter, repetition));
+    }
+    return builder.named(MESSAGE_NAME);
+  }
+
+  private static Type fieldType(BigqueryColumnConverter converter, Type.Repetition repetition) {
+    switch (converter.getType()) {
+      case BOOLEAN:
+        return Types.primitive(PrimitiveTypeName.BOOLEAN, repetition).named(converter.getName());
+      case INTEGER:
+        return Types.primitive(PrimitiveTypeName.INT64, repetition).named(converter.getName());
+      case FLOAT:
+        return Types.primitive(PrimitiveTypeName.DOUBLE, repetition).named(converter.getName());
+      case STRING:
+        return Types.primitive(PrimitiveTypeName.BINARY, repetition)
+            .as(LogicalTypeAnnotation.stringType())
+            .named(converter.getName());
+      case TIMESTAMP:
+        return Types.primitive(PrimitiveTypeName.INT64, repetition)
+            .as(LogicalTypeAnnotation.timestampType(true, LogicalTypeAnnotation.TimeUnit.MICROS))
+            .named(converter.getName());
+      case DATETIME:
+        // a timestamp not adjusted to UTC is read as DATETIME
+        return Types.primitive(PrimitiveTypeName.INT64, repetition)
+            .as(LogicalTypeAnnotation.timestampType(false, LogicalTypeAnnotation.TimeUnit.MICROS))
+            .named(converter.getName());
+      case DATE:
+        return Types.primitive(PrimitiveTypeName.INT32, repetition)
+            .as(LogicalTypeAnnotation.dateType())
+            .named(converter.getName());
+      case NUMERIC:
+        int scale = converter.getColumnOption().getScale();
+        return Types.primitive(PrimitiveTypeName.BINARY, repetition)
+            .as(LogicalTypeAnnotation.decimalType(scale, NUMERIC_INTEGER_DIGITS + scale))
+            .named(converter.getName());
+      default:
+        throw new ConfigException(
+            String.format(
+                "column_options: type %s of %s is not supported with source_format PARQUET",
+                converter.getType(), converter.getName()));
+    }
+  }
+}
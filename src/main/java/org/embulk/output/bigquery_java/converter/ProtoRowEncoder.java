@@ -0,0 +1,249 @@
+package org.embulk.output.bigquery_java.converter;
+
+import com.google.protobuf.ByteString;
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.DescriptorProtos.DescriptorProto;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import org.embulk.output.bigquery_java.exception.BigqueryTypeCastException;
+import org.embulk.spi.Column;
+import org.embulk.spi.PageReader;
+import org.embulk.spi.Schema;
+import org.embulk.spi.type.BooleanType;
+import org.embulk.spi.type.DoubleType;
+import org.embulk.spi.type.JsonType;
+import org.embulk.spi.type.LongType;
+import org.embulk.spi.type.StringType;
+import org.embulk.spi.type.TimestampType;
+
+// Encodes the current record of a PageReader into a serialized row of the descriptor given by
+// ProtoSchemaBuilder, without building a message. A column of which type is the default of its
+// embulk type is written from the value of the reader as it is, and any other column goes through
+// its converter into this writer. Rows are encoded into one buffer, which grows when a row does not
+// fit in it, so that a row allocates only its ByteString.
+public class ProtoRowEncoder extends TypedFieldWriter {
+  private static final int INITIAL_BUFFER_SIZE = 4096;
+  // BigQuery NUMERIC is packed as the unscaled value of scale 9, and has 29 digits before the
+  // decimal point
+  private static final int NUMERIC_SCALE = 9;
+  private static final BigInteger NUMERIC_BOUND = BigInteger.TEN.pow(29 + NUMERIC_SCALE);
+
+  // how a column is written
+  private enum Kind {
+    BOOLEAN,
+    LONG,
+    DOUBLE,
+    STRING,
+    TIMESTAMP,
+    JSON,
+    CONVERTED
+  }
+
+  private final Column[] columns;
+  private final BigqueryColumnConverter[] converters;
+  private final Kind[] kinds;
+  private final DescriptorProto descriptor;
+  private byte[] buffer = new byte[INITIAL_BUFFER_SIZE];
+  private CodedOutputStream out;
+
+  public ProtoRowEncoder(Schema schema, BigqueryColumnConverter[] converters) {
+    super(converters);
+    this.columns = schema.getColumns().toArray(new Column[0]);
+    this.converters = converters;
+    this.kinds = new Kind[columns.length];
+    for (int i = 0; i < columns.length; i++) {
+      kinds[i] = kind(columns[i], converters[i]);
+    }
+    this.descriptor = ProtoSchemaBuilder.build(converters);
+    // fails on names which cannot be fields
+    ProtoSchemaBuilder.toDescriptor(descriptor);
+  }
+
+  public DescriptorProto getDescriptor() {
+    return descriptor;
+  }
+
+  public ByteString encode(PageReader reader) {
+    while (true) {
+      out = CodedOutputStream.newInstance(buffer);
+      try {
+        encodeRecord(reader);
+        return ByteString.copyFrom(buffer, 0, out.getTotalBytesWritten());
+      } catch (UncheckedIOException e) {
+        if (!(e.getCause() instanceof CodedOutputStream.OutOfSpaceException)) {
+          throw e;
+        }
+        buffer = new byte[buffer.length * 2];
+      }
+    }
+  }
+
+  @SuppressWarnings("deprecation") // The use of PageReader.getTimestamp and getJson
+  private void encodeRecord(PageReader reader) {
+    reset();
+    for (int i = 0; i < columns.length; i++) {
+      Column column = columns[i];
+      BigqueryColumnConverter converter = converters[i];
+      seek(i);
+      if (reader.isNull(column)) {
+        putNull(converter.getName());
+        continue;
+      }
+      switch (kinds[i]) {
+        case BOOLEAN:
+          writeBoolean(i, reader.getBoolean(column));
+          break;
+        case LONG:
+          writeLong(i, reader.getLong(column));
+          break;
+        case DOUBLE:
+          writeDouble(i, reader.getDouble(column));
+          break;
+        case STRING:
+          writeString(i, reader.getString(column));
+          break;
+        case TIMESTAMP:
+          writeTimestamp(i, toMicros(reader.getTimestamp(column)));
+          break;
+        case JSON:
+          writeString(i, reader.getJson(column).toJson());
+          break;
+        default:
+          convert(reader, column, converter);
+          break;
+      }
+    }
+  }
+
+  @SuppressWarnings("deprecation") // The use of PageReader.getTimestamp
+  private void convert(PageReader reader, Column column, BigqueryColumnConverter converter) {
+    if (column.getType() instanceof BooleanType) {
+      converter.convertAndSet(this, reader.getBoolean(column));
+    } else if (column.getType() instanceof LongType) {
+      converter.convertAndSet(this, reader.getLong(column));
+    } else if (column.getType() instanceof DoubleType) {
+      converter.convertAndSet(this, reader.getDouble(column));
+    } else if (column.getType() instanceof TimestampType) {
+      converter.convertAndSet(this, reader.getTimestamp(column));
+    } else {
+      converter.convertAndSet(this, reader.getString(column));
+    }
+  }
+
+  @Override
+  protected void writeNull(int index) {}
+
+  @Override
+  protected void writeBoolean(int index, boolean value) {
+    try {
+      out.writeBool(index + 1, value);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  @Override
+  protected void writeLong(int index, long value) {
+    try {
+      out.writeInt64(index + 1, value);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  @Override
+  protected void writeDouble(int index, double value) {
+    try {
+      out.writeDouble(index + 1, value);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  @Override
+  protected void writeString(int index, String value) {
+    try {
+      out.writeString(index + 1, value);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  @Override
+  protected void writeTimestamp(int index, long micros) {
+    writeLong(index, micros);
+  }
+
+  @Override
+  protected void writeDatetime(int index, String value) {
+    writeString(index, value);
+  }
+
+  @Override
+  protected void writeDate(int index, int epochDay) {
+    try {
+      out.writeInt32(index + 1, epochDay);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  @Override
+  protected void writeNumeric(int index, BigDecimal value) {
+    try {
+      out.writeByteArray(index + 1, packNumeric(value));
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  // The little endian two's complement of the unscaled value, same as BIGNUMERIC of scale 38
+  static byte[] packNumeric(BigDecimal value) {
+    BigInteger unscaled;
+    try {
+      unscaled = value.setScale(NUMERIC_SCALE).unscaledValue();
+    } catch (ArithmeticException e) {
+      throw new BigqueryTypeCastException(
+          String.format("%s cannot be converted to NUMERIC", value.toPlainString()));
+    }
+    if (unscaled.abs().compareTo(NUMERIC_BOUND) >= 0) {
+      throw new BigqueryTypeCastException(
+          String.format("%s overflows NUMERIC", value.toPlainString()));
+    }
+    byte[] bytes = unscaled.toByteArray();
+    for (int i = 0, j = bytes.length - 1; i < j; i++, j--) {
+      byte b = bytes[i];
+      bytes[i] = bytes[j];
+      bytes[j] = b;
+    }
+    return bytes;
+  }
+
+  @SuppressWarnings("deprecation") // The use of org.embulk.spi.time.Timestamp
+  private static long toMicros(org.embulk.spi.time.Timestamp timestamp) {
+    return Math.addExact(
+        Math.multiplyExact(timestamp.getEpochSecond(), 1000000L), timestamp.getNano() / 1000);
+  }
+
+  private static Kind kind(Column column, BigqueryColumnConverter converter) {
+    if (column.getType() instanceof JsonType) {
+      return Kind.JSON;
+    }
+    switch (converter.getType()) {
+      case BOOLEAN:
+        return column.getType() instanceof BooleanType ? Kind.BOOLEAN : Kind.CONVERTED;
+      case INTEGER:
+        return column.getType() instanceof LongType ? Kind.LONG : Kind.CONVERTED;
+      case FLOAT:
+        return column.getType() instanceof DoubleType ? Kind.DOUBLE : Kind.CONVERTED;
+      case STRING:
+        return column.getType() instanceof StringType ? Kind.STRING : Kind.CONVERTED;
+      case TIMESTAMP:
+        return column.getType() instanceof TimestampType ? Kind.TIMESTAMP : Kind.CONVERTED;
+      default:
+        return Kind.CONVERTED;
+    }
+  }
+}
@@ -0,0 +1,79 @@
+package org.embulk.output.bigquery_java.converter;
+
+import com.google.protobuf.DescriptorProtos.DescriptorProto;
+import com.google.protobuf.DescriptorProtos.FieldDescriptorProto;
+import com.google.protobuf.DescriptorProtos.FileDescriptorProto;
+import com.google.protobuf.Descriptors;
+import org.embulk.config.ConfigException;
+
+// Builds the protobuf descriptor of rows of the Storage Write API from the same column types and
+// modes as BigqueryClient#buildSchema. Field numbers are the indexes of columns plus one.
+public class ProtoSchemaBuilder {
+  private static final String MESSAGE_NAME = "embulk_output_bigquery_java";
+
+  public static DescriptorProto build(BigqueryColumnConverter[] converters) {
+    DescriptorProto.Builder builder = DescriptorProto.newBuilder().setName(MESSAGE_NAME);
+    for (int i = 0; i < converters.length; i++) {
+      BigqueryColumnConverter converter = converters[i];
+      builder.addField(
+          FieldDescriptorProto.newBuilder()
+              .setName(converter.getName())
+              .setNumber(i + 1)
+              .setType(fieldType(converter))
+              .setLabel(
+                  TypedFieldWriter.isNullable(converter)
+                      ? FieldDescriptorProto.Label.LABEL_OPTIONAL
+                      : FieldDescriptorProto.Label.LABEL_REQUIRED));
+    }
+    return builder.build();
+  }
+
+  public static Descriptors.Descriptor toDescriptor(DescriptorProto descriptorProto) {
+    try {
+      return Descriptors.FileDescriptor.buildFrom(
+              FileDescriptorProto.newBuilder().addMessageType(descriptorProto).build(),
+              new Descriptors.FileDescriptor[0])
+          .findMessageTypeByName(descriptorProto.getName());
+    } catch (Descriptors.DescriptorValidationException e) {
+      throw new ConfigException(
+          String.format(
+              "columns cannot be used with method storage_write_api: %s", e.getMessage()));
+    }
+  }
+
+  // Types which the Storage Write API converts into the column type
+  private static FieldDescriptorProto.Type fieldType(BigqueryColumnConverter converter) {
+    switch (converter.getType()) {
+      case BOOLEAN:
+        return FieldDescriptorProto.Type.TYPE_BOOL;
+      case INTEGER:
+        return FieldDescriptorProto.Type.TYPE_INT64;
+      case FLOAT:
+        return FieldDescriptorProto.Type.TYPE_DOUBLE;
+      case STRING:
+        return FieldDescriptorProto.Type.TYPE_STRING;
+      case TIMESTAMP:
+        // microseconds since epoch
+        return FieldDescriptorProto.Type.TYPE_INT64;
+      case DATETIME:
+        return FieldDescriptorProto.Type.TYPE_STRING;
+      case DATE:
+        // days since epoch
+        return FieldDescriptorProto.Type.TYPE_INT32;
+      case NUMERIC:
+        // the packed NUMERIC of the Storage Write API, which has a scale of 9
+        if (converter.getColumnOption().getScale() > 9) {
+          throw new ConfigException(
+              String.format(
+                  "column_options: scale of %s must be 9 or less with method storage_write_api",
+                  converter.getName()));
+        }
+        return FieldDescriptorProto.Type.TYPE_BYTES;
+      default:
+        throw new ConfigException(
+            String.format(
+                "column_options: type %s of %s is not supported with method storage_write_api",
+                converter.getType(), converter.getName()));
+    }
+  }
+}
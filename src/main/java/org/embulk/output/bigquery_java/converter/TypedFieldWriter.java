@@ -0,0 +1,268 @@
+package org.embulk.output.bigquery_java.converter;
+
+import java.math.BigDecimal;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeFormatterBuilder;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoField;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.embulk.output.bigquery_java.config.BigqueryColumnOptionType;
+import org.embulk.output.bigquery_java.exception.BigqueryTypeCastException;
+
+// Base of writers for typed file formats such as Avro and Parquet. Fields are the columns in the
+// order of the schema, and each field has the BigQuery type which values are converted into, so
+// that TIMESTAMP, DATE and NUMERIC values are written in binary instead of formatted strings.
+public abstract class TypedFieldWriter implements BigqueryFieldWriter {
+  // BigQuery canonical format, and the format which users give without timestamp_format
+  private static final DateTimeFormatter DATETIME_FORMATTER =
+      new DateTimeFormatterBuilder()
+          .append(DateTimeFormatter.ISO_LOCAL_DATE)
+          .optionalStart()
+          .appendLiteral(' ')
+          .optionalEnd()
+          .optionalStart()
+          .appendLiteral('T')
+          .optionalEnd()
+          .append(DateTimeFormatter.ISO_LOCAL_TIME)
+          .toFormatter();
+
+  // BigQuery timestamp format, of which time and time zone are optional. The time zone is UTC
+  // unless given, such as "Z", "+09:00" or "Asia/Tokyo"
+  private static final Pattern TIMESTAMP_PATTERN =
+      Pattern.compile("(\\d{4}-\\d{1,2}-\\d{1,2})(?:[ T]([0-9:.]+))?\\s*(.*)");
+  private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-M-d");
+  private static final DateTimeFormatter TIME_FORMATTER =
+      new DateTimeFormatterBuilder()
+          .appendPattern("H:m")
+          .optionalStart()
+          .appendPattern(":s")
+          .optionalStart()
+          .appendFraction(ChronoField.NANO_OF_SECOND, 0, 9, true)
+          .toFormatter();
+
+  private final BigqueryColumnOptionType[] types;
+  private final boolean[] nullables;
+  private int index = 0;
+
+  protected TypedFieldWriter(BigqueryColumnConverter[] converters) {
+    this.types = new BigqueryColumnOptionType[converters.length];
+    this.nullables = new boolean[converters.length];
+    for (int i = 0; i < converters.length; i++) {
+      types[i] = converters[i].getType();
+      nullables[i] = isNullable(converters[i]);
+    }
+  }
+
+  public static boolean isNullable(BigqueryColumnConverter converter) {
+    return !converter.getMode().equals("REQUIRED");
+  }
+
+  // Starts a new record
+  public void reset() {
+    index = 0;
+  }
+
+  // Continues the record from the field of index, for writers which write other fields by
+  // themselves
+  protected void seek(int index) {
+    this.index = index;
+  }
+
+  protected boolean isNullable(int index) {
+    return nullables[index];
+  }
+
+  protected abstract void writeNull(int index);
+
+  protected abstract void writeBoolean(int index, boolean value);
+
+  // INTEGER
+  protected abstract void writeLong(int index, long value);
+
+  // FLOAT
+  protected abstract void writeDouble(int index, double value);
+
+  // STRING
+  protected abstract void writeString(int index, String value);
+
+  // TIMESTAMP in microseconds since epoch
+  protected abstract void writeTimestamp(int index, long micros);
+
+  // DATETIME in the format of BigQuery
+  protected abstract void writeDatetime(int index, String value);
+
+  // DATE in days since epoch
+  protected abstract void writeDate(int index, int epochDay);
+
+  // NUMERIC, of which scale is the scale of the column
+  protected abstract void writeNumeric(int index, BigDecimal value);
+
+  @Override
+  public void putNull(String name) {
+    if (!nullables[index]) {
+      throw new BigqueryTypeCastException(String.format("%s is REQUIRED but null", name));
+    }
+    writeNull(index++);
+  }
+
+  @Override
+  public void put(String name, boolean value) {
+    writeBoolean(nextIndex(name, BigqueryColumnOptionType.BOOLEAN), value);
+  }
+
+  @Override
+  public void put(String name, int value) {
+    put(name, (long) value);
+  }
+
+  @Override
+  public void put(String name, long value) {
+    switch (types[index]) {
+      case TIMESTAMP:
+        // seconds since epoch, same as JSON
+        writeTimestamp(
+            nextIndex(name, BigqueryColumnOptionType.TIMESTAMP),
+            Math.multiplyExact(value, 1000000L));
+        break;
+      case FLOAT:
+        writeDouble(nextIndex(name, BigqueryColumnOptionType.FLOAT), value);
+        break;
+      default:
+        writeLong(nextIndex(name, BigqueryColumnOptionType.INTEGER), value);
+        break;
+    }
+  }
+
+  @Override
+  public void put(String name, float value) {
+    // JSON writes the shortest decimal of the float, which BigQuery reads as a double
+    put(name, Double.parseDouble(Float.toString(value)));
+  }
+
+  @Override
+  public void put(String name, double value) {
+    if (types[index] == BigqueryColumnOptionType.TIMESTAMP) {
+      // seconds since epoch, same as JSON
+      writeTimestamp(
+          nextIndex(name, BigqueryColumnOptionType.TIMESTAMP), Math.round(value * 1000000.0));
+    } else {
+      writeDouble(nextIndex(name, BigqueryColumnOptionType.FLOAT), value);
+    }
+  }
+
+  @Override
+  public void put(String name, String value) {
+    if (value == null) {
+      putNull(name);
+      return;
+    }
+    // a string without timestamp_format must be in the format of BigQuery, which is parsed as JSON
+    // and CSV files are by BigQuery
+    switch (types[index]) {
+      case TIMESTAMP:
+        writeTimestamp(nextIndex(name, BigqueryColumnOptionType.TIMESTAMP), toMicros(name, value));
+        break;
+      case DATE:
+        writeDate(nextIndex(name, BigqueryColumnOptionType.DATE), toEpochDay(name, value));
+        break;
+      case DATETIME:
+        writeDatetime(nextIndex(name, BigqueryColumnOptionType.DATETIME), value);
+        break;
+      default:
+        writeString(nextIndex(name, BigqueryColumnOptionType.STRING), value);
+        break;
+    }
+  }
+
+  @Override
+  public void put(String name, BigDecimal value) {
+    if (value == null) {
+      putNull(name);
+      return;
+    }
+    writeNumeric(nextIndex(name, BigqueryColumnOptionType.NUMERIC), value);
+  }
+
+  @Override
+  public void putTimestamp(String name, Instant value, BigqueryInstantFormatter formatter) {
+    switch (types[index]) {
+      case TIMESTAMP:
+        writeTimestamp(
+            nextIndex(name, BigqueryColumnOptionType.TIMESTAMP),
+            Math.addExact(
+                Math.multiplyExact(value.getEpochSecond(), 1000000L), value.getNano() / 1000));
+        break;
+      case DATE:
+        // the formatter gives the date in the timezone of the column
+        writeDate(
+            nextIndex(name, BigqueryColumnOptionType.DATE),
+            toEpochDay(name, formatter.format(value)));
+        break;
+      default:
+        put(name, formatter.format(value));
+        break;
+    }
+  }
+
+  // Microseconds since epoch of a DATETIME as if it were in UTC
+  protected static long toLocalMicros(String value) {
+    try {
+      LocalDateTime datetime = LocalDateTime.parse(value, DATETIME_FORMATTER);
+      return Math.addExact(
+          Math.multiplyExact(datetime.toEpochSecond(ZoneOffset.UTC), 1000000L),
+          datetime.getNano() / 1000);
+    } catch (DateTimeParseException e) {
+      throw new BigqueryTypeCastException(
+          String.format("%s cannot be converted to DATETIME", value));
+    }
+  }
+
+  // Microseconds since epoch of a TIMESTAMP in the format of BigQuery
+  protected static long toMicros(String name, String value) {
+    Matcher m = TIMESTAMP_PATTERN.matcher(value.trim());
+    try {
+      if (!m.matches()) {
+        throw new DateTimeException(value);
+      }
+      LocalDate date = LocalDate.parse(m.group(1), DATE_FORMATTER);
+      LocalTime time =
+          m.group(2) == null ? LocalTime.MIDNIGHT : LocalTime.parse(m.group(2), TIME_FORMATTER);
+      String zone = m.group(3);
+      Instant instant =
+          ZonedDateTime.of(
+                  date, time, zone.isEmpty() || zone.equals("Z") ? ZoneOffset.UTC : ZoneId.of(zone))
+              .toInstant();
+      return Math.addExact(
+          Math.multiplyExact(instant.getEpochSecond(), 1000000L), instant.getNano() / 1000);
+    } catch (DateTimeException | ArithmeticException e) {
+      throw new BigqueryTypeCastException(
+          String.format("%s of %s cannot be converted to TIMESTAMP", value, name));
+    }
+  }
+
+  private int nextIndex(String name, BigqueryColumnOptionType type) {
+    if (types[index] != type) {
+      throw new BigqueryTypeCastException(
+          String.format("%s value of %s cannot be written as %s", type, name, types[index]));
+    }
+    return index++;
+  }
+
+  private static int toEpochDay(String name, String date) {
+    try {
+      return Math.toIntExact(LocalDate.parse(date).toEpochDay());
+    } catch (DateTimeParseException e) {
+      throw new BigqueryTypeCastException(
+          String.format("%s of %s cannot be converted to DATE", date, name));
+    }
+  }
+}
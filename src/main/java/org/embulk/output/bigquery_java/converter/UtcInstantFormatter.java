@@ -0,0 +1,73 @@
+package org.embulk.output.bigquery_java.converter;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import org.embulk.util.timestamp.TimestampFormatter;
+
+// Formats the fixed BigQuery formats in UTC with java.time, instead of the strftime-like
+// TimestampFormatter. The output is the same as TimestampFormatter with the same pattern.
+// Not thread-safe because the char buffer is reused.
+class UtcInstantFormatter implements BigqueryInstantFormatter {
+  // 0001-01-01 00:00:00 UTC and 9999-12-31 23:59:59 UTC, the range of BigQuery TIMESTAMP
+  private static final long MIN_EPOCH_SECOND = -62135596800L;
+  private static final long MAX_EPOCH_SECOND = 253402300799L;
+  private static final char[] UTC_OFFSET = " +00:00".toCharArray();
+
+  private final boolean hasTime;
+  private final boolean hasOffset;
+  private final char[] buffer;
+  private final TimestampFormatter fallback;
+
+  UtcInstantFormatter(String pattern) {
+    this.hasTime = !pattern.equals(DATE_FORMAT);
+    this.hasOffset = pattern.equals(TIMESTAMP_FORMAT);
+    // yyyy-MM-dd, HH:mm:ss.SSSSSS and +00:00
+    this.buffer = new char[10 + (hasTime ? 16 : 0) + (hasOffset ? UTC_OFFSET.length : 0)];
+    this.fallback =
+        TimestampFormatter.builder(pattern, true).setDefaultZoneFromString("UTC").build();
+  }
+
+  static boolean supports(String pattern, String timezone) {
+    return "UTC".equals(timezone)
+        && (pattern.equals(TIMESTAMP_FORMAT)
+            || pattern.equals(DATETIME_FORMAT)
+            || pattern.equals(DATE_FORMAT));
+  }
+
+  @Override
+  public String format(Instant instant) {
+    long epochSecond = instant.getEpochSecond();
+    if (epochSecond < MIN_EPOCH_SECOND || epochSecond > MAX_EPOCH_SECOND) {
+      return fallback.format(instant);
+    }
+    LocalDate date = LocalDate.ofEpochDay(Math.floorDiv(epochSecond, 86400L));
+    putDigits(0, date.getYear(), 4);
+    buffer[4] = '-';
+    putDigits(5, date.getMonthValue(), 2);
+    buffer[7] = '-';
+    putDigits(8, date.getDayOfMonth(), 2);
+    if (hasTime) {
+      int secondOfDay = (int) Math.floorMod(epochSecond, 86400L);
+      buffer[10] = ' ';
+      putDigits(11, secondOfDay / 3600, 2);
+      buffer[13] = ':';
+      putDigits(14, secondOfDay / 60 % 60, 2);
+      buffer[16] = ':';
+      putDigits(17, secondOfDay % 60, 2);
+      buffer[19] = '.';
+      // %6N truncates nanoseconds to microseconds
+      putDigits(20, instant.getNano() / 1000, 6);
+    }
+    if (hasOffset) {
+      System.arraycopy(UTC_OFFSET, 0, buffer, 26, UTC_OFFSET.length);
+    }
+    return new String(buffer);
+  }
+
+  private void putDigits(int offset, int value, int width) {
+    for (int i = offset + width - 1; i >= offset; i--) {
+      buffer[i] = (char) ('0' + value % 10);
+      value /= 10;
+    }
+  }
+}
@@ -0,0 +1,7 @@
+package org.embulk.output.bigquery_java.exception;
+
+public class BigqueryUploadException extends BigqueryException {
+  public BigqueryUploadException(String message) {
+    super(message);
+  }
+}
@@ -0,0 +1,114 @@
+package org.embulk.output.bigquery_java.visitor;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import org.apache.avro.Schema;
+import org.apache.avro.io.BinaryEncoder;
+import org.apache.avro.io.EncoderFactory;
+import org.embulk.output.bigquery_java.BigqueryFileWriter;
+import org.embulk.output.bigquery_java.converter.AvroFieldWriter;
+import org.embulk.output.bigquery_java.converter.AvroSchemaBuilder;
+import org.embulk.output.bigquery_java.converter.BigqueryColumnConverter;
+import org.embulk.spi.Column;
+import org.embulk.spi.PageReader;
+
+// Encodes a record as an Avro binary datum, which BigqueryFileWriter appends to an Avro container
+// file as is.
+public class AvroColumnVisitor implements BigqueryColumnVisitor {
+  final PageReader reader;
+  private final BigqueryColumnConverter[] converters;
+  private final Schema schema;
+  private final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+  private final AvroFieldWriter writer;
+
+  public AvroColumnVisitor(PageReader reader, BigqueryColumnConverter[] converters) {
+    this.reader = reader;
+    this.converters = converters;
+    this.schema = AvroSchemaBuilder.build(converters);
+    BinaryEncoder encoder = EncoderFactory.get().directBinaryEncoder(buffer, null);
+    this.writer = new AvroFieldWriter(encoder, converters);
+  }
+
+  public Schema getSchema() {
+    return schema;
+  }
+
+  // The datum of the record
+  public byte[] getByteArray() {
+    return buffer.toByteArray();
+  }
+
+  @Override
+  public void reset() {
+    buffer.reset();
+    writer.reset();
+  }
+
+  @Override
+  public void writeTo(BigqueryFileWriter fileWriter) throws IOException {
+    fileWriter.avroWriter(schema).appendEncoded(ByteBuffer.wrap(getByteArray()));
+  }
+
+  @Override
+  public void booleanColumn(Column column) {
+    BigqueryColumnConverter converter = converters[column.getIndex()];
+    if (reader.isNull(column)) {
+      writer.putNull(converter.getName());
+    } else {
+      converter.convertAndSet(writer, reader.getBoolean(column));
+    }
+  }
+
+  @Override
+  public void longColumn(Column column) {
+    BigqueryColumnConverter converter = converters[column.getIndex()];
+    if (reader.isNull(column)) {
+      writer.putNull(converter.getName());
+    } else {
+      converter.convertAndSet(writer, reader.getLong(column));
+    }
+  }
+
+  @Override
+  public void doubleColumn(Column column) {
+    BigqueryColumnConverter converter = converters[column.getIndex()];
+    if (reader.isNull(column)) {
+      writer.putNull(converter.getName());
+    } else {
+      converter.convertAndSet(writer, reader.getDouble(column));
+    }
+  }
+
+  @Override
+  public void stringColumn(Column column) {
+    BigqueryColumnConverter converter = converters[column.getIndex()];
+    if (reader.isNull(column)) {
+      writer.putNull(converter.getName());
+    } else {
+      converter.convertAndSet(writer, reader.getString(column));
+    }
+  }
+
+  @SuppressWarnings("deprecation") // The use of PageReader.getTimestamp(column)
+  @Override
+  public void timestampColumn(Column column) {
+    BigqueryColumnConverter converter = converters[column.getIndex()];
+    if (reader.isNull(column)) {
+      writer.putNull(converter.getName());
+    } else {
+      converter.convertAndSet(writer, reader.getTimestamp(column));
+    }
+  }
+
+  @SuppressWarnings("deprecation") // The use of PageReader.getJson(column)
+  @Override
+  public void jsonColumn(Column column) {
+    BigqueryColumnConverter converter = converters[column.getIndex()];
+    if (reader.isNull(column)) {
+      writer.putNull(converter.getName());
+    } else {
+      writer.put(converter.getName(), reader.getJson(column).toJson());
+    }
+  }
+}
@@ -0,0 +1,20 @@
+package org.embulk.output.bigquery_java.visitor;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import org.embulk.output.bigquery_java.BigqueryFileWriter;
+
+// A visitor of formats whose records are lines of bytes, such as JSON and CSV, so that records of
+// a page can be buffered and written at once
+public interface BigqueryBytesColumnVisitor extends BigqueryColumnVisitor {
+  byte[] getByteArray();
+
+  default void writeTo(OutputStream out) throws IOException {
+    out.write(getByteArray());
+  }
+
+  @Override
+  default void writeTo(BigqueryFileWriter fileWriter) throws IOException {
+    writeTo(fileWriter.outputStream());
+  }
+}
@@ -1,7 +1,13 @@
 package org.embulk.output.bigquery_java.visitor;
 
+import java.io.IOException;
+import org.embulk.output.bigquery_java.BigqueryFileWriter;
 import org.embulk.spi.ColumnVisitor;
 
+// Visits the columns of a record, and writes the record into the file of a writer
 public interface BigqueryColumnVisitor extends ColumnVisitor {
-  byte[] getByteArray();
+  // Clears the current record so that one visitor can be reused for every record
+  void reset();
+
+  void writeTo(BigqueryFileWriter fileWriter) throws IOException;
 }
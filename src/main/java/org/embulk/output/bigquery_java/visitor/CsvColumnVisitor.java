@@ -0,0 +1,200 @@
+package org.embulk.output.bigquery_java.visitor;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import org.embulk.output.bigquery_java.config.BigqueryColumnOption;
+import org.embulk.output.bigquery_java.config.PluginTask;
+import org.embulk.output.bigquery_java.converter.BigqueryColumnConverter;
+import org.embulk.output.bigquery_java.converter.BigqueryFieldWriter;
+import org.embulk.spi.Column;
+import org.embulk.spi.PageReader;
+
+// Writes a record as a CSV line. Fields are written in the order of the schema, which is the same
+// order as the schema of the load job. A null is written as an empty field and an empty string is
+// quoted to keep it apart from null.
+public class CsvColumnVisitor implements BigqueryBytesColumnVisitor {
+  private static final char QUOTE = '"';
+
+  final PageReader reader;
+  private final BigqueryColumnConverter[] converters;
+  private final char delimiter;
+  private final StringBuilder line = new StringBuilder();
+  private final BigqueryFieldWriter writer = new CsvFieldWriter();
+  private boolean firstField = true;
+
+  public CsvColumnVisitor(
+      PluginTask task, PageReader reader, List<BigqueryColumnOption> columnOptions) {
+    this(
+        reader,
+        BigqueryColumnConverter.of(task, reader.getSchema(), columnOptions),
+        task.getFieldDelimiter().charAt(0));
+  }
+
+  public CsvColumnVisitor(PageReader reader, BigqueryColumnConverter[] converters, char delimiter) {
+    this.reader = reader;
+    this.converters = converters;
+    this.delimiter = delimiter;
+  }
+
+  @Override
+  public byte[] getByteArray() {
+    return (line.toString() + "\n").getBytes(StandardCharsets.UTF_8);
+  }
+
+  @Override
+  public void reset() {
+    line.setLength(0);
+    firstField = true;
+  }
+
+  @Override
+  public void booleanColumn(Column column) {
+    BigqueryColumnConverter converter = converters[column.getIndex()];
+    if (reader.isNull(column)) {
+      writer.putNull(converter.getName());
+    } else {
+      converter.convertAndSet(writer, reader.getBoolean(column));
+    }
+  }
+
+  @Override
+  public void longColumn(Column column) {
+    BigqueryColumnConverter converter = converters[column.getIndex()];
+    if (reader.isNull(column)) {
+      writer.putNull(converter.getName());
+    } else {
+      converter.convertAndSet(writer, reader.getLong(column));
+    }
+  }
+
+  @Override
+  public void doubleColumn(Column column) {
+    BigqueryColumnConverter converter = converters[column.getIndex()];
+    if (reader.isNull(column)) {
+      writer.putNull(converter.getName());
+    } else {
+      converter.convertAndSet(writer, reader.getDouble(column));
+    }
+  }
+
+  @Override
+  public void stringColumn(Column column) {
+    BigqueryColumnConverter converter = converters[column.getIndex()];
+    if (reader.isNull(column)) {
+      writer.putNull(converter.getName());
+    } else {
+      converter.convertAndSet(writer, reader.getString(column));
+    }
+  }
+
+  @SuppressWarnings("deprecation") // The use of PageReader.getTimestamp(column)
+  @Override
+  public void timestampColumn(Column column) {
+    BigqueryColumnConverter converter = converters[column.getIndex()];
+    if (reader.isNull(column)) {
+      writer.putNull(converter.getName());
+    } else {
+      converter.convertAndSet(writer, reader.getTimestamp(column));
+    }
+  }
+
+  @SuppressWarnings("deprecation") // The use of PageReader.getJson(column)
+  @Override
+  public void jsonColumn(Column column) {
+    BigqueryColumnConverter converter = converters[column.getIndex()];
+    if (reader.isNull(column)) {
+      writer.putNull(converter.getName());
+    } else {
+      writer.put(converter.getName(), reader.getJson(column).toJson());
+    }
+  }
+
+  private void startField() {
+    if (firstField) {
+      firstField = false;
+    } else {
+      line.append(delimiter);
+    }
+  }
+
+  private void appendQuoted(String value) {
+    if (!value.isEmpty() && !needsQuote(value)) {
+      line.append(value);
+      return;
+    }
+    line.append(QUOTE);
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+      if (c == QUOTE) {
+        line.append(QUOTE);
+      }
+      line.append(c);
+    }
+    line.append(QUOTE);
+  }
+
+  private boolean needsQuote(String value) {
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+      if (c == delimiter || c == QUOTE || c == '\n' || c == '\r') {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  // Field names are ignored because fields are written in the order of visiting columns
+  private class CsvFieldWriter implements BigqueryFieldWriter {
+    @Override
+    public void putNull(String name) {
+      startField();
+    }
+
+    @Override
+    public void put(String name, boolean value) {
+      startField();
+      line.append(value);
+    }
+
+    @Override
+    public void put(String name, int value) {
+      startField();
+      line.append(value);
+    }
+
+    @Override
+    public void put(String name, long value) {
+      startField();
+      line.append(value);
+    }
+
+    @Override
+    public void put(String name, float value) {
+      startField();
+      line.append(value);
+    }
+
+    @Override
+    public void put(String name, double value) {
+      startField();
+      line.append(value);
+    }
+
+    @Override
+    public void put(String name, String value) {
+      startField();
+      if (value != null) {
+        appendQuoted(value);
+      }
+    }
+
+    @Override
+    public void put(String name, BigDecimal value) {
+      startField();
+      if (value != null) {
+        line.append(value.toPlainString());
+      }
+    }
+  }
+}
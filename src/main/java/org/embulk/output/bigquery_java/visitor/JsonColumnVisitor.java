@@ -3,27 +3,31 @@ package org.embulk.output.bigquery_java.visitor;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import java.nio.charset.StandardCharsets;
 import java.util.List;
-import java.util.Optional;
 import org.embulk.output.bigquery_java.BigqueryUtil;
-import org.embulk.output.bigquery_java.BigqueryValueConverter;
 import org.embulk.output.bigquery_java.config.BigqueryColumnOption;
-import org.embulk.output.bigquery_java.config.BigqueryColumnOptionType;
 import org.embulk.output.bigquery_java.config.PluginTask;
+import org.embulk.output.bigquery_java.converter.BigqueryColumnConverter;
+import org.embulk.output.bigquery_java.converter.BigqueryFieldWriter;
+import org.embulk.output.bigquery_java.converter.ObjectNodeFieldWriter;
 import org.embulk.spi.Column;
 import org.embulk.spi.PageReader;
 
-public class JsonColumnVisitor implements BigqueryColumnVisitor {
+public class JsonColumnVisitor implements BigqueryBytesColumnVisitor {
   final PageReader reader;
   private final ObjectNode node;
-  private PluginTask task;
-  private List<BigqueryColumnOption> columnOptions;
+  private final BigqueryFieldWriter writer;
+  private final BigqueryColumnConverter[] converters;
 
   public JsonColumnVisitor(
       PluginTask task, PageReader reader, List<BigqueryColumnOption> columnOptions) {
-    this.task = task;
+    this(reader, BigqueryColumnConverter.of(task, reader.getSchema(), columnOptions));
+  }
+
+  public JsonColumnVisitor(PageReader reader, BigqueryColumnConverter[] converters) {
     this.reader = reader;
-    this.columnOptions = columnOptions;
+    this.converters = converters;
     this.node = BigqueryUtil.getObjectMapper().createObjectNode();
+    this.writer = new ObjectNodeFieldWriter(node);
   }
 
   public byte[] getByteArray() {
@@ -31,122 +35,70 @@ public class JsonColumnVisitor implements BigqueryColumnVisitor {
     return json.getBytes(StandardCharsets.UTF_8);
   }
 
+  @Override
+  public void reset() {
+    node.removeAll();
+  }
+
   @Override
   public void booleanColumn(Column column) {
+    BigqueryColumnConverter converter = converters[column.getIndex()];
     if (reader.isNull(column)) {
-      node.putNull(column.getName());
+      node.putNull(converter.getName());
     } else {
-      Optional<BigqueryColumnOption> columnOption =
-          BigqueryUtil.findColumnOption(column.getName(), this.columnOptions);
-      BigqueryColumnOptionType bigqueryColumnOptionType;
-      if (columnOption.isPresent() && columnOption.get().getType().isPresent()) {
-        bigqueryColumnOptionType =
-            BigqueryColumnOptionType.valueOf(columnOption.get().getType().get());
-      } else {
-        bigqueryColumnOptionType = BigqueryColumnOptionType.BOOLEAN;
-      }
-      BigqueryValueConverter.convertAndSet(
-          this.node, column.getName(), reader.getBoolean(column), bigqueryColumnOptionType);
+      converter.convertAndSet(writer, reader.getBoolean(column));
     }
   }
 
   @Override
   public void longColumn(Column column) {
+    BigqueryColumnConverter converter = converters[column.getIndex()];
     if (reader.isNull(column)) {
-      node.putNull(column.getName());
+      node.putNull(converter.getName());
     } else {
-      Optional<BigqueryColumnOption> columnOption =
-          BigqueryUtil.findColumnOption(column.getName(), this.columnOptions);
-      BigqueryColumnOptionType bigqueryColumnOptionType;
-      if (columnOption.isPresent() && columnOption.get().getType().isPresent()) {
-        bigqueryColumnOptionType =
-            BigqueryColumnOptionType.valueOf(columnOption.get().getType().get());
-      } else {
-        bigqueryColumnOptionType = BigqueryColumnOptionType.INTEGER;
-      }
-      BigqueryValueConverter.convertAndSet(
-          this.node, column.getName(), reader.getLong(column), bigqueryColumnOptionType);
+      converter.convertAndSet(writer, reader.getLong(column));
     }
   }
 
   @Override
   public void doubleColumn(Column column) {
+    BigqueryColumnConverter converter = converters[column.getIndex()];
     if (reader.isNull(column)) {
-      node.putNull(column.getName());
+      node.putNull(converter.getName());
     } else {
-      Optional<BigqueryColumnOption> columnOption =
-          BigqueryUtil.findColumnOption(column.getName(), this.columnOptions);
-      BigqueryColumnOptionType bigqueryColumnOptionType;
-      if (columnOption.isPresent() && columnOption.get().getType().isPresent()) {
-        bigqueryColumnOptionType =
-            BigqueryColumnOptionType.valueOf(columnOption.get().getType().get());
-      } else {
-        bigqueryColumnOptionType = BigqueryColumnOptionType.FLOAT;
-      }
-      BigqueryValueConverter.convertAndSet(
-          this.node, column.getName(), reader.getDouble(column), bigqueryColumnOptionType);
+      converter.convertAndSet(writer, reader.getDouble(column));
     }
   }
 
   @Override
   public void stringColumn(Column column) {
+    BigqueryColumnConverter converter = converters[column.getIndex()];
     if (reader.isNull(column)) {
-      node.putNull(column.getName());
+      node.putNull(converter.getName());
     } else {
-      Optional<BigqueryColumnOption> columnOption =
-          BigqueryUtil.findColumnOption(column.getName(), this.columnOptions);
-      BigqueryColumnOptionType bigqueryColumnOptionType;
-      BigqueryColumnOption bigqueryColumnOption = null;
-      if (columnOption.isPresent() && columnOption.get().getType().isPresent()) {
-        bigqueryColumnOptionType =
-            BigqueryColumnOptionType.valueOf(columnOption.get().getType().get());
-        bigqueryColumnOption = columnOption.get();
-      } else {
-        bigqueryColumnOptionType = BigqueryColumnOptionType.STRING;
-      }
-      BigqueryValueConverter.convertAndSet(
-          this.node,
-          column.getName(),
-          reader.getString(column),
-          bigqueryColumnOptionType,
-          bigqueryColumnOption);
+      converter.convertAndSet(writer, reader.getString(column));
     }
   }
 
   @SuppressWarnings("deprecation") // The use of PageReader.getTimestamp(column)
   @Override
   public void timestampColumn(Column column) {
+    BigqueryColumnConverter converter = converters[column.getIndex()];
     if (reader.isNull(column)) {
-      node.putNull(column.getName());
+      node.putNull(converter.getName());
     } else {
-      Optional<BigqueryColumnOption> columnOption =
-          BigqueryUtil.findColumnOption(column.getName(), this.columnOptions);
-      BigqueryColumnOptionType bigqueryColumnOptionType;
-      BigqueryColumnOption bigqueryColumnOption = null;
-      if (columnOption.isPresent() && columnOption.get().getType().isPresent()) {
-        bigqueryColumnOptionType =
-            BigqueryColumnOptionType.valueOf(columnOption.get().getType().get());
-        bigqueryColumnOption = columnOption.get();
-      } else {
-        bigqueryColumnOptionType = BigqueryColumnOptionType.TIMESTAMP;
-      }
-      BigqueryValueConverter.convertAndSet(
-          this.node,
-          column.getName(),
-          reader.getTimestamp(column),
-          bigqueryColumnOptionType,
-          bigqueryColumnOption,
-          this.task);
+      converter.convertAndSet(writer, reader.getTimestamp(column));
     }
   }
 
   @SuppressWarnings("deprecation") // The use of PageReader.getJson(column)
   @Override
   public void jsonColumn(Column column) {
+    BigqueryColumnConverter converter = converters[column.getIndex()];
     if (reader.isNull(column)) {
-      node.putNull(column.getName());
+      node.putNull(converter.getName());
     } else {
-      node.put(column.getName(), reader.getJson(column).toJson());
+      node.put(converter.getName(), reader.getJson(column).toJson());
     }
   }
 }
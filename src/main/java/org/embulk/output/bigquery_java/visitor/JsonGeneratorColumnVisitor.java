@@ -0,0 +1,158 @@
+package org.embulk.output.bigquery_java.visitor;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import org.embulk.output.bigquery_java.BigqueryRecordBuffer;
+import org.embulk.output.bigquery_java.BigqueryUtil;
+import org.embulk.output.bigquery_java.converter.BigqueryColumnConverter;
+import org.embulk.output.bigquery_java.converter.BigqueryFieldWriter;
+import org.embulk.output.bigquery_java.converter.JsonGeneratorFieldWriter;
+import org.embulk.spi.Column;
+import org.embulk.spi.PageReader;
+
+// Writes each field to a reused JsonGenerator instead of building an ObjectNode per record.
+// The generator writes straight into the record buffer of the page, and a conversion error in the
+// middle of a record truncates the buffer back to the end of the last record, so that a half
+// written line never reaches the intermediate file.
+public class JsonGeneratorColumnVisitor implements BigqueryBytesColumnVisitor {
+  final PageReader reader;
+  private final BigqueryColumnConverter[] converters;
+  private final BigqueryRecordBuffer records;
+  private JsonGenerator generator;
+  private BigqueryFieldWriter writer;
+
+  // Stages each record in a buffer of its own, which is copied out by getByteArray or writeTo
+  public JsonGeneratorColumnVisitor(PageReader reader, BigqueryColumnConverter[] converters) {
+    this(reader, converters, new BigqueryRecordBuffer());
+  }
+
+  public JsonGeneratorColumnVisitor(
+      PageReader reader, BigqueryColumnConverter[] converters, BigqueryRecordBuffer records) {
+    this.reader = reader;
+    this.converters = converters;
+    this.records = records;
+    createGenerator();
+  }
+
+  private void createGenerator() {
+    try {
+      generator = BigqueryUtil.getObjectMapper().getFactory().createGenerator(records);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    // records are separated by "\n" in endRecord()
+    generator.setRootValueSeparator(null);
+    writer = new JsonGeneratorFieldWriter(generator);
+  }
+
+  @Override
+  public void reset() {
+    if (!generator.getOutputContext().inRoot()) {
+      // the previous record failed in the middle, and the new generator drops its buffered bytes
+      records.truncate();
+      createGenerator();
+    }
+    try {
+      generator.writeStartObject();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  @Override
+  public byte[] getByteArray() {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    try {
+      writeTo(out);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return out.toByteArray();
+  }
+
+  // The record is already in the buffer when the buffer is the one the visitor writes into, and
+  // the caller ends it there. Otherwise the record is copied out, and dropped from the buffer.
+  @Override
+  public void writeTo(OutputStream out) throws IOException {
+    endRecord();
+    if (out != records) {
+      records.writeOpenRecordTo(out);
+      records.truncate();
+    }
+  }
+
+  private void endRecord() {
+    try {
+      generator.writeEndObject();
+      generator.writeRaw('\n');
+      generator.flush();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  @Override
+  public void booleanColumn(Column column) {
+    BigqueryColumnConverter converter = converters[column.getIndex()];
+    if (reader.isNull(column)) {
+      writer.putNull(converter.getName());
+    } else {
+      converter.convertAndSet(writer, reader.getBoolean(column));
+    }
+  }
+
+  @Override
+  public void longColumn(Column column) {
+    BigqueryColumnConverter converter = converters[column.getIndex()];
+    if (reader.isNull(column)) {
+      writer.putNull(converter.getName());
+    } else {
+      converter.convertAndSet(writer, reader.getLong(column));
+    }
+  }
+
+  @Override
+  public void doubleColumn(Column column) {
+    BigqueryColumnConverter converter = converters[column.getIndex()];
+    if (reader.isNull(column)) {
+      writer.putNull(converter.getName());
+    } else {
+      converter.convertAndSet(writer, reader.getDouble(column));
+    }
+  }
+
+  @Override
+  public void stringColumn(Column column) {
+    BigqueryColumnConverter converter = converters[column.getIndex()];
+    if (reader.isNull(column)) {
+      writer.putNull(converter.getName());
+    } else {
+      converter.convertAndSet(writer, reader.getString(column));
+    }
+  }
+
+  @SuppressWarnings("deprecation") // The use of PageReader.getTimestamp(column)
+  @Override
+  public void timestampColumn(Column column) {
+    BigqueryColumnConverter converter = converters[column.getIndex()];
+    if (reader.isNull(column)) {
+      writer.putNull(converter.getName());
+    } else {
+      converter.convertAndSet(writer, reader.getTimestamp(column));
+    }
+  }
+
+  @SuppressWarnings("deprecation") // The use of PageReader.getJson(column)
+  @Override
+  public void jsonColumn(Column column) {
+    BigqueryColumnConverter converter = converters[column.getIndex()];
+    if (reader.isNull(column)) {
+      writer.putNull(converter.getName());
+    } else {
+      writer.put(converter.getName(), reader.getJson(column).toJson());
+    }
+  }
+}
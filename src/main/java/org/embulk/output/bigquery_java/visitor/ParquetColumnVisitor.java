@@ -0,0 +1,106 @@
+package org.embulk.output.bigquery_java.visitor;
+
+import java.io.IOException;
+import org.apache.parquet.schema.MessageType;
+import org.embulk.output.bigquery_java.BigqueryFileWriter;
+import org.embulk.output.bigquery_java.converter.BigqueryColumnConverter;
+import org.embulk.output.bigquery_java.converter.ParquetFieldWriter;
+import org.embulk.output.bigquery_java.converter.ParquetSchemaBuilder;
+import org.embulk.spi.Column;
+import org.embulk.spi.PageReader;
+
+// Collects a record into a row, which BigqueryFileWriter writes into the row group of a Parquet
+// file. Parquet files are encoded by columns, so a record has no bytes of its own.
+public class ParquetColumnVisitor implements BigqueryColumnVisitor {
+  final PageReader reader;
+  private final BigqueryColumnConverter[] converters;
+  private final MessageType schema;
+  private final ParquetFieldWriter writer;
+
+  public ParquetColumnVisitor(PageReader reader, BigqueryColumnConverter[] converters) {
+    this.reader = reader;
+    this.converters = converters;
+    this.schema = ParquetSchemaBuilder.build(converters);
+    this.writer = new ParquetFieldWriter(converters);
+  }
+
+  public MessageType getSchema() {
+    return schema;
+  }
+
+  public Object[] getRow() {
+    return writer.getRow();
+  }
+
+  @Override
+  public void reset() {
+    writer.reset();
+  }
+
+  @Override
+  public void writeTo(BigqueryFileWriter fileWriter) throws IOException {
+    fileWriter.parquetWriter(schema).write(writer.getRow());
+  }
+
+  @Override
+  public void booleanColumn(Column column) {
+    BigqueryColumnConverter converter = converters[column.getIndex()];
+    if (reader.isNull(column)) {
+      writer.putNull(converter.getName());
+    } else {
+      converter.convertAndSet(writer, reader.getBoolean(column));
+    }
+  }
+
+  @Override
+  public void longColumn(Column column) {
+    BigqueryColumnConverter converter = converters[column.getIndex()];
+    if (reader.isNull(column)) {
+      writer.putNull(converter.getName());
+    } else {
+      converter.convertAndSet(writer, reader.getLong(column));
+    }
+  }
+
+  @Override
+  public void doubleColumn(Column column) {
+    BigqueryColumnConverter converter = converters[column.getIndex()];
+    if (reader.isNull(column)) {
+      writer.putNull(converter.getName());
+    } else {
+      converter.convertAndSet(writer, reader.getDouble(column));
+    }
+  }
+
+  @Override
+  public void stringColumn(Column column) {
+    BigqueryColumnConverter converter = converters[column.getIndex()];
+    if (reader.isNull(column)) {
+      writer.putNull(converter.getName());
+    } else {
+      converter.convertAndSet(writer, reader.getString(column));
+    }
+  }
+
+  @SuppressWarnings("deprecation") // The use of PageReader.getTimestamp(column)
+  @Override
+  public void timestampColumn(Column column) {
+    BigqueryColumnConverter converter = converters[column.getIndex()];
+    if (reader.isNull(column)) {
+      writer.putNull(converter.getName());
+    } else {
+      converter.convertAndSet(writer, reader.getTimestamp(column));
+    }
+  }
+
+  @SuppressWarnings("deprecation") // The use of PageReader.getJson(column)
+  @Override
+  public void jsonColumn(Column column) {
+    BigqueryColumnConverter converter = converters[column.getIndex()];
+    if (reader.isNull(column)) {
+      writer.putNull(converter.getName());
+    } else {
+      writer.put(converter.getName(), reader.getJson(column).toJson());
+    }
+  }
+}
@@ -0,0 +1,88 @@
+package org.embulk.output.bigquery_java;
+
+import org.embulk.config.ConfigSource;
+import org.embulk.output.bigquery_java.config.BigqueryColumnOption;
+import org.embulk.output.bigquery_java.config.PluginTask;
+import org.embulk.spi.Column;
+import org.embulk.spi.PageReader;
+import org.embulk.spi.Schema;
+import org.embulk.util.config.ConfigMapper;
+import org.embulk.util.config.ConfigMapperFactory;
+import org.embulk.util.config.units.LocalFile;
+
+// Fixtures of the tests of visitors and converters
+public class BigqueryTestHelper {
+  public static final ConfigMapperFactory CONFIG_MAPPER_FACTORY =
+      ConfigMapperFactory.builder().addDefaultModules().build();
+
+  public static final ConfigMapper CONFIG_MAPPER = CONFIG_MAPPER_FACTORY.createConfigMapper();
+
+  public static PluginTask task(String sourceFormat) {
+    ConfigSource configSource = CONFIG_MAPPER_FACTORY.newConfigSource();
+    configSource.set("mode", "replace");
+    configSource.set("json_keyfile", LocalFile.ofContent(""));
+    configSource.set("dataset", "test");
+    configSource.set("table", "test");
+    configSource.set("source_format", sourceFormat);
+    return CONFIG_MAPPER.map(configSource, PluginTask.class);
+  }
+
+  public static BigqueryColumnOption columnOption(String name, String type) {
+    return columnOption(name, type, null);
+  }
+
+  public static BigqueryColumnOption columnOption(
+      String name, String type, String timestampFormat) {
+    ConfigSource configSource = CONFIG_MAPPER_FACTORY.newConfigSource();
+    configSource.set("name", name);
+    configSource.set("type", type);
+    if (timestampFormat != null) {
+      configSource.set("timestamp_format", timestampFormat);
+    }
+    return CONFIG_MAPPER.map(configSource, BigqueryColumnOption.class);
+  }
+
+  // Reads the values set to it as the current record
+  @SuppressWarnings("deprecation")
+  public static class PageReaderForTest extends PageReader {
+    private Object[] values;
+
+    public PageReaderForTest(Schema schema) {
+      super(schema);
+    }
+
+    public void setValues(Object[] values) {
+      this.values = values;
+    }
+
+    @Override
+    public boolean isNull(Column column) {
+      return values[column.getIndex()] == null;
+    }
+
+    @Override
+    public boolean getBoolean(Column column) {
+      return (boolean) values[column.getIndex()];
+    }
+
+    @Override
+    public long getLong(Column column) {
+      return (long) values[column.getIndex()];
+    }
+
+    @Override
+    public double getDouble(Column column) {
+      return (double) values[column.getIndex()];
+    }
+
+    @Override
+    public String getString(Column column) {
+      return (String) values[column.getIndex()];
+    }
+
+    @Override
+    public org.embulk.spi.time.Timestamp getTimestamp(Column column) {
+      return (org.embulk.spi.time.Timestamp) values[column.getIndex()];
+    }
+  }
+}
@@ -0,0 +1,55 @@
+package org.embulk.output.bigquery_java;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Optional;
+import org.embulk.output.bigquery_java.config.BigqueryRetryPolicies;
+import org.embulk.output.bigquery_java.config.BigqueryRetryPolicy;
+import org.embulk.output.bigquery_java.config.PluginTask;
+import org.embulk.output.bigquery_java.exception.BigqueryBackendException;
+import org.embulk.output.bigquery_java.exception.BigqueryException;
+import org.embulk.output.bigquery_java.exception.BigqueryRateLimitExceededException;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+public class TestBigqueryBackoff {
+  @Test
+  public void testMaxRetryWaitMillis() {
+    BigqueryBackoff backoff = new BigqueryBackoff(2000, 10000);
+    assertEquals(2000, backoff.getMaxRetryWaitMillis(0));
+    assertEquals(8000, backoff.getMaxRetryWaitMillis(2));
+    assertEquals(10000, backoff.getMaxRetryWaitMillis(3));
+    assertEquals(10000, backoff.getMaxRetryWaitMillis(100));
+  }
+
+  @Test
+  public void testRetryWaitMillis() {
+    BigqueryBackoff backoff = new BigqueryBackoff(2000, 10000);
+    for (int i = 0; i < 100; i++) {
+      long wait = backoff.getRetryWaitMillis(1);
+      assertTrue(wait >= 0 && wait <= 4000);
+    }
+  }
+
+  @Test
+  public void testOf() {
+    PluginTask task = Mockito.mock(PluginTask.class);
+    BigqueryRetryPolicy policy = Mockito.mock(BigqueryRetryPolicy.class);
+    Mockito.when(policy.getInitialRetryWaitMillis()).thenReturn(Optional.of(100L));
+    Mockito.when(policy.getMaxRetryWaitMillis()).thenReturn(Optional.empty());
+    BigqueryRetryPolicies policies = Mockito.mock(BigqueryRetryPolicies.class);
+    Mockito.when(policies.getRateLimitExceeded()).thenReturn(Optional.of(policy));
+    Mockito.when(policies.getBackendError()).thenReturn(Optional.empty());
+    Mockito.when(task.getRetryPolicies()).thenReturn(Optional.of(policies));
+
+    BigqueryBackoff rateLimit =
+        BigqueryBackoff.of(task, new BigqueryRateLimitExceededException("rateLimitExceeded"));
+    assertEquals(100, rateLimit.getMaxRetryWaitMillis(0));
+    assertEquals(60000, rateLimit.getMaxRetryWaitMillis(20));
+    BigqueryBackoff backend = BigqueryBackoff.of(task, new BigqueryBackendException("backend"));
+    assertEquals(2000, backend.getMaxRetryWaitMillis(0));
+    assertNull(BigqueryBackoff.of(task, new BigqueryException("invalid")));
+  }
+}
@@ -6,8 +6,10 @@ import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
+import com.google.cloud.bigquery.CsvOptions;
 import com.google.cloud.bigquery.Field;
 import com.google.cloud.bigquery.FieldList;
+import com.google.cloud.bigquery.FormatOptions;
 import com.google.cloud.bigquery.PolicyTags;
 import com.google.cloud.bigquery.Schema;
 import com.google.cloud.bigquery.StandardSQLTypeName;
@@ -295,4 +297,23 @@ public class TestBigqueryClient {
 
     assertNull(client.storeCachedSrcFieldsIfNeed());
   }
+
+  @Test
+  public void testBuildFormatOptions() {
+    ConfigSource config = loadYamlResource(embulk, "takeover.yml");
+    PluginTask jsonTask = CONFIG_MAPPER.map(config, PluginTask.class);
+    assertEquals(FormatOptions.json(), BigqueryClient.buildFormatOptions(jsonTask));
+
+    PluginTask csvTask =
+        CONFIG_MAPPER.map(
+            config
+                .set("source_format", "CSV")
+                .set("field_delimiter", "\t")
+                .set("allow_quoted_newlines", true),
+            PluginTask.class);
+    CsvOptions csvOptions = (CsvOptions) BigqueryClient.buildFormatOptions(csvTask);
+    assertEquals("\t", csvOptions.getFieldDelimiter());
+    assertEquals("\"", csvOptions.getQuote());
+    assertTrue(csvOptions.allowQuotedNewLines());
+  }
 }
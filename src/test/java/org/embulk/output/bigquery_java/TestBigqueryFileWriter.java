@@ -0,0 +1,163 @@
+package org.embulk.output.bigquery_java;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.embulk.config.ConfigSource;
+import org.embulk.output.bigquery_java.config.PluginTask;
+import org.embulk.output.bigquery_java.exception.BigqueryException;
+import org.embulk.util.config.ConfigMapper;
+import org.embulk.util.config.ConfigMapperFactory;
+import org.embulk.util.config.units.LocalFile;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class TestBigqueryFileWriter {
+  protected static final ConfigMapperFactory CONFIG_MAPPER_FACTORY =
+      ConfigMapperFactory.builder().addDefaultModules().build();
+
+  protected static final ConfigMapper CONFIG_MAPPER = CONFIG_MAPPER_FACTORY.createConfigMapper();
+
+  @Rule public TemporaryFolder testFolder = new TemporaryFolder();
+
+  @Test
+  public void testSingleFile() throws IOException {
+    PluginTask task = task(configSource());
+    write(task, 5, "a\n");
+
+    List<Path> paths = BigqueryUtil.getIntermediateFiles(task);
+    assertEquals(1, paths.size());
+    assertEquals(
+        String.format("bq_.%d.%d.jsonl", BigqueryUtil.getPID(), Thread.currentThread().getId()),
+        paths.get(0).getFileName().toString());
+  }
+
+  @Test
+  public void testMaxRecordsPerFile() throws IOException {
+    ConfigSource configSource = configSource();
+    configSource.set("max_records_per_file", 2);
+    PluginTask task = task(configSource);
+    write(task, 5, "a\n");
+
+    List<String> contents = readFiles(task);
+    assertEquals(3, contents.size());
+    assertEquals("a\na\n", contents.get(0));
+    assertEquals("a\na\n", contents.get(1));
+    assertEquals("a\n", contents.get(2));
+  }
+
+  @Test
+  public void testMaxFileSize() throws IOException {
+    ConfigSource configSource = configSource();
+    configSource.set("max_file_size", 100 * 1024);
+    PluginTask task = task(configSource);
+    // records larger than the buffer of the writer are written to the file at once
+    char[] record = new char[64 * 1024];
+    Arrays.fill(record, 'a');
+    write(task, 5, new String(record));
+
+    List<String> contents = readFiles(task);
+    assertEquals(3, contents.size());
+    assertEquals(128 * 1024, contents.get(0).length());
+    assertEquals(64 * 1024, contents.get(2).length());
+  }
+
+  @Test
+  public void testRecordBufferMaxRecordsPerFile() throws IOException {
+    ConfigSource configSource = configSource();
+    configSource.set("max_records_per_file", 2);
+    PluginTask task = task(configSource);
+    BigqueryFileWriter writer = new BigqueryFileWriter(task);
+    BigqueryRecordBuffer records = new BigqueryRecordBuffer();
+    for (int page = 0; page < 2; page++) {
+      for (int i = 0; i < 3; i++) {
+        records.write(String.format("%d\n", page * 3 + i).getBytes(StandardCharsets.UTF_8));
+        records.endRecord();
+      }
+      writer.write(records);
+      records.clear();
+    }
+    writer.close();
+    assertEquals(6, writer.getCount());
+
+    List<String> contents = readFiles(task);
+    assertEquals(3, contents.size());
+    assertEquals("0\n1\n", contents.get(0));
+    assertEquals("2\n3\n", contents.get(1));
+    assertEquals("4\n5\n", contents.get(2));
+  }
+
+  @Test
+  public void testCloseFailureFailsLocalDiskBudget() throws IOException {
+    ConfigSource configSource = configSource();
+    configSource.set("max_file_size", 100 * 1024);
+    configSource.set("max_local_disk_bytes", 1024 * 1024);
+    PluginTask task = task(configSource);
+    BigqueryLocalDiskBudget budget = new BigqueryLocalDiskBudget(1024 * 1024);
+    BigqueryUtil.setLocalDiskBudget(budget);
+    try {
+      BigqueryFileWriter writer = new BigqueryFileWriter(task);
+      // the file is closed under the writer, so the record buffered by the writer is not flushed
+      writer.outputStream().close();
+      BigqueryRecordBuffer records = new BigqueryRecordBuffer();
+      records.write("a\n".getBytes(StandardCharsets.UTF_8));
+      records.endRecord();
+      writer.write(records);
+      writer.close();
+
+      assertEquals(100 * 1024, budget.getUsedBytes());
+      assertThrows(BigqueryException.class, () -> budget.reserve(1));
+    } finally {
+      BigqueryUtil.setLocalDiskBudget(null);
+    }
+  }
+
+  // Writes the records by pages of one record
+  private void write(PluginTask task, int count, String record) throws IOException {
+    BigqueryFileWriter writer = new BigqueryFileWriter(task);
+    BigqueryRecordBuffer records = new BigqueryRecordBuffer();
+    for (int i = 0; i < count; i++) {
+      records.write(record.getBytes(StandardCharsets.UTF_8));
+      records.endRecord();
+      writer.write(records);
+      records.clear();
+    }
+    writer.close();
+    assertEquals(count, writer.getCount());
+  }
+
+  private List<String> readFiles(PluginTask task) throws IOException {
+    List<Path> paths =
+        BigqueryUtil.getIntermediateFiles(task).stream().sorted().collect(Collectors.toList());
+    List<String> contents = new ArrayList<>();
+    for (Path path : paths) {
+      contents.add(new String(Files.readAllBytes(path), StandardCharsets.UTF_8));
+    }
+    return contents;
+  }
+
+  private ConfigSource configSource() {
+    ConfigSource configSource = CONFIG_MAPPER_FACTORY.newConfigSource();
+    configSource.set("mode", "replace");
+    configSource.set("json_keyfile", LocalFile.ofContent(""));
+    configSource.set("dataset", "test");
+    configSource.set("table", "test");
+    configSource.set("source_format", "NEWLINE_DELIMITED_JSON");
+    configSource.set("path_prefix", testFolder.getRoot().getPath() + "/bq_");
+    configSource.set("file_ext", ".jsonl");
+    return configSource;
+  }
+
+  private PluginTask task(ConfigSource configSource) {
+    return CONFIG_MAPPER.map(configSource, PluginTask.class);
+  }
+}
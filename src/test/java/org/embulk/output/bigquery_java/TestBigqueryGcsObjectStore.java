@@ -0,0 +1,94 @@
+package org.embulk.output.bigquery_java;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.google.cloud.bigquery.JobInfo;
+import com.google.cloud.bigquery.JobStatistics;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.embulk.config.ConfigSource;
+import org.embulk.output.bigquery_java.config.PluginTask;
+import org.embulk.spi.Column;
+import org.embulk.spi.Schema;
+import org.embulk.spi.type.Types;
+import org.embulk.util.config.ConfigMapper;
+import org.embulk.util.config.ConfigMapperFactory;
+import org.embulk.util.config.units.LocalFile;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class TestBigqueryGcsObjectStore {
+  protected static final ConfigMapperFactory CONFIG_MAPPER_FACTORY =
+      ConfigMapperFactory.builder().addDefaultModules().build();
+
+  protected static final ConfigMapper CONFIG_MAPPER = CONFIG_MAPPER_FACTORY.createConfigMapper();
+
+  @Rule public TemporaryFolder testFolder = new TemporaryFolder();
+
+  private BigqueryFakeServer server;
+  private BigqueryClient client;
+  private BigqueryObjectStore store;
+
+  @Before
+  public void setUp() throws Exception {
+    server = new BigqueryFakeServer(0);
+    ConfigSource config = CONFIG_MAPPER_FACTORY.newConfigSource();
+    config.set("mode", "append_direct");
+    config.set("auth_method", "service_account");
+    config.set("json_keyfile", LocalFile.ofContent(server.newJsonKeyfile("project")));
+    config.set("endpoint", server.getEndpoint());
+    config.set("dataset", "dataset");
+    config.set("table", "table");
+    config.set("source_format", "NEWLINE_DELIMITED_JSON");
+    config.set("gcs_bucket", "bucket");
+    // chunks of an upload are 256KB
+    config.set("upload_chunk_size", 256 * 1024);
+    PluginTask task = CONFIG_MAPPER.map(config, PluginTask.class);
+    client = new BigqueryClient(task, new Schema(Arrays.asList(new Column(0, "a", Types.STRING))));
+    store = new BigqueryGcsObjectStore(task, client.getHttpTransport());
+  }
+
+  @After
+  public void tearDown() {
+    client.close();
+    server.close();
+  }
+
+  @Test
+  public void testUploadAndLoadAtOnce() throws Exception {
+    List<String> uris = new ArrayList<>();
+    // the second file is uploaded by chunks
+    int[] lines = {3, 100000};
+    for (int i = 0; i < lines.length; i++) {
+      Path path = testFolder.getRoot().toPath().resolve("bq_." + i + ".jsonl");
+      Files.write(
+          path,
+          String.join("", Collections.nCopies(lines[i], "{\"a\":\"a\"}\n"))
+              .getBytes(StandardCharsets.UTF_8));
+      uris.add(store.upload(path, "prefix/bq_." + i + ".jsonl"));
+    }
+    assertEquals(
+        Arrays.asList("gs://bucket/prefix/bq_.0.jsonl", "gs://bucket/prefix/bq_.1.jsonl"), uris);
+    assertEquals(uris.size(), server.getObjectUris().size());
+    assertTrue(server.getObjectUris().containsAll(uris));
+
+    JobStatistics.LoadStatistics statistics =
+        BigqueryUtil.join(
+            client.loadUrisAsync(uris, "table", JobInfo.WriteDisposition.WRITE_APPEND));
+    assertEquals(100003L, (long) statistics.getOutputRows());
+    assertEquals(100003L, server.getNumRows("project", "dataset", "table"));
+
+    store.delete("prefix/bq_.0.jsonl");
+    store.delete("prefix/bq_.1.jsonl");
+    assertTrue(server.getObjectUris().isEmpty());
+  }
+}
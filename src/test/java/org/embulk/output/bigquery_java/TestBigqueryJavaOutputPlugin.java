@@ -9,8 +9,10 @@ import com.google.cloud.bigquery.TableResult;
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import org.embulk.config.ConfigSource;
 import org.embulk.input.file.LocalFileInputPlugin;
@@ -84,6 +86,22 @@ public class TestBigqueryJavaOutputPlugin {
     assertEquals("date", bigqueryTimePartitioning.getField().get());
   }
 
+  @Test
+  public void testOrderForLoad() throws IOException {
+    Path small = testFolder.newFile("small.jsonl").toPath();
+    Path large = testFolder.newFile("large.jsonl").toPath();
+    Path pipelined = testFolder.newFile("pipelined.jsonl").toPath();
+    Files.write(small, new byte[10]);
+    Files.write(large, new byte[100]);
+    Files.write(pipelined, new byte[1]);
+
+    List<Path> paths =
+        BigqueryJavaOutputPlugin.orderForLoad(
+            Arrays.asList(small, large, pipelined),
+            Collections.singleton(pipelined.toAbsolutePath().normalize()));
+    assertEquals(Arrays.asList(pipelined, large, small), paths);
+  }
+
   public interface TestTask extends Task {
     @Config("json_keyfile")
     LocalFile getJsonKeyfile();
@@ -0,0 +1,166 @@
+package org.embulk.output.bigquery_java;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import org.embulk.config.ConfigSource;
+import org.embulk.input.file.LocalFileInputPlugin;
+import org.embulk.parser.csv.CsvParserPlugin;
+import org.embulk.spi.FileInputPlugin;
+import org.embulk.spi.OutputPlugin;
+import org.embulk.spi.ParserPlugin;
+import org.embulk.test.TestingEmbulk;
+import org.embulk.util.config.ConfigMapperFactory;
+import org.embulk.util.config.units.LocalFile;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+// Runs whole transactions against BigqueryFakeServer, and reports the throughput, the time of
+// each phase and the peak heap of each run. The default runs are small, so that it runs offline
+// with the other tests. Larger runs are set by environment variables of comma separated values:
+//
+// EMBULK_OUTPUT_BIGQUERY_BENCHMARK_ROWS="1000000" \
+// EMBULK_OUTPUT_BIGQUERY_BENCHMARK_CONCURRENCY="1,4,16" \
+// EMBULK_OUTPUT_BIGQUERY_BENCHMARK_MAX_FILE_SIZE="none,16777216" \
+//   ./gradlew test --tests '*TestBigqueryJavaOutputPluginBenchmark'
+//
+// Phases overlap, and are seen from the server: format is until the first upload, upload is until
+// the last upload, job wait is until the last load job is seen DONE, and copy is the copy job.
+public class TestBigqueryJavaOutputPluginBenchmark {
+  private static final Logger logger =
+      LoggerFactory.getLogger(TestBigqueryJavaOutputPluginBenchmark.class);
+  private static final ConfigMapperFactory CONFIG_MAPPER_FACTORY =
+      ConfigMapperFactory.builder().addDefaultModules().build();
+  private static final String PROJECT = "benchmark";
+  private static final String DATASET = "dataset";
+  private static final String TABLE = "table";
+
+  @Rule
+  public TestingEmbulk embulk =
+      TestingEmbulk.builder()
+          .registerPlugin(OutputPlugin.class, "bigquery_java", BigqueryJavaOutputPlugin.class)
+          .registerPlugin(FileInputPlugin.class, "file", LocalFileInputPlugin.class)
+          .registerPlugin(ParserPlugin.class, "csv", CsvParserPlugin.class)
+          .build();
+
+  @Rule public TemporaryFolder testFolder = new TemporaryFolder();
+
+  private BigqueryFakeServer server;
+  private String jsonKeyfile;
+
+  @Before
+  public void setUp() throws IOException, NoSuchAlgorithmException {
+    server = new BigqueryFakeServer(Long.parseLong(env("JOB_MILLIS", "100")));
+    jsonKeyfile = server.newJsonKeyfile(PROJECT);
+  }
+
+  @After
+  public void tearDown() {
+    server.close();
+  }
+
+  @Test
+  public void testBenchmark() throws IOException {
+    List<String> results = new ArrayList<>();
+    for (String rows : env("ROWS", "10000").split(",")) {
+      Path in = writeInput(Integer.parseInt(rows));
+      for (String concurrency : env("CONCURRENCY", "1,4").split(",")) {
+        for (String maxFileSize : env("MAX_FILE_SIZE", "none,65536").split(",")) {
+          Optional<Long> size =
+              maxFileSize.equals("none")
+                  ? Optional.empty()
+                  : Optional.of(Long.valueOf(maxFileSize));
+          results.add(run(in, Long.parseLong(rows), Integer.parseInt(concurrency), size));
+        }
+      }
+    }
+    logger.info(
+        "rows concurrency max_file_size: rows/s MB/s format_ms upload_ms job_wait_ms copy_ms"
+            + " total_ms peak_heap_mb requests\n{}",
+        String.join("\n", results));
+  }
+
+  private String run(Path in, long rows, int concurrency, Optional<Long> maxFileSize)
+      throws IOException {
+    ConfigSource config = CONFIG_MAPPER_FACTORY.newConfigSource();
+    config.set("type", "bigquery_java");
+    config.set("mode", "replace");
+    config.set("auth_method", "service_account");
+    config.set("json_keyfile", LocalFile.ofContent(jsonKeyfile));
+    config.set("endpoint", server.getEndpoint());
+    config.set("dataset", DATASET);
+    config.set("table", TABLE);
+    config.set("source_format", "NEWLINE_DELIMITED_JSON");
+    config.set("compression", env("COMPRESSION", "NONE"));
+    config.set("path_prefix", testFolder.getRoot().toPath().resolve("bq_").toString());
+    config.set("max_upload_concurrency", concurrency);
+    maxFileSize.ifPresent(size -> config.set("max_file_size", size));
+
+    server.reset();
+    System.gc();
+    List<MemoryPoolMXBean> heapPools = new ArrayList<>();
+    for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+      if (pool.getType() == MemoryType.HEAP) {
+        pool.resetPeakUsage();
+        heapPools.add(pool);
+      }
+    }
+    long start = System.currentTimeMillis();
+    embulk.runOutput(config, in);
+    long end = System.currentTimeMillis();
+    long peakHeap = heapPools.stream().mapToLong(pool -> pool.getPeakUsage().getUsed()).sum();
+
+    assertEquals(rows, server.getNumRows(PROJECT, DATASET, TABLE));
+    double seconds = Math.max(1, end - start) / 1000.0;
+    return String.format(
+        "%d %d %s: %.0f %.2f %d %d %d %d %d %d %d",
+        rows,
+        concurrency,
+        maxFileSize.map(String::valueOf).orElse("none"),
+        rows / seconds,
+        server.getUploadedBytes() / seconds / (1 << 20),
+        server.getFirstUploadAt() - start,
+        server.getLastUploadAt() - server.getFirstUploadAt(),
+        server.getLastLoadDoneAt() - server.getLastUploadAt(),
+        server.getLastCopyDoneAt() - server.getFirstCopyAt(),
+        end - start,
+        peakHeap >> 20,
+        server.getRequests());
+  }
+
+  private Path writeInput(int rows) throws IOException {
+    Path in = testFolder.newFile("benchmark_" + rows + ".csv").toPath();
+    String[] names = {"alpha", "bravo", "charlie", "delta", "echo", "foxtrot"};
+    Random random = new Random(0);
+    List<String> lines = new ArrayList<>(rows + 1);
+    lines.add("id:long,name:string,score:double,flag:boolean");
+    for (int i = 0; i < rows; i++) {
+      lines.add(
+          String.format(
+              "%d,%s,%f,%b",
+              i, names[random.nextInt(names.length)], random.nextDouble(), random.nextBoolean()));
+    }
+    Files.write(in, lines);
+    return in;
+  }
+
+  private static String env(String name, String defaultValue) {
+    String value = System.getenv("EMBULK_OUTPUT_BIGQUERY_BENCHMARK_" + name);
+    return value == null || value.isEmpty() ? defaultValue : value;
+  }
+}
@@ -0,0 +1,139 @@
+package org.embulk.output.bigquery_java;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import com.google.cloud.bigquery.BigQueryError;
+import com.google.cloud.bigquery.BigQueryException;
+import com.google.cloud.bigquery.Job;
+import com.google.cloud.bigquery.JobId;
+import com.google.cloud.bigquery.JobStatistics;
+import com.google.cloud.bigquery.JobStatus;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import org.embulk.output.bigquery_java.config.PluginTask;
+import org.embulk.output.bigquery_java.exception.BigqueryBackendException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+public class TestBigqueryJobPoller {
+  private BigqueryClient client;
+  private BigqueryJobPoller poller;
+
+  @Before
+  public void setUp() {
+    PluginTask task = Mockito.mock(PluginTask.class);
+    Mockito.when(task.getJobStatusInitialPollingIntervalMillis()).thenReturn(10L);
+    Mockito.when(task.getJobStatusPollingInterval()).thenReturn(1L);
+    Mockito.when(task.getJobStatusMaxPollingTime()).thenReturn(3600L);
+    Mockito.when(task.getRetries()).thenReturn(5);
+    client = Mockito.mock(BigqueryClient.class);
+    poller = new BigqueryJobPoller(task, client);
+  }
+
+  @After
+  public void tearDown() {
+    poller.shutdown();
+  }
+
+  @Test
+  public void testWatch() throws Exception {
+    JobStatistics.LoadStatistics statistics1 = Mockito.mock(JobStatistics.LoadStatistics.class);
+    JobStatistics.LoadStatistics statistics2 = Mockito.mock(JobStatistics.LoadStatistics.class);
+    Job running1 = job("job1", JobStatus.State.RUNNING, null, null);
+    Job done1 = job("job1", JobStatus.State.DONE, null, statistics1);
+    Job done2 = job("job2", JobStatus.State.DONE, null, statistics2);
+    Mockito.when(client.listRunningJobIds(Mockito.anyLong()))
+        .thenReturn(new HashSet<>(Collections.singletonList("job1")))
+        .thenReturn(Collections.emptySet());
+    Mockito.when(client.getJob(JobId.of("job1"))).thenReturn(running1).thenReturn(done1);
+    Mockito.when(client.getJob(JobId.of("job2"))).thenReturn(done2);
+
+    CompletableFuture<JobStatistics> future1 = poller.watch(running1, "Load");
+    CompletableFuture<JobStatistics> future2 = poller.watch(done2, "Load");
+
+    assertSame(statistics1, future1.get(10, TimeUnit.SECONDS));
+    assertSame(statistics2, future2.get(10, TimeUnit.SECONDS));
+  }
+
+  @Test
+  public void testJobError() throws Exception {
+    BigQueryError error = new BigQueryError("backendError", "location", "message");
+    Job failed = job("job1", JobStatus.State.DONE, error, null);
+    Mockito.when(client.getJob(JobId.of("job1"))).thenReturn(failed);
+
+    CompletableFuture<JobStatistics> future = poller.watch(failed, "Load");
+    try {
+      future.get(10, TimeUnit.SECONDS);
+    } catch (ExecutionException e) {
+      assertTrue(e.getCause() instanceof BigqueryBackendException);
+    }
+    assertTrue(future.isCompletedExceptionally());
+    Mockito.verify(client, Mockito.never()).listRunningJobIds(Mockito.anyLong());
+  }
+
+  @Test
+  public void testGetJobError() throws Exception {
+    JobStatistics.LoadStatistics statistics = Mockito.mock(JobStatistics.LoadStatistics.class);
+    Job done = job("job1", JobStatus.State.DONE, null, statistics);
+    Mockito.when(client.getJob(JobId.of("job1")))
+        .thenThrow(new BigQueryException(503, "unavailable"))
+        .thenReturn(done);
+    Mockito.when(client.getJob(JobId.of("job2")))
+        .thenThrow(new BigQueryException(404, "not found"));
+
+    // a job whose status is not got is polled again, and is not created again
+    assertSame(statistics, poller.watch(done, "Load").get(10, TimeUnit.SECONDS));
+    Mockito.verify(client, Mockito.times(2)).getJob(JobId.of("job1"));
+    CompletableFuture<JobStatistics> future = poller.watch(job("job2", null, null, null), "Load");
+    try {
+      future.get(10, TimeUnit.SECONDS);
+    } catch (ExecutionException e) {
+      assertEquals(404, ((BigQueryException) e.getCause()).getCode());
+    }
+    assertTrue(future.isCompletedExceptionally());
+  }
+
+  @Test
+  public void testCancelAll() throws Exception {
+    Job running1 = job("job1", JobStatus.State.RUNNING, null, null);
+    Job running2 = job("job2", JobStatus.State.RUNNING, null, null);
+    Mockito.when(client.getJob(JobId.of("job1"))).thenReturn(running1);
+
+    CompletableFuture<JobStatistics> future1 = poller.watch(running1, "Load");
+    poller.cancelAll();
+    // a job watched after the transaction failed is cancelled as well
+    CompletableFuture<JobStatistics> future2 = poller.watch(running2, "Load");
+
+    for (CompletableFuture<JobStatistics> future : Arrays.asList(future1, future2)) {
+      assertThrows(CancellationException.class, () -> future.get(10, TimeUnit.SECONDS));
+    }
+    Mockito.verify(client).cancelJob(JobId.of("job1"));
+    Mockito.verify(client).cancelJob(JobId.of("job2"));
+  }
+
+  private Job job(
+      String jobId, JobStatus.State state, BigQueryError error, JobStatistics statistics) {
+    JobStatus status = Mockito.mock(JobStatus.class);
+    Mockito.when(status.getState()).thenReturn(state);
+    Mockito.when(status.getError()).thenReturn(error);
+    if (error != null) {
+      Mockito.when(status.getExecutionErrors()).thenReturn(Collections.singletonList(error));
+    }
+    Job job = Mockito.mock(Job.class);
+    Mockito.when(job.getJobId()).thenReturn(JobId.of(jobId));
+    Mockito.when(job.getStatus()).thenReturn(status);
+    Mockito.when(job.getStatistics()).thenReturn(statistics);
+    assertEquals(jobId, job.getJobId().getJob());
+    return job;
+  }
+}
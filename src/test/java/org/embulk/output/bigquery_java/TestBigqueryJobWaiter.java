@@ -0,0 +1,24 @@
+package org.embulk.output.bigquery_java;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class TestBigqueryJobWaiter {
+  @Test
+  public void testNextPollingInterval() {
+    assertEquals(1000, BigqueryJobWaiter.nextPollingInterval(500, 10000));
+    assertEquals(8000, BigqueryJobWaiter.nextPollingInterval(4000, 10000));
+    assertEquals(10000, BigqueryJobWaiter.nextPollingInterval(8000, 10000));
+    assertEquals(10000, BigqueryJobWaiter.nextPollingInterval(10000, 10000));
+  }
+
+  @Test
+  public void testWithJitter() {
+    for (int i = 0; i < 100; i++) {
+      long interval = BigqueryJobWaiter.withJitter(1000);
+      assertTrue(interval >= 500 && interval <= 1000);
+    }
+  }
+}
@@ -0,0 +1,59 @@
+package org.embulk.output.bigquery_java;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import org.embulk.output.bigquery_java.exception.BigqueryException;
+import org.junit.Test;
+
+public class TestBigqueryLocalDiskBudget {
+  @Test
+  public void testReserveWaitsForRelease() throws Exception {
+    BigqueryLocalDiskBudget budget = new BigqueryLocalDiskBudget(100);
+    budget.reserve(60);
+    // the file is closed with more bytes than reserved
+    budget.resize(60, 70);
+    CompletableFuture<Void> reserved = CompletableFuture.runAsync(() -> budget.reserve(60));
+    assertTimeout(reserved);
+    budget.release(70);
+    reserved.get(10, TimeUnit.SECONDS);
+    assertEquals(60, budget.getUsedBytes());
+  }
+
+  @Test
+  public void testReserveLargerThanBudget() {
+    BigqueryLocalDiskBudget budget = new BigqueryLocalDiskBudget(100);
+    // nothing is reserved, so a file larger than the budget is written alone
+    budget.reserve(150);
+    assertEquals(150, budget.getUsedBytes());
+  }
+
+  @Test
+  public void testFailWakesReserve() throws Exception {
+    BigqueryLocalDiskBudget budget = new BigqueryLocalDiskBudget(100);
+    budget.reserve(100);
+    CompletableFuture<Void> reserved = CompletableFuture.runAsync(() -> budget.reserve(10));
+    assertTimeout(reserved);
+    budget.fail(new BigqueryException("load failed"));
+    try {
+      reserved.get(10, TimeUnit.SECONDS);
+    } catch (ExecutionException e) {
+      assertTrue(e.getCause() instanceof BigqueryException);
+      return;
+    }
+    throw new AssertionError("reserve did not fail");
+  }
+
+  private static void assertTimeout(CompletableFuture<Void> future) throws Exception {
+    try {
+      future.get(100, TimeUnit.MILLISECONDS);
+    } catch (TimeoutException e) {
+      return;
+    }
+    throw new AssertionError("reserve did not wait");
+  }
+}
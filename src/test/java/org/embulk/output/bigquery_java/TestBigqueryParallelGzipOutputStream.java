@@ -0,0 +1,54 @@
+package org.embulk.output.bigquery_java;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+import org.junit.Test;
+
+public class TestBigqueryParallelGzipOutputStream {
+  @Test
+  public void testMultipleMembers() throws IOException {
+    StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < 10000; i++) {
+      sb.append(String.format("{\"id\":%d,\"name\":\"name%d\"}\n", i, i % 7));
+    }
+    byte[] data = sb.toString().getBytes(StandardCharsets.UTF_8);
+
+    ByteArrayOutputStream file = new ByteArrayOutputStream();
+    try (BigqueryParallelGzipOutputStream os =
+        new BigqueryParallelGzipOutputStream(file, 1, 1000)) {
+      os.write(data, 0, 100);
+      os.write(data[100]);
+      os.write(data, 101, data.length - 101);
+    }
+
+    assertArrayEquals(data, gunzip(file.toByteArray()));
+  }
+
+  @Test
+  public void testEmpty() throws IOException {
+    ByteArrayOutputStream file = new ByteArrayOutputStream();
+    new BigqueryParallelGzipOutputStream(file, 6, 1000).close();
+
+    assertEquals(0, gunzip(file.toByteArray()).length);
+  }
+
+  private byte[] gunzip(byte[] bytes) throws IOException {
+    // GZIPInputStream reads the members one after another
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(bytes))) {
+      byte[] buffer = new byte[4096];
+      int n;
+      while ((n = in.read(buffer)) > 0) {
+        out.write(buffer, 0, n);
+      }
+    }
+    return out.toByteArray();
+  }
+}
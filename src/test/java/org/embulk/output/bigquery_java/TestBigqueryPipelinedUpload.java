@@ -0,0 +1,157 @@
+package org.embulk.output.bigquery_java;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import com.google.cloud.bigquery.JobStatistics;
+import java.io.ByteArrayOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.embulk.config.ConfigSource;
+import org.embulk.output.bigquery_java.config.PluginTask;
+import org.embulk.spi.Column;
+import org.embulk.spi.Schema;
+import org.embulk.spi.type.Types;
+import org.embulk.util.config.ConfigMapper;
+import org.embulk.util.config.ConfigMapperFactory;
+import org.embulk.util.config.units.LocalFile;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class TestBigqueryPipelinedUpload {
+  protected static final ConfigMapperFactory CONFIG_MAPPER_FACTORY =
+      ConfigMapperFactory.builder().addDefaultModules().build();
+
+  protected static final ConfigMapper CONFIG_MAPPER = CONFIG_MAPPER_FACTORY.createConfigMapper();
+
+  private static final byte[] LINE = "{\"a\":\"a\"}\n".getBytes(StandardCharsets.UTF_8);
+
+  @Rule public TemporaryFolder testFolder = new TemporaryFolder();
+
+  private BigqueryFakeServer server;
+  private PluginTask task;
+  private BigqueryClient client;
+  private ExecutorService executor;
+
+  @Before
+  public void setUp() throws Exception {
+    server = new BigqueryFakeServer(0);
+    ConfigSource config = CONFIG_MAPPER_FACTORY.newConfigSource();
+    config.set("mode", "append_direct");
+    config.set("auth_method", "service_account");
+    config.set("json_keyfile", LocalFile.ofContent(server.newJsonKeyfile("project")));
+    config.set("endpoint", server.getEndpoint());
+    config.set("dataset", "dataset");
+    config.set("table", "table");
+    config.set("source_format", "NEWLINE_DELIMITED_JSON");
+    config.set("pipelined_upload", true);
+    // the writer waits for the upload when two chunks are not uploaded yet
+    config.set("pipelined_upload_buffer_size", 2 * BigqueryPipelinedUpload.CHUNK_SIZE);
+    config.set("upload_chunk_size", BigqueryPipelinedUpload.CHUNK_SIZE);
+    task = CONFIG_MAPPER.map(config, PluginTask.class);
+    client = new BigqueryClient(task, new Schema(Arrays.asList(new Column(0, "a", Types.STRING))));
+    executor = Executors.newSingleThreadExecutor();
+  }
+
+  @After
+  public void tearDown() {
+    executor.shutdownNow();
+    client.close();
+    server.close();
+  }
+
+  @Test
+  public void testUploadWhileWriting() throws Exception {
+    Path path = testFolder.getRoot().toPath().resolve("bq_.0.jsonl");
+    BigqueryPipelinedUpload upload = new BigqueryPipelinedUpload(task, client, path);
+    ByteArrayOutputStream expected = new ByteArrayOutputStream();
+    // lines cross the ends of chunks, and the last chunk is not full
+    try (OutputStream out = upload.outputStream(new FileOutputStream(path.toFile()))) {
+      for (int i = 0; i < 100000; i++) {
+        out.write(LINE, 0, LINE.length - 1);
+        out.write('\n');
+        expected.write(LINE);
+      }
+    }
+
+    JobStatistics.LoadStatistics statistics =
+        BigqueryUtil.join(new BigqueryJobRunner(task, client, path, upload).run(executor));
+    assertEquals(100000L, (long) statistics.getOutputRows());
+    assertEquals(100000L, server.getNumRows("project", "dataset", "table"));
+    // the file is written as well, and is not uploaded again
+    assertArrayEquals(expected.toByteArray(), Files.readAllBytes(path));
+    assertEquals(expected.size(), server.getUploadedBytes());
+  }
+
+  @Test
+  public void testAbort() throws Exception {
+    Path path = testFolder.getRoot().toPath().resolve("bq_.0.jsonl");
+    BigqueryPipelinedUpload upload = new BigqueryPipelinedUpload(task, client, path);
+    OutputStream out = upload.outputStream(new FileOutputStream(path.toFile()));
+    write(out, 1000);
+    upload.abort();
+
+    CompletionException e = assertThrows(CompletionException.class, upload.getJob()::join);
+    assertTrue(e.getCause() instanceof CancellationException);
+    // the writer does not wait for the upload that has stopped
+    write(out, 100000);
+    out.close();
+    assertEquals(100000L * LINE.length + 1000L * LINE.length, Files.size(path));
+    // no job is created
+    assertEquals(-1L, server.getNumRows("project", "dataset", "table"));
+  }
+
+  @Test
+  public void testLoadFileAfterFailedUpload() throws Exception {
+    Path path = testFolder.getRoot().toPath().resolve("bq_.0.jsonl");
+    // the upload fails before its job is created
+    server.failUploads(1);
+    BigqueryPipelinedUpload upload = new BigqueryPipelinedUpload(task, client, path);
+    try (OutputStream out = upload.outputStream(new FileOutputStream(path.toFile()))) {
+      write(out, 100000);
+    }
+
+    JobStatistics.LoadStatistics statistics =
+        BigqueryUtil.join(new BigqueryJobRunner(task, client, path, upload).run(executor));
+    assertEquals(100000L, (long) statistics.getOutputRows());
+    assertEquals(100000L, server.getNumRows("project", "dataset", "table"));
+  }
+
+  @Test
+  public void testNotLoadFileAfterAbort() throws Exception {
+    Path path = testFolder.getRoot().toPath().resolve("bq_.0.jsonl");
+    BigqueryPipelinedUpload upload = new BigqueryPipelinedUpload(task, client, path);
+    try (OutputStream out = upload.outputStream(new FileOutputStream(path.toFile()))) {
+      write(out, 1000);
+      // a failed transaction aborts the upload
+      upload.abort();
+    }
+
+    CompletionException e =
+        assertThrows(
+            CompletionException.class,
+            new BigqueryJobRunner(task, client, path, upload).run(executor)::join);
+    assertTrue(e.getCause() instanceof CancellationException);
+    assertEquals(-1L, server.getNumRows("project", "dataset", "table"));
+  }
+
+  private void write(OutputStream out, int lines) throws IOException {
+    for (int i = 0; i < lines; i++) {
+      out.write(LINE);
+    }
+  }
+}
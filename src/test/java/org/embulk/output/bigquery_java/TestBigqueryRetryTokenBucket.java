@@ -0,0 +1,22 @@
+package org.embulk.output.bigquery_java;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+public class TestBigqueryRetryTokenBucket {
+  @Test
+  public void testTake() {
+    BigqueryRetryTokenBucket bucket = new BigqueryRetryTokenBucket(2.0, 2, 0);
+    assertEquals(0, bucket.take(0));
+    assertEquals(0, bucket.take(0));
+    // the bucket is empty, and the next tokens come every 500 ms
+    assertEquals(500, bucket.take(0));
+    assertEquals(1000, bucket.take(0));
+    assertEquals(500, bucket.take(1000));
+    // the bucket does not fill over its size
+    assertEquals(0, bucket.take(10000));
+    assertEquals(0, bucket.take(10000));
+    assertEquals(500, bucket.take(10000));
+  }
+}
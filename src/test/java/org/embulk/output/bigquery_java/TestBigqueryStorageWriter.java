@@ -0,0 +1,110 @@
+package org.embulk.output.bigquery_java;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import com.google.api.core.ApiFuture;
+import com.google.api.core.ApiFutures;
+import com.google.api.core.SettableApiFuture;
+import com.google.cloud.bigquery.storage.v1.AppendRowsResponse;
+import com.google.cloud.bigquery.storage.v1.ProtoRows;
+import com.google.cloud.bigquery.storage.v1.StreamWriter;
+import com.google.cloud.bigquery.storage.v1.WriteStream;
+import com.google.protobuf.ByteString;
+import com.google.protobuf.DescriptorProtos.DescriptorProto;
+import com.google.rpc.Status;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.embulk.output.bigquery_java.exception.BigqueryException;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+public class TestBigqueryStorageWriter {
+  private static final WriteStream STREAM =
+      WriteStream.newBuilder().setName("projects/p/datasets/d/tables/t/streams/s").build();
+
+  private BigqueryClient client;
+  private StreamWriter streamWriter;
+  // offsets and rows of appends
+  private final List<Long> offsets = new ArrayList<>();
+  private final List<Integer> counts = new ArrayList<>();
+
+  @Before
+  public void setUp() throws Exception {
+    client = Mockito.mock(BigqueryClient.class);
+    streamWriter = Mockito.mock(StreamWriter.class);
+    Mockito.when(client.createPendingWriteStream("table")).thenReturn(STREAM);
+    Mockito.when(client.newStreamWriter(Mockito.eq(STREAM), Mockito.any(DescriptorProto.class)))
+        .thenReturn(streamWriter);
+  }
+
+  @Test
+  public void testAppendsBy8MB() {
+    appendAnswers(ApiFutures.immediateFuture(AppendRowsResponse.getDefaultInstance()));
+    Mockito.when(client.finalizeWriteStream(STREAM.getName())).thenReturn(20L);
+    BigqueryStorageWriter writer = newWriter();
+    ByteString row = ByteString.copyFrom(new byte[1024 * 1024]);
+    for (int i = 0; i < 20; i++) {
+      writer.write(row);
+    }
+
+    assertEquals(20L, writer.getCount());
+    assertEquals(20L, writer.finish());
+    // each append has the offset of its first row
+    assertEquals(Arrays.asList(0L, 8L, 16L), offsets);
+    assertEquals(Arrays.asList(8, 8, 4), counts);
+    writer.close();
+    writer.close();
+    Mockito.verify(streamWriter, Mockito.times(1)).close();
+  }
+
+  @Test
+  public void testFailedAppend() {
+    SettableApiFuture<AppendRowsResponse> first = SettableApiFuture.create();
+    appendAnswers(first, ApiFutures.immediateFuture(AppendRowsResponse.getDefaultInstance()));
+    BigqueryStorageWriter writer = newWriter();
+    writer.write(ByteString.copyFromUtf8("a"));
+    writer.flush();
+    first.setException(new RuntimeException("broken"));
+
+    // the next flush tells that an earlier append has failed
+    writer.write(ByteString.copyFromUtf8("b"));
+    BigqueryException e = assertThrows(BigqueryException.class, writer::flush);
+    assertTrue(e.getMessage().contains("broken"));
+    assertEquals(Arrays.asList(0L, 1L), offsets);
+  }
+
+  @Test
+  public void testAppendResponseError() {
+    AppendRowsResponse error =
+        AppendRowsResponse.newBuilder()
+            .setError(Status.newBuilder().setCode(3).setMessage("invalid row"))
+            .build();
+    appendAnswers(ApiFutures.immediateFuture(error));
+    BigqueryStorageWriter writer = newWriter();
+    writer.write(ByteString.copyFromUtf8("a"));
+
+    BigqueryException e = assertThrows(BigqueryException.class, writer::finish);
+    assertTrue(e.getMessage().contains("invalid row"));
+    Mockito.verify(client, Mockito.never()).finalizeWriteStream(Mockito.anyString());
+  }
+
+  private BigqueryStorageWriter newWriter() {
+    return new BigqueryStorageWriter(client, "table", DescriptorProto.getDefaultInstance());
+  }
+
+  // Records the appends, and answers them with the responses in order and the last one after them
+  @SafeVarargs
+  private final void appendAnswers(ApiFuture<AppendRowsResponse>... responses) {
+    Mockito.when(streamWriter.append(Mockito.any(ProtoRows.class), Mockito.anyLong()))
+        .thenAnswer(
+            invocation -> {
+              offsets.add((Long) invocation.getArguments()[1]);
+              counts.add(((ProtoRows) invocation.getArguments()[0]).getSerializedRowsCount());
+              return responses[Math.min(offsets.size(), responses.length) - 1];
+            });
+  }
+}
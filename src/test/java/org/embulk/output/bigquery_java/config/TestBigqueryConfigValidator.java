@@ -48,6 +48,33 @@ public class TestBigqueryConfigValidator {
     BigqueryConfigValidator.validateMode(task);
   }
 
+  @Test
+  public void validateMethod_storageWriteApi() {
+    config = loadYamlResource(embulk, "base.yml");
+    config.set("method", "storage_write_api");
+    PluginTask task = CONFIG_MAPPER.map(config, PluginTask.class);
+    BigqueryConfigValidator.validateMethod(task);
+
+    assertEquals("storage_write_api", task.getMethod());
+  }
+
+  @Test(expected = ConfigException.class)
+  public void validateMethod_invalid_configException() {
+    config = loadYamlResource(embulk, "base.yml");
+    config.set("method", "foo");
+    PluginTask task = CONFIG_MAPPER.map(config, PluginTask.class);
+    BigqueryConfigValidator.validateMethod(task);
+  }
+
+  @Test(expected = ConfigException.class)
+  public void validateMethod_storageWriteApiTemplateTable_configException() {
+    config = loadYamlResource(embulk, "base.yml");
+    config.set("method", "storage_write_api");
+    config.set("template_table", "template");
+    PluginTask task = CONFIG_MAPPER.map(config, PluginTask.class);
+    BigqueryConfigValidator.validateMethod(task);
+  }
+
   @Test
   public void validateModeAndAutoCreteTable() {
     config = loadYamlResource(embulk, "base.yml");
@@ -65,4 +92,151 @@ public class TestBigqueryConfigValidator {
     task.setAutoCreateTable(false);
     BigqueryConfigValidator.validateModeAndAutoCreteTable(task);
   }
+
+  @Test
+  public void validateFieldDelimiter() {
+    config = loadYamlResource(embulk, "base.yml");
+    config.set("field_delimiter", "\t");
+    PluginTask task = CONFIG_MAPPER.map(config, PluginTask.class);
+    BigqueryConfigValidator.validateFieldDelimiter(task);
+
+    assertEquals("\t", task.getFieldDelimiter());
+  }
+
+  @Test(expected = ConfigException.class)
+  public void validateFieldDelimiter_multipleCharacters_configException() {
+    config = loadYamlResource(embulk, "base.yml");
+    config.set("field_delimiter", "||");
+    PluginTask task = CONFIG_MAPPER.map(config, PluginTask.class);
+    BigqueryConfigValidator.validateFieldDelimiter(task);
+  }
+
+  @Test
+  public void validateCompression() {
+    config = loadYamlResource(embulk, "base.yml");
+    config.set("source_format", "AVRO");
+    config.set("compression", "SNAPPY");
+    PluginTask task = CONFIG_MAPPER.map(config, PluginTask.class);
+    BigqueryConfigValidator.validateCompression(task);
+
+    assertEquals("SNAPPY", task.getCompression());
+  }
+
+  @Test(expected = ConfigException.class)
+  public void validateCompression_gzipAvro_configException() {
+    config = loadYamlResource(embulk, "base.yml");
+    config.set("source_format", "AVRO");
+    PluginTask task = CONFIG_MAPPER.map(config, PluginTask.class);
+    BigqueryConfigValidator.validateCompression(task);
+  }
+
+  @Test
+  public void validateCompression_zstdParquet() {
+    config = loadYamlResource(embulk, "base.yml");
+    config.set("source_format", "PARQUET");
+    config.set("compression", "zstd");
+    PluginTask task = CONFIG_MAPPER.map(config, PluginTask.class);
+    BigqueryConfigValidator.validateCompression(task);
+  }
+
+  @Test(expected = ConfigException.class)
+  public void validatePipelinedUploadBufferSize_zero_configException() {
+    config = loadYamlResource(embulk, "base.yml");
+    config.set("pipelined_upload", true);
+    config.set("pipelined_upload_buffer_size", 0);
+    PluginTask task = CONFIG_MAPPER.map(config, PluginTask.class);
+    BigqueryConfigValidator.validatePipelinedUploadBufferSize(task);
+  }
+
+  @Test(expected = ConfigException.class)
+  public void validateFileRolling_zeroRecords_configException() {
+    config = loadYamlResource(embulk, "base.yml");
+    config.set("max_records_per_file", 0);
+    PluginTask task = CONFIG_MAPPER.map(config, PluginTask.class);
+    BigqueryConfigValidator.validateFileRolling(task);
+  }
+
+  @Test
+  public void validateMaxLocalDiskBytes() {
+    config = loadYamlResource(embulk, "base.yml");
+    config.set("max_local_disk_bytes", 1024 * 1024 * 1024);
+    config.set("max_file_size", 64 * 1024 * 1024);
+    PluginTask task = CONFIG_MAPPER.map(config, PluginTask.class);
+    BigqueryConfigValidator.validateMaxLocalDiskBytes(task);
+  }
+
+  @Test(expected = ConfigException.class)
+  public void validateMaxLocalDiskBytes_withoutMaxFileSize_configException() {
+    config = loadYamlResource(embulk, "base.yml");
+    config.set("max_local_disk_bytes", 1024 * 1024 * 1024);
+    PluginTask task = CONFIG_MAPPER.map(config, PluginTask.class);
+    BigqueryConfigValidator.validateMaxLocalDiskBytes(task);
+  }
+
+  @Test(expected = ConfigException.class)
+  public void validateMaxLocalDiskBytes_keepFiles_configException() {
+    config = loadYamlResource(embulk, "base.yml");
+    config.set("max_local_disk_bytes", 1024 * 1024 * 1024);
+    config.set("max_file_size", 64 * 1024 * 1024);
+    config.set("delete_from_local_when_job_end", false);
+    PluginTask task = CONFIG_MAPPER.map(config, PluginTask.class);
+    BigqueryConfigValidator.validateMaxLocalDiskBytes(task);
+  }
+
+  @Test
+  public void validateGcsBucket() {
+    config = loadYamlResource(embulk, "base.yml");
+    config.set("gcs_bucket", "bucket");
+    PluginTask task = CONFIG_MAPPER.map(config, PluginTask.class);
+    BigqueryConfigValidator.validateGcsBucket(task);
+  }
+
+  @Test(expected = ConfigException.class)
+  public void validateGcsBucket_pipelinedUpload_configException() {
+    config = loadYamlResource(embulk, "base.yml");
+    config.set("gcs_bucket", "bucket");
+    config.set("pipelined_upload", true);
+    PluginTask task = CONFIG_MAPPER.map(config, PluginTask.class);
+    BigqueryConfigValidator.validateGcsBucket(task);
+  }
+
+  @Test(expected = ConfigException.class)
+  public void validateMaxUploadConcurrency_zero_configException() {
+    config = loadYamlResource(embulk, "base.yml");
+    config.set("max_upload_concurrency", 0);
+    PluginTask task = CONFIG_MAPPER.map(config, PluginTask.class);
+    BigqueryConfigValidator.validateMaxUploadConcurrency(task);
+  }
+
+  @Test(expected = ConfigException.class)
+  public void validateRetryPolicies_zeroTokensPerSecond_configException() {
+    config = loadYamlResource(embulk, "base.yml");
+    config.set("retry_tokens_per_second", 0);
+    PluginTask task = CONFIG_MAPPER.map(config, PluginTask.class);
+    BigqueryConfigValidator.validateRetryPolicies(task);
+  }
+
+  @Test(expected = ConfigException.class)
+  public void validateUploadChunkSize_tooSmall_configException() {
+    config = loadYamlResource(embulk, "base.yml");
+    config.set("upload_chunk_size", 1024);
+    PluginTask task = CONFIG_MAPPER.map(config, PluginTask.class);
+    BigqueryConfigValidator.validateUploadChunkSize(task);
+  }
+
+  @Test(expected = ConfigException.class)
+  public void validateUploadChunkSize_notMultiple_configException() {
+    config = loadYamlResource(embulk, "base.yml");
+    config.set("upload_chunk_size", 256 * 1024 + 1);
+    PluginTask task = CONFIG_MAPPER.map(config, PluginTask.class);
+    BigqueryConfigValidator.validateUploadChunkSize(task);
+  }
+
+  @Test(expected = ConfigException.class)
+  public void validateGzip_level10_configException() {
+    config = loadYamlResource(embulk, "base.yml");
+    config.set("gzip_level", 10);
+    PluginTask task = CONFIG_MAPPER.map(config, PluginTask.class);
+    BigqueryConfigValidator.validateGzip(task);
+  }
 }
@@ -88,6 +88,43 @@ public class TestBigqueryTaskBuilder {
     assertEquals(".jsonl.gz", task.getFileExt().get());
   }
 
+  @Test
+  public void setCompression_lowerCase_upperCase() {
+    config = loadYamlResource(embulk, "base.yml");
+    config.set("compression", "gzip");
+    PluginTask task = CONFIG_MAPPER.map(config, PluginTask.class);
+
+    BigqueryTaskBuilder.build(task);
+    assertEquals("GZIP", task.getCompression());
+    assertEquals(".jsonl.gz", task.getFileExt().get());
+  }
+
+  @Test
+  public void setFileExt_PARQUET_GZIP_PARQUET() {
+    config =
+        embulk
+            .configLoader()
+            .fromYamlString(
+                String.join(
+                    "\n",
+                    "type: bigquery_java",
+                    "mode: replace",
+                    "auth_method: service_account",
+                    "json_keyfile: { content: \"\" }",
+                    "dataset: dataset",
+                    "table: table",
+                    "source_format: PARQUET",
+                    "compression: GZIP",
+                    "auto_create_dataset: false",
+                    "auto_create_table: true",
+                    "path_prefix: /tmp/bq_compress/bq_",
+                    ""));
+    PluginTask task = CONFIG_MAPPER.map(config, PluginTask.class);
+
+    BigqueryTaskBuilder.setFileExt(task);
+    assertEquals(".parquet", task.getFileExt().get());
+  }
+
   @Test
   public void clustering() {
     config =
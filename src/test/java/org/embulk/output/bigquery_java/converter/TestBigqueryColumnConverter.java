@@ -0,0 +1,85 @@
+package org.embulk.output.bigquery_java.converter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThrows;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.embulk.config.ConfigException;
+import org.embulk.config.ConfigSource;
+import org.embulk.output.bigquery_java.config.BigqueryColumnOption;
+import org.embulk.output.bigquery_java.config.BigqueryColumnOptionType;
+import org.embulk.output.bigquery_java.config.PluginTask;
+import org.embulk.spi.Column;
+import org.embulk.spi.Schema;
+import org.embulk.spi.type.Types;
+import org.embulk.util.config.ConfigMapper;
+import org.embulk.util.config.ConfigMapperFactory;
+import org.embulk.util.config.units.LocalFile;
+import org.junit.Test;
+
+public class TestBigqueryColumnConverter {
+  protected static final ConfigMapperFactory CONFIG_MAPPER_FACTORY =
+      ConfigMapperFactory.builder().addDefaultModules().build();
+
+  protected static final ConfigMapper CONFIG_MAPPER = CONFIG_MAPPER_FACTORY.createConfigMapper();
+
+  @Test
+  public void testResolveByColumnIndex() {
+    Schema schema =
+        new Schema(
+            Arrays.asList(
+                new Column(0, "a", Types.LONG),
+                new Column(1, "b", Types.STRING),
+                new Column(2, "c", Types.JSON)));
+    List<BigqueryColumnOption> columnOptions = new ArrayList<>();
+    columnOptions.add(columnOption("b", "TIMESTAMP"));
+    columnOptions.add(columnOption("c", "INTEGER"));
+    columnOptions.add(columnOption("unknown", "STRING"));
+
+    BigqueryColumnConverter[] converters =
+        BigqueryColumnConverter.of(task(), schema, columnOptions);
+
+    assertEquals(3, converters.length);
+    assertEquals("a", converters[0].getName());
+    assertEquals(
+        BigqueryColumnOptionType.INTEGER, converters[0].getType(BigqueryColumnOptionType.INTEGER));
+    assertNull(converters[0].getColumnOption());
+    assertEquals("b", converters[1].getName());
+    assertEquals(
+        BigqueryColumnOptionType.TIMESTAMP, converters[1].getType(BigqueryColumnOptionType.STRING));
+    assertEquals("b", converters[1].getColumnOption().getName());
+    // type of json column is ignored
+    assertEquals(
+        BigqueryColumnOptionType.STRING, converters[2].getType(BigqueryColumnOptionType.STRING));
+  }
+
+  @Test
+  public void testInvalidType() {
+    Schema schema = new Schema(Arrays.asList(new Column(0, "a", Types.STRING)));
+    List<BigqueryColumnOption> columnOptions = new ArrayList<>();
+    columnOptions.add(columnOption("a", "INVALID"));
+
+    assertThrows(
+        ConfigException.class, () -> BigqueryColumnConverter.of(task(), schema, columnOptions));
+  }
+
+  private PluginTask task() {
+    ConfigSource configSource = CONFIG_MAPPER_FACTORY.newConfigSource();
+    configSource.set("mode", "replace");
+    configSource.set("json_keyfile", LocalFile.ofContent(""));
+    configSource.set("dataset", "test");
+    configSource.set("table", "test");
+    configSource.set("source_format", "NEWLINE_DELIMITED_JSON");
+    return CONFIG_MAPPER.map(configSource, PluginTask.class);
+  }
+
+  private BigqueryColumnOption columnOption(String name, String type) {
+    ConfigSource configSource = CONFIG_MAPPER_FACTORY.newConfigSource();
+    configSource.set("name", name);
+    configSource.set("type", type);
+    return CONFIG_MAPPER.map(configSource, BigqueryColumnOption.class);
+  }
+}
@@ -0,0 +1,69 @@
+package org.embulk.output.bigquery_java.converter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.time.Instant;
+import org.embulk.util.timestamp.TimestampFormatter;
+import org.junit.Test;
+
+public class TestBigqueryInstantFormatter {
+  private static final String[] PATTERNS = {
+    BigqueryInstantFormatter.TIMESTAMP_FORMAT,
+    BigqueryInstantFormatter.DATETIME_FORMAT,
+    BigqueryInstantFormatter.DATE_FORMAT
+  };
+
+  @Test
+  public void testUtcFastPath() {
+    for (String pattern : PATTERNS) {
+      assertTrue(BigqueryInstantFormatter.of(pattern, "UTC") instanceof UtcInstantFormatter);
+      assertFalse(
+          BigqueryInstantFormatter.of(pattern, "Asia/Tokyo") instanceof UtcInstantFormatter);
+    }
+    assertFalse(BigqueryInstantFormatter.of("%Y/%m/%d", "UTC") instanceof UtcInstantFormatter);
+  }
+
+  @Test
+  public void testFormat() {
+    Instant instant = Instant.ofEpochSecond(1588291200L, 123456789);
+    assertEquals(
+        "2020-05-01 00:00:00.123456 +00:00",
+        BigqueryInstantFormatter.of(BigqueryInstantFormatter.TIMESTAMP_FORMAT, "UTC")
+            .format(instant));
+    assertEquals(
+        "2020-05-01 00:00:00.123456",
+        BigqueryInstantFormatter.of(BigqueryInstantFormatter.DATETIME_FORMAT, "UTC")
+            .format(instant));
+    assertEquals(
+        "2020-05-01",
+        BigqueryInstantFormatter.of(BigqueryInstantFormatter.DATE_FORMAT, "UTC").format(instant));
+  }
+
+  @Test
+  public void testSameAsTimestampFormatter() {
+    long[] epochSeconds = {
+      0L,
+      -1L,
+      86399L,
+      951782400L, // 2000-02-29
+      -62135596800L, // 0001-01-01
+      253402300799L, // 9999-12-31 23:59:59
+      -62135596801L,
+      253402300800L
+    };
+    int[] nanos = {0, 1, 999, 1000, 999999999};
+    for (String pattern : PATTERNS) {
+      BigqueryInstantFormatter formatter = BigqueryInstantFormatter.of(pattern, "UTC");
+      TimestampFormatter expected =
+          TimestampFormatter.builder(pattern, true).setDefaultZoneFromString("UTC").build();
+      for (long epochSecond : epochSeconds) {
+        for (int nano : nanos) {
+          Instant instant = Instant.ofEpochSecond(epochSecond, nano);
+          assertEquals(expected.format(instant), formatter.format(instant));
+        }
+      }
+    }
+  }
+}
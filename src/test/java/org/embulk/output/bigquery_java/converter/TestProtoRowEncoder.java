@@ -0,0 +1,181 @@
+package org.embulk.output.bigquery_java.converter;
+
+import static org.embulk.output.bigquery_java.BigqueryTestHelper.CONFIG_MAPPER;
+import static org.embulk.output.bigquery_java.BigqueryTestHelper.CONFIG_MAPPER_FACTORY;
+import static org.embulk.output.bigquery_java.BigqueryTestHelper.columnOption;
+import static org.embulk.output.bigquery_java.BigqueryTestHelper.task;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThrows;
+
+import com.google.cloud.bigquery.storage.v1.BigDecimalByteStringEncoder;
+import com.google.protobuf.ByteString;
+import com.google.protobuf.DescriptorProtos.FieldDescriptorProto;
+import com.google.protobuf.Descriptors;
+import com.google.protobuf.DynamicMessage;
+import com.google.protobuf.InvalidProtocolBufferException;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.embulk.config.ConfigException;
+import org.embulk.config.ConfigSource;
+import org.embulk.output.bigquery_java.BigqueryTestHelper.PageReaderForTest;
+import org.embulk.output.bigquery_java.config.BigqueryColumnOption;
+import org.embulk.output.bigquery_java.exception.BigqueryTypeCastException;
+import org.embulk.spi.Column;
+import org.embulk.spi.Schema;
+import org.embulk.spi.type.Types;
+import org.junit.Test;
+
+public class TestProtoRowEncoder {
+  private static final Schema SCHEMA =
+      new Schema(
+          Arrays.asList(
+              new Column(0, "b", Types.BOOLEAN),
+              new Column(1, "l", Types.LONG),
+              new Column(2, "d", Types.DOUBLE),
+              new Column(3, "s", Types.STRING),
+              new Column(4, "t", Types.TIMESTAMP),
+              new Column(5, "n", Types.STRING),
+              new Column(6, "da", Types.STRING),
+              new Column(7, "dt", Types.TIMESTAMP)));
+
+  @SuppressWarnings("deprecation")
+  @Test
+  public void testValues() throws InvalidProtocolBufferException {
+    Object[] values = {
+      true,
+      100L,
+      100.5,
+      "foo",
+      org.embulk.spi.time.Timestamp.ofInstant(Instant.ofEpochSecond(1588291200L, 123456789)),
+      "1.50",
+      "2020/05/01",
+      org.embulk.spi.time.Timestamp.ofInstant(Instant.ofEpochSecond(1588291200L, 123456789))
+    };
+    DynamicMessage row = encode(values, columnOptions());
+
+    assertEquals(true, field(row, "b"));
+    assertEquals(100L, field(row, "l"));
+    assertEquals(100.5, field(row, "d"));
+    assertEquals("foo", field(row, "s"));
+    assertEquals(1588291200123456L, field(row, "t"));
+    assertEquals(
+        BigDecimalByteStringEncoder.encodeToNumericByteString(new BigDecimal("1.500000000")),
+        field(row, "n"));
+    assertEquals((int) LocalDate.of(2020, 5, 1).toEpochDay(), field(row, "da"));
+    assertEquals("2020-05-01 00:00:00.123456", field(row, "dt"));
+  }
+
+  @Test
+  public void testSchema() {
+    List<FieldDescriptorProto> fields =
+        ProtoSchemaBuilder.build(
+                BigqueryColumnConverter.of(task("NEWLINE_DELIMITED_JSON"), SCHEMA, columnOptions()))
+            .getFieldList();
+
+    assertEquals(FieldDescriptorProto.Type.TYPE_INT64, fields.get(4).getType());
+    assertEquals(FieldDescriptorProto.Type.TYPE_BYTES, fields.get(5).getType());
+    assertEquals(FieldDescriptorProto.Type.TYPE_INT32, fields.get(6).getType());
+    assertEquals(FieldDescriptorProto.Type.TYPE_STRING, fields.get(7).getType());
+    for (int i = 0; i < fields.size(); i++) {
+      assertEquals(SCHEMA.getColumnName(i), fields.get(i).getName());
+      assertEquals(i + 1, fields.get(i).getNumber());
+      assertEquals(FieldDescriptorProto.Label.LABEL_OPTIONAL, fields.get(i).getLabel());
+    }
+  }
+
+  @Test
+  public void testNull() throws InvalidProtocolBufferException {
+    Object[] values = new Object[8];
+    DynamicMessage row = encode(values, columnOptions());
+
+    for (Descriptors.FieldDescriptor field : row.getDescriptorForType().getFields()) {
+      assertFalse(row.hasField(field));
+    }
+  }
+
+  @Test
+  public void testRequired() {
+    List<BigqueryColumnOption> columnOptions = columnOptions();
+    ConfigSource configSource = CONFIG_MAPPER_FACTORY.newConfigSource();
+    configSource.set("name", "l");
+    configSource.set("mode", "REQUIRED");
+    columnOptions.add(CONFIG_MAPPER.map(configSource, BigqueryColumnOption.class));
+    Object[] values = new Object[8];
+
+    assertThrows(BigqueryTypeCastException.class, () -> encode(values, columnOptions));
+  }
+
+  @Test
+  public void testLargeRow() throws InvalidProtocolBufferException {
+    StringBuilder text = new StringBuilder();
+    for (int i = 0; i < 10000; i++) {
+      text.append(i % 10);
+    }
+    Object[] values = new Object[8];
+    values[3] = text.toString();
+    DynamicMessage row = encode(values, columnOptions());
+
+    assertEquals(text.toString(), field(row, "s"));
+  }
+
+  @Test
+  public void testPackNumeric() {
+    for (String value :
+        new String[] {
+          "0", "1.5", "-1.5", "-0.000000001", "99999999999999999999999999999.999999999"
+        }) {
+      assertEquals(
+          BigDecimalByteStringEncoder.encodeToNumericByteString(new BigDecimal(value)),
+          ByteString.copyFrom(ProtoRowEncoder.packNumeric(new BigDecimal(value))));
+    }
+    assertThrows(
+        BigqueryTypeCastException.class,
+        () -> ProtoRowEncoder.packNumeric(new BigDecimal("100000000000000000000000000000")));
+    assertThrows(
+        BigqueryTypeCastException.class,
+        () -> ProtoRowEncoder.packNumeric(new BigDecimal("0.0000000001")));
+  }
+
+  @Test
+  public void testRecordNotSupported() {
+    List<BigqueryColumnOption> columnOptions = new ArrayList<>();
+    columnOptions.add(columnOption("s", "RECORD", null));
+
+    assertThrows(
+        ConfigException.class,
+        () ->
+            ProtoSchemaBuilder.build(
+                BigqueryColumnConverter.of(task("NEWLINE_DELIMITED_JSON"), SCHEMA, columnOptions)));
+  }
+
+  private DynamicMessage encode(Object[] values, List<BigqueryColumnOption> columnOptions)
+      throws InvalidProtocolBufferException {
+    PageReaderForTest reader = new PageReaderForTest(SCHEMA);
+    reader.setValues(values);
+    ProtoRowEncoder encoder =
+        new ProtoRowEncoder(
+            SCHEMA,
+            BigqueryColumnConverter.of(task("NEWLINE_DELIMITED_JSON"), SCHEMA, columnOptions));
+    // encode twice to check that the encoder can be reused
+    encoder.encode(reader);
+    return DynamicMessage.parseFrom(
+        ProtoSchemaBuilder.toDescriptor(encoder.getDescriptor()), encoder.encode(reader));
+  }
+
+  private static Object field(DynamicMessage row, String name) {
+    return row.getField(row.getDescriptorForType().findFieldByName(name));
+  }
+
+  private List<BigqueryColumnOption> columnOptions() {
+    List<BigqueryColumnOption> columnOptions = new ArrayList<>();
+    columnOptions.add(columnOption("n", "NUMERIC", null));
+    columnOptions.add(columnOption("da", "DATE", "%Y/%m/%d"));
+    columnOptions.add(columnOption("dt", "DATETIME", null));
+    return columnOptions;
+  }
+}
@@ -0,0 +1,137 @@
+package org.embulk.output.bigquery_java.visitor;
+
+import static org.embulk.output.bigquery_java.BigqueryTestHelper.CONFIG_MAPPER;
+import static org.embulk.output.bigquery_java.BigqueryTestHelper.CONFIG_MAPPER_FACTORY;
+import static org.embulk.output.bigquery_java.BigqueryTestHelper.columnOption;
+import static org.embulk.output.bigquery_java.BigqueryTestHelper.task;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThrows;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.apache.avro.generic.GenericDatumReader;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.io.DecoderFactory;
+import org.embulk.config.ConfigSource;
+import org.embulk.output.bigquery_java.BigqueryTestHelper.PageReaderForTest;
+import org.embulk.output.bigquery_java.config.BigqueryColumnOption;
+import org.embulk.output.bigquery_java.converter.BigqueryColumnConverter;
+import org.embulk.output.bigquery_java.exception.BigqueryTypeCastException;
+import org.embulk.spi.Column;
+import org.embulk.spi.Schema;
+import org.embulk.spi.type.Types;
+import org.junit.Test;
+
+public class TestAvroColumnVisitor {
+  private static final Schema SCHEMA =
+      new Schema(
+          Arrays.asList(
+              new Column(0, "b", Types.BOOLEAN),
+              new Column(1, "l", Types.LONG),
+              new Column(2, "d", Types.DOUBLE),
+              new Column(3, "s", Types.STRING),
+              new Column(4, "t", Types.TIMESTAMP),
+              new Column(5, "n", Types.STRING),
+              new Column(6, "da", Types.STRING),
+              new Column(7, "ts", Types.STRING)));
+
+  @SuppressWarnings("deprecation")
+  @Test
+  public void testValues() throws IOException {
+    Object[] values = {
+      true,
+      100L,
+      100.5,
+      "foo",
+      org.embulk.spi.time.Timestamp.ofInstant(Instant.ofEpochSecond(1588291200L, 123456789)),
+      "1.50",
+      "2020/05/01",
+      "2020-05-01 09:00:00.123456 +09:00"
+    };
+    GenericRecord record = visit(values, columnOptions());
+
+    assertEquals(true, record.get("b"));
+    assertEquals(100L, record.get("l"));
+    assertEquals(100.5, record.get("d"));
+    assertEquals("foo", record.get("s").toString());
+    assertEquals(1588291200123456L, record.get("t"));
+    // unscaled value of 1.500000000
+    assertEquals(ByteBuffer.wrap(BigInteger.valueOf(1500000000L).toByteArray()), record.get("n"));
+    assertEquals((int) LocalDate.of(2020, 5, 1).toEpochDay(), record.get("da"));
+    assertEquals(1588291200123456L, record.get("ts"));
+  }
+
+  @Test
+  public void testTimestampString() throws IOException {
+    // strings of TIMESTAMP columns without timestamp_format are in the format of BigQuery
+    String[] timestamps = {
+      "2020-05-01 00:00:00.123456",
+      "2020-05-01T00:00:00.123456Z",
+      "2020-05-01 09:00:00.123456 Asia/Tokyo"
+    };
+    for (String timestamp : timestamps) {
+      Object[] values = {null, null, null, null, null, null, null, timestamp};
+      assertEquals(1588291200123456L, visit(values, columnOptions()).get("ts"));
+    }
+    Object[] values = {null, null, null, null, null, null, null, "2020-05-01 00:00:00 UTC"};
+    assertEquals(1588291200000000L, visit(values, columnOptions()).get("ts"));
+    values[7] = "2020-05-01";
+    assertEquals(1588291200000000L, visit(values, columnOptions()).get("ts"));
+
+    values[7] = "May 1, 2020";
+    assertThrows(BigqueryTypeCastException.class, () -> visit(values, columnOptions()));
+  }
+
+  @Test
+  public void testNull() throws IOException {
+    Object[] values = {null, null, null, null, null, null, null, null};
+    GenericRecord record = visit(values, columnOptions());
+
+    for (Column column : SCHEMA.getColumns()) {
+      assertNull(record.get(column.getName()));
+    }
+  }
+
+  @Test
+  public void testRequired() {
+    List<BigqueryColumnOption> columnOptions = columnOptions();
+    ConfigSource configSource = CONFIG_MAPPER_FACTORY.newConfigSource();
+    configSource.set("name", "l");
+    configSource.set("mode", "REQUIRED");
+    columnOptions.add(CONFIG_MAPPER.map(configSource, BigqueryColumnOption.class));
+    Object[] values = {null, null, null, null, null, null, null, null};
+
+    assertThrows(BigqueryTypeCastException.class, () -> visit(values, columnOptions));
+  }
+
+  private GenericRecord visit(Object[] values, List<BigqueryColumnOption> columnOptions)
+      throws IOException {
+    PageReaderForTest reader = new PageReaderForTest(SCHEMA);
+    reader.setValues(values);
+    AvroColumnVisitor visitor =
+        new AvroColumnVisitor(
+            reader, BigqueryColumnConverter.of(task("AVRO"), SCHEMA, columnOptions));
+    // visit twice to check that the visitor can be reused
+    visitor.reset();
+    SCHEMA.visitColumns(visitor);
+    visitor.reset();
+    SCHEMA.visitColumns(visitor);
+    return new GenericDatumReader<GenericRecord>(visitor.getSchema())
+        .read(null, DecoderFactory.get().binaryDecoder(visitor.getByteArray(), null));
+  }
+
+  private List<BigqueryColumnOption> columnOptions() {
+    List<BigqueryColumnOption> columnOptions = new ArrayList<>();
+    columnOptions.add(columnOption("n", "NUMERIC", null));
+    columnOptions.add(columnOption("da", "DATE", "%Y/%m/%d"));
+    columnOptions.add(columnOption("ts", "TIMESTAMP", null));
+    return columnOptions;
+  }
+}
@@ -0,0 +1,73 @@
+package org.embulk.output.bigquery_java.visitor;
+
+import static org.embulk.output.bigquery_java.BigqueryTestHelper.columnOption;
+import static org.embulk.output.bigquery_java.BigqueryTestHelper.task;
+import static org.junit.Assert.assertEquals;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.embulk.output.bigquery_java.BigqueryTestHelper.PageReaderForTest;
+import org.embulk.output.bigquery_java.config.BigqueryColumnOption;
+import org.embulk.output.bigquery_java.converter.BigqueryColumnConverter;
+import org.embulk.spi.Column;
+import org.embulk.spi.Schema;
+import org.embulk.spi.type.Types;
+import org.junit.Test;
+
+public class TestCsvColumnVisitor {
+  private static final Schema SCHEMA =
+      new Schema(
+          Arrays.asList(
+              new Column(0, "b", Types.BOOLEAN),
+              new Column(1, "l", Types.LONG),
+              new Column(2, "d", Types.DOUBLE),
+              new Column(3, "s", Types.STRING),
+              new Column(4, "t", Types.TIMESTAMP),
+              new Column(5, "n", Types.STRING)));
+
+  @SuppressWarnings("deprecation")
+  @Test
+  public void testValues() {
+    List<BigqueryColumnOption> columnOptions = new ArrayList<>();
+    columnOptions.add(columnOption("n", "NUMERIC"));
+    Object[] values = {
+      true, 100L, 100.5, "foo", org.embulk.spi.time.Timestamp.ofEpochMilli(1588291200000L), "1.50"
+    };
+
+    assertEquals(
+        "true,100,100.5,foo,2020-05-01 00:00:00.000000 +00:00,1.500000000\n",
+        visit(values, columnOptions, ','));
+  }
+
+  @Test
+  public void testNullAndEmptyString() {
+    Object[] values = {null, null, null, "", null, null};
+
+    assertEquals(",,,\"\",,\n", visit(values, new ArrayList<>(), ','));
+  }
+
+  @Test
+  public void testQuoting() {
+    Object[] values = {true, 1L, 1.0, "a\"b", null, "x,y\nz"};
+
+    assertEquals("true,1,1.0,\"a\"\"b\",,\"x,y\nz\"\n", visit(values, new ArrayList<>(), ','));
+    assertEquals(
+        "true\t1\t1.0\t\"a\"\"b\"\t\t\"x,y\nz\"\n", visit(values, new ArrayList<>(), '\t'));
+  }
+
+  private String visit(Object[] values, List<BigqueryColumnOption> columnOptions, char delimiter) {
+    PageReaderForTest reader = new PageReaderForTest(SCHEMA);
+    reader.setValues(values);
+    CsvColumnVisitor visitor =
+        new CsvColumnVisitor(
+            reader, BigqueryColumnConverter.of(task("CSV"), SCHEMA, columnOptions), delimiter);
+    // visit twice to check that the visitor can be reused
+    visitor.reset();
+    SCHEMA.visitColumns(visitor);
+    visitor.reset();
+    SCHEMA.visitColumns(visitor);
+    return new String(visitor.getByteArray(), StandardCharsets.UTF_8);
+  }
+}
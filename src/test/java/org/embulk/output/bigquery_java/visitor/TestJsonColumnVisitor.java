@@ -7,6 +7,7 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.function.BiConsumer;
@@ -137,7 +138,7 @@ public class TestJsonColumnVisitor {
     configSource.set("source_format", "NEWLINE_DELIMITED_JSON");
     PluginTask task = CONFIG_MAPPER.map(configSource, PluginTask.class);
     Column column = new Column(0, "k", Types.STRING);
-    try (PageReader pageReader = new PageReaderForTest(value)) {
+    try (PageReader pageReader = new PageReaderForTest(column, value)) {
       List<BigqueryColumnOption> columnOptions = new ArrayList<>();
       if (columnOption != null) {
         ConfigSource c = CONFIG_MAPPER_FACTORY.newConfigSource().set("name", "k");
@@ -159,8 +160,8 @@ public class TestJsonColumnVisitor {
   private static class PageReaderForTest extends PageReader {
     private final Object value;
 
-    public PageReaderForTest(Object value) {
-      super(new Schema(new ArrayList<>()));
+    public PageReaderForTest(Column column, Object value) {
+      super(new Schema(Collections.singletonList(column)));
       this.value = value;
     }
 
@@ -0,0 +1,139 @@
+package org.embulk.output.bigquery_java.visitor;
+
+import static org.embulk.output.bigquery_java.BigqueryTestHelper.columnOption;
+import static org.embulk.output.bigquery_java.BigqueryTestHelper.task;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.embulk.output.bigquery_java.BigqueryRecordBuffer;
+import org.embulk.output.bigquery_java.BigqueryTestHelper.PageReaderForTest;
+import org.embulk.output.bigquery_java.config.BigqueryColumnOption;
+import org.embulk.output.bigquery_java.converter.BigqueryColumnConverter;
+import org.embulk.output.bigquery_java.exception.BigqueryTypeCastException;
+import org.embulk.spi.Column;
+import org.embulk.spi.Schema;
+import org.embulk.spi.type.Types;
+import org.junit.Test;
+
+public class TestJsonGeneratorColumnVisitor {
+  private static final Schema SCHEMA =
+      new Schema(
+          Arrays.asList(
+              new Column(0, "b", Types.BOOLEAN),
+              new Column(1, "l", Types.LONG),
+              new Column(2, "d", Types.DOUBLE),
+              new Column(3, "s", Types.STRING),
+              new Column(4, "t", Types.TIMESTAMP),
+              new Column(5, "n", Types.STRING)));
+
+  @SuppressWarnings("deprecation")
+  @Test
+  public void testSameOutputAsJsonColumnVisitor() throws IOException {
+    Object[] values = {
+      true,
+      100L,
+      100.5,
+      "あ\"😄\n",
+      org.embulk.spi.time.Timestamp.ofEpochMilli(1588291200000L),
+      "1.50"
+    };
+    List<BigqueryColumnOption> columnOptions = new ArrayList<>();
+    columnOptions.add(columnOption("n", "NUMERIC"));
+    assertSameOutput(values, columnOptions);
+
+    Object[] nulls = {null, null, null, null, null, null};
+    assertSameOutput(nulls, columnOptions);
+  }
+
+  @Test
+  public void testReuseAfterConversionError() {
+    List<BigqueryColumnOption> columnOptions = new ArrayList<>();
+    columnOptions.add(columnOption("s", "INTEGER"));
+    PageReaderForTest reader = new PageReaderForTest(SCHEMA);
+    JsonGeneratorColumnVisitor visitor =
+        new JsonGeneratorColumnVisitor(
+            reader,
+            BigqueryColumnConverter.of(task("NEWLINE_DELIMITED_JSON"), SCHEMA, columnOptions));
+
+    reader.setValues(new Object[] {true, 1L, 1.0, "not a number", null, null});
+    visitor.reset();
+    assertThrows(BigqueryTypeCastException.class, () -> SCHEMA.visitColumns(visitor));
+
+    reader.setValues(new Object[] {true, 1L, 1.0, "1", null, null});
+    visitor.reset();
+    SCHEMA.visitColumns(visitor);
+    assertEquals(
+        "{\"b\":true,\"l\":1,\"d\":1.0,\"s\":1,\"t\":null,\"n\":null}\n",
+        new String(visitor.getByteArray(), StandardCharsets.UTF_8));
+  }
+
+  @Test
+  public void testWriteIntoRecordBuffer() throws IOException {
+    List<BigqueryColumnOption> columnOptions = new ArrayList<>();
+    columnOptions.add(columnOption("n", "NUMERIC"));
+    PageReaderForTest reader = new PageReaderForTest(SCHEMA);
+    BigqueryRecordBuffer records = new BigqueryRecordBuffer();
+    JsonGeneratorColumnVisitor visitor =
+        new JsonGeneratorColumnVisitor(
+            reader,
+            BigqueryColumnConverter.of(task("NEWLINE_DELIMITED_JSON"), SCHEMA, columnOptions),
+            records);
+
+    reader.setValues(new Object[] {true, 1L, 1.0, "a", null, "1"});
+    visit(visitor, records);
+    // the generator flushes a part of the long record into the buffer before the error
+    char[] text = new char[64 * 1024];
+    Arrays.fill(text, 'a');
+    reader.setValues(new Object[] {true, 1L, 1.0, new String(text), null, "not a number"});
+    assertThrows(NumberFormatException.class, () -> visit(visitor, records));
+    reader.setValues(new Object[] {false, 2L, 2.0, "b", null, "2"});
+    visit(visitor, records);
+
+    assertEquals(2, records.getRecordCount());
+    assertEquals(
+        "{\"b\":true,\"l\":1,\"d\":1.0,\"s\":\"a\",\"t\":null,\"n\":1}\n"
+            + "{\"b\":false,\"l\":2,\"d\":2.0,\"s\":\"b\",\"t\":null,\"n\":2}\n",
+        records.toString("UTF-8"));
+  }
+
+  private void visit(JsonGeneratorColumnVisitor visitor, BigqueryRecordBuffer records)
+      throws IOException {
+    visitor.reset();
+    SCHEMA.visitColumns(visitor);
+    visitor.writeTo(records);
+    records.endRecord();
+  }
+
+  private void assertSameOutput(Object[] values, List<BigqueryColumnOption> columnOptions)
+      throws IOException {
+    PageReaderForTest reader = new PageReaderForTest(SCHEMA);
+    reader.setValues(values);
+    BigqueryColumnConverter[] converters =
+        BigqueryColumnConverter.of(task("NEWLINE_DELIMITED_JSON"), SCHEMA, columnOptions);
+    JsonColumnVisitor expected = new JsonColumnVisitor(reader, converters);
+    JsonGeneratorColumnVisitor actual = new JsonGeneratorColumnVisitor(reader, converters);
+    // visit twice to check that both visitors can be reused
+    for (int i = 0; i < 2; i++) {
+      expected.reset();
+      SCHEMA.visitColumns(expected);
+      actual.reset();
+      SCHEMA.visitColumns(actual);
+      String json = new String(actual.getByteArray(), StandardCharsets.UTF_8);
+      assertTrue(json.endsWith("}\n"));
+      assertEquals(
+          readTree(expected.getByteArray()), readTree(json.getBytes(StandardCharsets.UTF_8)));
+    }
+  }
+
+  private JsonNode readTree(byte[] json) throws IOException {
+    return new ObjectMapper().readTree(json);
+  }
+}
@@ -0,0 +1,126 @@
+package org.embulk.output.bigquery_java.visitor;
+
+import static org.embulk.output.bigquery_java.BigqueryTestHelper.CONFIG_MAPPER;
+import static org.embulk.output.bigquery_java.BigqueryTestHelper.CONFIG_MAPPER_FACTORY;
+import static org.embulk.output.bigquery_java.BigqueryTestHelper.columnOption;
+import static org.embulk.output.bigquery_java.BigqueryTestHelper.task;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import java.math.BigInteger;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.apache.parquet.io.api.Binary;
+import org.apache.parquet.schema.LogicalTypeAnnotation;
+import org.apache.parquet.schema.MessageType;
+import org.apache.parquet.schema.Type;
+import org.embulk.config.ConfigSource;
+import org.embulk.output.bigquery_java.BigqueryTestHelper.PageReaderForTest;
+import org.embulk.output.bigquery_java.config.BigqueryColumnOption;
+import org.embulk.output.bigquery_java.converter.BigqueryColumnConverter;
+import org.embulk.output.bigquery_java.exception.BigqueryTypeCastException;
+import org.embulk.spi.Column;
+import org.embulk.spi.Schema;
+import org.embulk.spi.type.Types;
+import org.junit.Test;
+
+public class TestParquetColumnVisitor {
+  private static final Schema SCHEMA =
+      new Schema(
+          Arrays.asList(
+              new Column(0, "b", Types.BOOLEAN),
+              new Column(1, "l", Types.LONG),
+              new Column(2, "d", Types.DOUBLE),
+              new Column(3, "s", Types.STRING),
+              new Column(4, "t", Types.TIMESTAMP),
+              new Column(5, "n", Types.STRING),
+              new Column(6, "da", Types.STRING)));
+
+  @SuppressWarnings("deprecation")
+  @Test
+  public void testValues() {
+    Object[] values = {
+      true,
+      100L,
+      100.5,
+      "foo",
+      org.embulk.spi.time.Timestamp.ofInstant(Instant.ofEpochSecond(1588291200L, 123456789)),
+      "1.50",
+      "2020/05/01"
+    };
+    Object[] row = visit(values, columnOptions()).getRow();
+
+    assertEquals(true, row[0]);
+    assertEquals(100L, row[1]);
+    assertEquals(100.5, row[2]);
+    assertEquals(Binary.fromString("foo"), row[3]);
+    assertEquals(1588291200123456L, row[4]);
+    // unscaled value of 1.500000000
+    assertEquals(
+        Binary.fromConstantByteArray(BigInteger.valueOf(1500000000L).toByteArray()), row[5]);
+    assertEquals((int) LocalDate.of(2020, 5, 1).toEpochDay(), row[6]);
+  }
+
+  @Test
+  public void testSchema() {
+    MessageType schema = visit(new Object[7], columnOptions()).getSchema();
+
+    assertEquals(
+        LogicalTypeAnnotation.timestampType(true, LogicalTypeAnnotation.TimeUnit.MICROS),
+        schema.getType("t").getLogicalTypeAnnotation());
+    assertEquals(
+        LogicalTypeAnnotation.decimalType(9, 38), schema.getType("n").getLogicalTypeAnnotation());
+    assertEquals(LogicalTypeAnnotation.dateType(), schema.getType("da").getLogicalTypeAnnotation());
+    for (Type field : schema.getFields()) {
+      assertTrue(field.isRepetition(Type.Repetition.OPTIONAL));
+    }
+  }
+
+  @Test
+  public void testNull() {
+    Object[] values = {null, null, null, null, null, null, null};
+    Object[] row = visit(values, columnOptions()).getRow();
+
+    for (Object value : row) {
+      assertNull(value);
+    }
+  }
+
+  @Test
+  public void testRequired() {
+    List<BigqueryColumnOption> columnOptions = columnOptions();
+    ConfigSource configSource = CONFIG_MAPPER_FACTORY.newConfigSource();
+    configSource.set("name", "l");
+    configSource.set("mode", "REQUIRED");
+    columnOptions.add(CONFIG_MAPPER.map(configSource, BigqueryColumnOption.class));
+    Object[] values = {null, null, null, null, null, null, null};
+
+    assertThrows(BigqueryTypeCastException.class, () -> visit(values, columnOptions));
+  }
+
+  private ParquetColumnVisitor visit(Object[] values, List<BigqueryColumnOption> columnOptions) {
+    PageReaderForTest reader = new PageReaderForTest(SCHEMA);
+    reader.setValues(values);
+    ParquetColumnVisitor visitor =
+        new ParquetColumnVisitor(
+            reader, BigqueryColumnConverter.of(task("PARQUET"), SCHEMA, columnOptions));
+    // visit twice to check that the visitor can be reused
+    visitor.reset();
+    SCHEMA.visitColumns(visitor);
+    visitor.reset();
+    SCHEMA.visitColumns(visitor);
+    return visitor;
+  }
+
+  private List<BigqueryColumnOption> columnOptions() {
+    List<BigqueryColumnOption> columnOptions = new ArrayList<>();
+    columnOptions.add(columnOption("n", "NUMERIC", null));
+    columnOptions.add(columnOption("da", "DATE", "%Y/%m/%d"));
+    return columnOptions;
+  }
+}